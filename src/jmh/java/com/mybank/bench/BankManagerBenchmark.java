@@ -0,0 +1,111 @@
+package com.mybank.bench;
+
+import com.mybank.dto.Account;
+import com.mybank.manager.BankManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory hot paths of {@link BankManager}. The {@code *Parallel} variants run the same operation from
+ * every available core to expose lock and allocation contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BankManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int accounts;
+
+    private BankManager manager;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void load() {
+        manager = new BankManager(BenchData.csv(accounts));
+        SplittableRandom rnd = new SplittableRandom(BenchData.SEED);
+        queries = new String[256];
+        for (int i = 0; i < queries.length; i++) queries[i] = BenchData.nameQuery(rnd);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        manager.close();
+    }
+
+    private String randomAccount() {
+        return BenchData.accountNumber(ThreadLocalRandom.current().nextInt(accounts));
+    }
+
+    private String randomQuery() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    @Benchmark
+    public Optional<Account> getByNumber() {
+        return manager.getByNumber(randomAccount());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<Account> getByNumberParallel() {
+        return manager.getByNumber(randomAccount());
+    }
+
+    /** A deposit followed by a withdrawal of the same amount, so balances stay put across iterations. */
+    @Benchmark
+    public void depositWithdraw() {
+        String number = randomAccount();
+        manager.deposit(number, 100);
+        manager.withdraw(number, 100);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void depositWithdrawParallel() {
+        String number = randomAccount();
+        manager.deposit(number, 100);
+        manager.withdraw(number, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Account> findByName() {
+        return manager.findByName(randomQuery());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Account> findByNamePrefix() {
+        return manager.findByNamePrefix(randomQuery());
+    }
+
+    /** A window covering roughly 0.1% of accounts. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Account> findByBalanceRange() {
+        long width = BenchData.MAX_BALANCE / 1000;
+        long min = ThreadLocalRandom.current().nextLong(BenchData.MAX_BALANCE - width);
+        return manager.findByBalanceRange(min, min + width);
+    }
+
+    @Benchmark
+    public List<Account> topNByBalance() {
+        return manager.topNByBalance(10);
+    }
+
+    @Benchmark
+    public void totalBalance(Blackhole bh) {
+        bh.consume(manager.totalBalance());
+        bh.consume(manager.averageBalance());
+    }
+}
@@ -0,0 +1,75 @@
+package com.mybank.bench;
+
+import com.mybank.persistence.CsvAccountWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic accounts for benchmarks. The same size and seed always produce the same file,
+ * so results stay comparable across builds.
+ */
+final class BenchData {
+    static final long SEED = 42L;
+    /** Balances are uniform in [0, MAX_BALANCE) cents. */
+    static final long MAX_BALANCE = 100_000_000L;
+
+    private static final String[] FIRST = {
+            "Alice", "Bob", "Carol", "Dave", "Erin", "Frank", "Grace", "Heidi", "Ivan", "Judy",
+            "Mallory", "Niaj", "Olivia", "Peggy", "Rupert", "Sybil", "Trent", "Victor", "Walter", "Zoe"
+    };
+    private static final String[] LAST = {
+            "Anderson", "Brown", "Clark", "Davis", "Evans", "Fischer", "Garcia", "Hughes", "Ito", "Jones",
+            "Kowalski", "Lopez", "Miller", "Nguyen", "Okafor", "Petrov", "Quinn", "Rossi", "Smith", "Tanaka"
+    };
+    private static final Path DIR = Path.of(System.getProperty("java.io.tmpdir"), "mybank-bench");
+
+    private BenchData() {
+    }
+
+    /** Account number of the i-th synthetic account, e.g. {@code AC00000042}. */
+    static String accountNumber(int i) {
+        char[] c = {'A', 'C', '0', '0', '0', '0', '0', '0', '0', '0'};
+        for (int p = c.length - 1; i > 0; p--, i /= 10) c[p] = (char) ('0' + i % 10);
+        return new String(c);
+    }
+
+    static String holderName(SplittableRandom rnd) {
+        return FIRST[rnd.nextInt(FIRST.length)] + " " + LAST[rnd.nextInt(LAST.length)] + " " + rnd.nextInt(1000);
+    }
+
+    /** A name fragment that is present in the data set: a surname or first name. */
+    static String nameQuery(SplittableRandom rnd) {
+        return rnd.nextBoolean() ? LAST[rnd.nextInt(LAST.length)] : FIRST[rnd.nextInt(FIRST.length)];
+    }
+
+    /**
+     * Returns a CSV with {@code size} accounts, generating it on first use and reusing it afterwards.
+     */
+    static Path csv(int size) {
+        Path file = DIR.resolve("accounts-" + size + "-" + SEED + ".csv");
+        if (Files.exists(file)) return file;
+        try {
+            Files.createDirectories(DIR);
+            Path tmp = Files.createTempFile(DIR, "accounts-", ".tmp");
+            SplittableRandom rnd = new SplittableRandom(SEED);
+            try (CsvAccountWriter writer = new CsvAccountWriter(
+                    FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                writer.writeHeader(0);
+                for (int i = 0; i < size; i++) {
+                    writer.write(accountNumber(i), holderName(rnd), rnd.nextLong(MAX_BALANCE));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mybank.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line, always attaches the GC
+ * profiler for allocation rates and, unless {@code -rf} or {@code -rff} is given, writes JSON results to
+ * {@code jmh-result.json} so runs from different builds can be compared.
+ * <pre>
+ *   mvn -Pbench package -DskipTests
+ *   java -jar target/benchmarks.jar BankManagerBenchmark -p accounts=1000,100000
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(cmd);
+        if (cmd.getProfilers().stream().noneMatch(p -> p.getKlass().equals(GCProfiler.class.getName()))) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResult().hasValue() && !cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
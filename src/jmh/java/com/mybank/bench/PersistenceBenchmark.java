@@ -0,0 +1,55 @@
+package com.mybank.bench;
+
+import com.mybank.manager.BankManager;
+import com.mybank.persistence.CsvLoadReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file CSV load and save. Each invocation processes the full data set, so these run in single-shot
+ * mode and report milliseconds per call.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int accounts;
+
+    private Path csv;
+    private Path out;
+    private BankManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csv = BenchData.csv(accounts);
+        out = Files.createTempFile("mybank-save-", ".csv");
+        manager = new BankManager(csv);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        Files.deleteIfExists(out);
+    }
+
+    @Benchmark
+    public CsvLoadReport loadCsv() {
+        try (BankManager loaded = new BankManager(csv)) {
+            return loaded.getLoadReport();
+        }
+    }
+
+    @Benchmark
+    public void saveToCsv() {
+        manager.saveToCsv(out);
+    }
+}
@@ -1,10 +1,17 @@
 package com.mybank;
 
 import com.mybank.dto.Account;
+import com.mybank.manager.AccountFilter;
+import com.mybank.manager.AccountSnapshot;
 import com.mybank.manager.BankManager;
+import com.mybank.manager.BatchTransactionProcessor;
+import com.mybank.persistence.CsvLoadReport;
+import com.mybank.util.Money;
 
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.util.List;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.Scanner;
 
 /**
@@ -12,9 +19,34 @@ import java.util.Scanner;
  */
 public class Main {
     private static final Path CSV_FILE = Path.of("accounts.csv");
+    private static final Path JOURNAL_FILE = Path.of("accounts.journal");
+    private static final Path WARM_START_FILE = Path.of("accounts.warm");
+
+    /**
+     * Opens the manager over the working directory's files, with a warm-start image, background snapshots
+     * and JMX metrics, as every entry point runs it.
+     */
+    public static BankManager openManager() {
+        BankManager manager = new BankManager(CSV_FILE, JOURNAL_FILE, WARM_START_FILE);
+        manager.startSnapshots(Duration.ofSeconds(30), 10_000);
+        manager.getMetrics().registerMBean("accounts");
+        return manager;
+    }
+
+    /**
+     * @return the CSV file {@link #openManager()} snapshots to
+     */
+    public static Path csvFile() {
+        return CSV_FILE;
+    }
 
     public static void main(String[] args) {
-        BankManager manager = new BankManager(CSV_FILE);
+        BankManager manager = openManager();
+        CsvLoadReport report = manager.getLoadReport();
+        if (report.skipped() > 0 || report.malformed() > 0) {
+            System.out.printf("[WARN] Loaded %d accounts; skipped %d duplicate and %d malformed rows%n",
+                    report.loaded(), report.skipped(), report.malformed());
+        }
         Scanner sc = new Scanner(System.in);
         System.out.println("Welcome to Simple Banking System (Streams + JUnit5)");
         while (true) {
@@ -28,7 +60,7 @@ public class Main {
                         System.out.print("Holder name: ");
                         String name = sc.nextLine().trim();
                         System.out.print("Initial balance (>=0): ");
-                        double ib = Double.parseDouble(sc.nextLine().trim());
+                        long ib = Money.parse(sc.nextLine());
                         manager.createAccount(num, name, ib);
                         System.out.println("Account created.\n");
                         break;
@@ -36,7 +68,7 @@ public class Main {
                         System.out.print("Account number: ");
                         String depAccNum = sc.nextLine().trim();
                         System.out.print("Deposit amount: ");
-                        double depAmount = Double.parseDouble(sc.nextLine().trim());
+                        long depAmount = Money.parse(sc.nextLine());
                         manager.deposit(depAccNum, depAmount);
                         System.out.println("Deposited.\n");
                         break;
@@ -44,42 +76,43 @@ public class Main {
                         System.out.print("Account number: ");
                         String withAccNum = sc.nextLine().trim();
                         System.out.print("Withdrawal amount: ");
-                        double withdrawalAmount = Double.parseDouble(sc.nextLine().trim());
+                        long withdrawalAmount = Money.parse(sc.nextLine());
                         manager.withdraw(withAccNum, withdrawalAmount);
                         System.out.println("Withdrawn.\n");
                         break;
                     case "4":
-                        List<Account> all = manager.getAllAccounts();
-                        if (all.isEmpty()) System.out.println("No accounts found.");
-                        else
-                            all.forEach(a -> System.out.printf("%s | %s | %.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+                        try (AccountSnapshot snapshot = manager.snapshot()) {
+                            if (snapshot.count() == 0) System.out.println("No accounts found.");
+                            else
+                                snapshot.forEach(a -> System.out.println(a.accountNumber() + " | " + a.holderName() + " | " + Money.format(a.balance())));
+                        }
                         System.out.println();
                         break;
                     case "5":
                         System.out.print("Search name contains: ");
                         String q = sc.nextLine();
-                        manager.findByName(q).forEach(a -> System.out.printf("%s | %s | %.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+                        manager.findByName(q).forEach(Main::printAccount);
                         System.out.println();
                         break;
                     case "6":
                         System.out.print("Min balance: ");
-                        double min = Double.parseDouble(sc.nextLine().trim());
+                        long min = Money.parse(sc.nextLine());
                         System.out.print("Max balance: ");
-                        double max = Double.parseDouble(sc.nextLine().trim());
-                        manager.findByBalanceRange(min, max).forEach(a -> System.out.printf("%s | %s | %.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+                        long max = Money.parse(sc.nextLine());
+                        manager.findByBalanceRange(min, max).forEach(Main::printAccount);
                         System.out.println();
                         break;
                     case "7":
-                        System.out.printf("Total: %.2f, Average: %.2f\n\n", manager.totalBalance(), manager.averageBalance());
+                        System.out.printf("Total: %s, Average: %.2f\n\n", Money.format(manager.totalBalance()), manager.averageBalance() / 100);
                         break;
                     case "8":
-                        manager.topNByBalance(3).forEach(a -> System.out.printf("%s | %s | %.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+                        manager.topNByBalance(3).forEach(Main::printAccount);
                         System.out.println();
                         break;
                     case "9":
                         System.out.print("Minimum balance: ");
-                        double mb = Double.parseDouble(sc.nextLine().trim());
-                        manager.filterByMinBalance(mb).forEach(a -> System.out.printf("%s | %s | %.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+                        long mb = Money.parse(sc.nextLine());
+                        manager.filterByMinBalance(mb).forEach(Main::printAccount);
                         System.out.println();
                         break;
                     case "10":
@@ -87,12 +120,44 @@ public class Main {
                         System.out.println("Saved to " + CSV_FILE.toAbsolutePath());
                         System.out.println();
                         break;
+                    case "11":
+                        System.out.print("From account: ");
+                        String fromAcc = sc.nextLine().trim();
+                        System.out.print("To account: ");
+                        String toAcc = sc.nextLine().trim();
+                        System.out.print("Transfer amount: ");
+                        long transferAmount = Money.parse(sc.nextLine());
+                        manager.transfer(fromAcc, toAcc, transferAmount);
+                        System.out.println("Transferred.\n");
+                        break;
+                    case "12":
+                        System.out.print("Batch file: ");
+                        Path batchFile = Path.of(sc.nextLine().trim());
+                        Path rejectFile = batchFile.resolveSibling(batchFile.getFileName() + ".rejects");
+                        BatchTransactionProcessor.Result result = new BatchTransactionProcessor(manager).process(batchFile, rejectFile);
+                        System.out.printf("Applied %d of %d transactions; %d rejected (see %s)%n%n",
+                                result.applied(), result.transactions(), result.rejected(), rejectFile);
+                        break;
+                    case "13":
+                        System.out.print("Export file (.gz to compress): ");
+                        Path exportFile = Path.of(sc.nextLine().trim());
+                        System.out.print("Name contains (blank for all): ");
+                        String filterName = sc.nextLine().trim();
+                        AccountFilter filter = filterName.isEmpty() ? AccountFilter.all() : AccountFilter.nameContains(filterName);
+                        try (FileChannel ch = FileChannel.open(exportFile, StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                            long rows = manager.exportCsv(filter, ch, exportFile.getFileName().toString().endsWith(".gz"));
+                            System.out.printf("Exported %d accounts to %s%n%n", rows, exportFile.toAbsolutePath());
+                        }
+                        break;
                     case "0":
                         // Auto-save on exit
                         try {
                             manager.saveToCsv(CSV_FILE);
                         } catch (Exception ignored) {
+                            // the journal still holds every transaction
                         }
+                        manager.close();
                         System.out.println("Goodbye!");
                         return;
                     default:
@@ -104,6 +169,10 @@ public class Main {
         }
     }
 
+    private static void printAccount(Account a) {
+        System.out.println(a.getAccountNumber() + " | " + a.getHolderName() + " | " + Money.format(a.getBalance()));
+    }
+
     private static void printMenu() {
         System.out.println("\nMenu:");
         System.out.println("1. Create account");
@@ -116,6 +185,9 @@ public class Main {
         System.out.println("8. Top 3 accounts by balance (streams)");
         System.out.println("9. Filter by minimum balance (streams)");
         System.out.println("10. Save to CSV");
+        System.out.println("11. Transfer");
+        System.out.println("12. Post batch file");
+        System.out.println("13. Export to CSV");
         System.out.println("0. Exit");
         System.out.print("Choose: ");
     }
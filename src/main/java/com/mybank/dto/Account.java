@@ -1,22 +1,37 @@
 package com.mybank.dto;
 
-import java.util.Objects;
+import com.mybank.util.Money;
 
+import java.util.Locale;
+
+/**
+ * A bank account. Amounts are fixed-point {@code long} cents. Fields are volatile so reads from any thread see the
+ * latest value, and each mutator checks, updates and notifies the listener under the account's own monitor, so
+ * concurrent callers can neither overdraw the account nor deliver changes to the listener out of order.
+ * <p>
+ * An account held by a {@code BankManager} that is changed directly keeps the manager's indexes up to date
+ * through its listener, but the change is not journaled; go through the manager for durable changes.
+ */
 public class Account {
     private final String accountNumber;
-    private String holderName;
-    private double balance;
+    /** Canonical form of the account number; equality and hashing use it. */
+    private final AccountId id;
+    private volatile String holderName;
+    /** Lower-cased holder name, cached for case-insensitive search. */
+    private volatile String normalizedHolderName;
+    private volatile long balance;
+    private volatile AccountListener listener;
 
     /**
      * Constructs an Account.
      *
      * @param accountNumber  unique, 4-12 alphanumeric characters
      * @param holderName     non-empty account holder name
-     * @param initialBalance must be >= 0
+     * @param initialBalance in cents, must be >= 0
      * @throws IllegalArgumentException if validation fails
      */
-    public Account(String accountNumber, String holderName, double initialBalance) {
-        validateAccountNumber(accountNumber);
+    public Account(String accountNumber, String holderName, long initialBalance) {
+        this.id = AccountId.of(accountNumber);
         if (holderName == null || holderName.trim().isEmpty()) {
             throw new IllegalArgumentException("Holder name cannot be empty");
         }
@@ -25,13 +40,50 @@ public class Account {
         }
         this.accountNumber = accountNumber;
         this.holderName = holderName.trim();
+        this.normalizedHolderName = normalizeName(this.holderName);
         this.balance = initialBalance;
     }
 
-    private static void validateAccountNumber(String number) {
-        if (number == null || !number.matches("[A-Za-z0-9]{4,12}")) {
-            throw new IllegalArgumentException("Account number must be 4-12 alphanumeric characters");
+    private Account(AccountId id, String accountNumber, String holderName, long balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.holderName = holderName;
+        this.normalizedHolderName = normalizeName(holderName);
+        this.balance = balance;
+    }
+
+    /**
+     * Rebuilds an account from state that was validated when it was saved, such as a checksummed warm-start
+     * image, without checking it again.
+     *
+     * @param accountNumber a valid account number
+     * @param holderName    an already trimmed, non-empty name
+     * @param balance       in cents, >= 0
+     */
+    public static Account restore(String accountNumber, String holderName, long balance) {
+        return new Account(AccountId.of(accountNumber), accountNumber, holderName, balance);
+    }
+
+    /**
+     * Checks {@code [A-Za-z0-9]{4,12}} without a regex.
+     *
+     * @return true if {@code number} is a well-formed account number
+     */
+    public static boolean isValidAccountNumber(CharSequence number) {
+        if (number == null) return false;
+        int len = number.length();
+        if (len < 4 || len > 12) return false;
+        for (int i = 0; i < len; i++) {
+            if (!isAlphanumeric(number.charAt(i))) return false;
         }
+        return true;
+    }
+
+    /**
+     * @return true for ASCII {@code [A-Za-z0-9]}
+     */
+    public static boolean isAlphanumeric(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
     }
 
     /**
@@ -41,6 +93,13 @@ public class Account {
         return accountNumber;
     }
 
+    /**
+     * @return canonical, case-insensitive form of the account number
+     */
+    public AccountId getId() {
+        return id;
+    }
+
     /**
      * @return holder name
      */
@@ -53,45 +112,82 @@ public class Account {
      *
      * @param holderName non-empty name
      */
-    public void setHolderName(String holderName) {
+    public synchronized void setHolderName(String holderName) {
         if (holderName == null || holderName.trim().isEmpty()) {
             throw new IllegalArgumentException("Holder name cannot be empty");
         }
+        String oldNormalized = normalizedHolderName;
         this.holderName = holderName.trim();
+        this.normalizedHolderName = normalizeName(this.holderName);
+        AccountListener l = listener;
+        if (l != null) l.holderNameChanged(this, oldNormalized, normalizedHolderName);
     }
 
     /**
-     * @return current balance
+     * @return holder name lower-cased with {@link #normalizeName(String)}, computed once per change
      */
-    public double getBalance() {
+    public String getNormalizedHolderName() {
+        return normalizedHolderName;
+    }
+
+    /**
+     * Normal form used for case-insensitive name matching.
+     */
+    public static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return current balance in cents
+     */
+    public long getBalance() {
         return balance;
     }
 
     /**
      * Deposits a positive, non-zero amount.
      *
-     * @param amount amount to deposit (> 0)
+     * @param amount amount to deposit in cents (> 0)
      */
-    public void deposit(double amount) {
+    public synchronized void deposit(long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Deposit amount must be > 0");
         }
-        balance += amount;
+        if (amount > Long.MAX_VALUE - balance) {
+            throw new IllegalArgumentException("Balance overflow");
+        }
+        long old = balance;
+        balance = old + amount;
+        notifyBalance(old);
     }
 
     /**
      * Withdraws a positive, non-zero amount if sufficient funds exist.
      *
-     * @param amount amount to withdraw (>0)
+     * @param amount amount to withdraw in cents (>0)
      */
-    public void withdraw(double amount) {
+    public synchronized void withdraw(long amount) {
         if (amount <= 0) {
             throw new IllegalArgumentException("Withdrawal amount must be > 0");
         }
         if (amount > balance) {
             throw new IllegalArgumentException("Insufficient balance");
         }
-        balance -= amount;
+        long old = balance;
+        balance = old - amount;
+        notifyBalance(old);
+    }
+
+    /**
+     * Installs the listener notified of changes to this account; null removes it.
+     */
+    public void setListener(AccountListener listener) {
+        this.listener = listener;
+    }
+
+    private void notifyBalance(long oldBalance) {
+        AccountListener l = listener;
+        if (l != null) l.balanceChanged(this, oldBalance, balance);
     }
 
     @Override
@@ -99,16 +195,16 @@ public class Account {
         if (this == o) return true;
         if (!(o instanceof Account)) return false;
         Account account = (Account) o;
-        return accountNumber.equalsIgnoreCase(account.accountNumber);
+        return id.equals(account.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(accountNumber.toLowerCase());
+        return id.hashCode();
     }
 
     @Override
     public String toString() {
-        return String.format("%s,%s,%.2f", accountNumber, holderName, balance);
+        return Money.appendTo(new StringBuilder().append(accountNumber).append(',').append(holderName).append(','), balance).toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.mybank.dto;
+
+/**
+ * Canonical, case-insensitive account number. The 4-12 alphanumeric characters are case-folded and packed
+ * at construction, six bits each, into two {@code long}s; the hash is computed once, so equality, hashing
+ * and ordering never touch a String.
+ * <p>
+ * IDs order like their lower-cased account numbers ({@code 0-9} before {@code a-z}, shorter prefixes first).
+ * {@link #MIN_VALUE} and {@link #MAX_VALUE} bound every valid ID, for range queries over ordered keys.
+ */
+public final class AccountId implements Comparable<AccountId> {
+    private static final int CHARS_PER_WORD = 6;
+    private static final int BITS = 6;
+    /** Characters for codes 1-36; code 0 ends a number shorter than 12. */
+    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    /** Sorts before every valid ID; not itself a valid account number. */
+    public static final AccountId MIN_VALUE = new AccountId(0, 0);
+    /** Sorts after every valid ID; not itself a valid account number. */
+    public static final AccountId MAX_VALUE = new AccountId((1L << 36) - 1, (1L << 36) - 1);
+
+    private final long high;
+    private final long low;
+    private final int hash;
+
+    private AccountId(long high, long low) {
+        this.high = high;
+        this.low = low;
+        long h = (high * 0x9E3779B97F4A7C15L) ^ low;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @throws IllegalArgumentException unless {@code accountNumber} is 4-12 alphanumeric characters
+     */
+    public static AccountId of(CharSequence accountNumber) {
+        AccountId id = parse(accountNumber);
+        if (id == null) {
+            throw new IllegalArgumentException("Account number must be 4-12 alphanumeric characters");
+        }
+        return id;
+    }
+
+    /**
+     * @return the ID, or null if {@code accountNumber} is null or not 4-12 alphanumeric characters
+     */
+    public static AccountId parse(CharSequence accountNumber) {
+        if (accountNumber == null) return null;
+        int len = accountNumber.length();
+        if (len < 4 || len > 2 * CHARS_PER_WORD) return null;
+        long high = 0, low = 0;
+        for (int i = 0; i < 2 * CHARS_PER_WORD; i++) {
+            int code = 0;
+            if (i < len) {
+                code = code(accountNumber.charAt(i));
+                if (code < 0) return null;
+            }
+            if (i < CHARS_PER_WORD) high = high << BITS | code;
+            else low = low << BITS | code;
+        }
+        return new AccountId(high, low);
+    }
+
+    private static int code(char c) {
+        if (c >= '0' && c <= '9') return c - '0' + 1;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 11;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 11;
+        return -1;
+    }
+
+    @Override
+    public int compareTo(AccountId o) {
+        int c = Long.compare(high, o.high);
+        return c != 0 ? c : Long.compare(low, o.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof AccountId id && high == id.high && low == id.low);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return the lower-cased account number
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(2 * CHARS_PER_WORD);
+        for (long word : new long[]{high, low}) {
+            for (int shift = (CHARS_PER_WORD - 1) * BITS; shift >= 0; shift -= BITS) {
+                int code = (int) (word >>> shift) & ((1 << BITS) - 1);
+                if (code == 0) return sb.toString();
+                sb.append(code <= ALPHABET.length() ? ALPHABET.charAt(code - 1) : '?');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mybank.dto;
+
+/**
+ * Receives changes to an {@link Account}, e.g. so a manager can keep its indexes current.
+ * Callbacks run synchronously on the mutating thread, after the new value is visible, and in the order the
+ * changes were made.
+ */
+public interface AccountListener {
+
+    /**
+     * Called after every deposit or withdrawal.
+     */
+    void balanceChanged(Account account, long oldBalance, long newBalance);
+
+    /**
+     * Called after the holder name changes. Names are passed in their normalized (lower-case) form.
+     */
+    default void holderNameChanged(Account account, String oldNormalizedName, String newNormalizedName) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.mybank.dto;
+
+/**
+ * Immutable state of an account at one point in time.
+ *
+ * @param accountNumber account number as created
+ * @param holderName    holder name at that time
+ * @param balance       balance at that time, in cents
+ */
+public record AccountState(String accountNumber, String holderName, long balance) {
+}
@@ -0,0 +1,14 @@
+package com.mybank.dto;
+
+/**
+ * Aggregate view of all balances, in cents.
+ *
+ * @param count    number of accounts
+ * @param total    sum of balances
+ * @param average  mean balance; 0 when there are no accounts
+ * @param variance population variance of balances; 0 when there are no accounts
+ * @param min      smallest balance; 0 when there are no accounts
+ * @param max      largest balance; 0 when there are no accounts
+ */
+public record BalanceStats(long count, long total, double average, double variance, long min, long max) {
+}
@@ -0,0 +1,11 @@
+package com.mybank.dto;
+
+/**
+ * A request to move {@code amount} from one account to another.
+ *
+ * @param fromAccount account number to debit
+ * @param toAccount   account number to credit
+ * @param amount      amount to move in cents (> 0)
+ */
+public record Transfer(String fromAccount, String toAccount, long amount) {
+}
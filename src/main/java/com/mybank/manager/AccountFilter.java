@@ -0,0 +1,52 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+
+/**
+ * Selects the accounts written by {@link BankManager#exportCsv(AccountFilter, java.nio.channels.WritableByteChannel, boolean)}:
+ * every account, a balance range, or a holder-name match, with the same semantics as the corresponding queries.
+ */
+public final class AccountFilter {
+    private static final AccountFilter ALL = new AccountFilter(Long.MIN_VALUE, Long.MAX_VALUE, null);
+
+    final long min;
+    final long max;
+    /** Normalized name fragment, or null to accept any name. */
+    final String name;
+
+    private AccountFilter(long min, long max, String name) {
+        this.min = min;
+        this.max = max;
+        this.name = name;
+    }
+
+    public static AccountFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Balance in [min, max] cents, as {@link BankManager#findByBalanceRange(long, long)}; the bounds may be given in either order.
+     */
+    public static AccountFilter balanceBetween(long min, long max) {
+        return new AccountFilter(Math.min(min, max), Math.max(min, max), null);
+    }
+
+    /**
+     * Holder name contains {@code query}, case-insensitively, as {@link BankManager#findByName(String)}.
+     */
+    public static AccountFilter nameContains(String query) {
+        return new AccountFilter(Long.MIN_VALUE, Long.MAX_VALUE, query == null ? "" : Account.normalizeName(query));
+    }
+
+    boolean isBalanceRange() {
+        return name == null && this != ALL;
+    }
+
+    boolean acceptsBalance(long balance) {
+        return balance >= min && balance <= max;
+    }
+
+    boolean accepts(Account account, long balance) {
+        return acceptsBalance(balance) && (name == null || account.getNormalizedHolderName().contains(name));
+    }
+}
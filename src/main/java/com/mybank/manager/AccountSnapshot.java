@@ -0,0 +1,91 @@
+package com.mybank.manager;
+
+import com.mybank.dto.AccountState;
+import com.mybank.persistence.CsvAccountWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time view of every account, obtained from {@link BankManager#snapshot()}.
+ * <p>
+ * The view is consistent: it reflects all transactions committed before it was taken and none after, so
+ * a transfer is never seen half applied and totals add up. Taking it copies nothing and does not pause
+ * writers; account states are resolved lazily while streaming, and every stream over the same snapshot
+ * yields the same states. Accounts appear in creation order.
+ * <p>
+ * An open snapshot keeps the superseded versions it can see alive, so close it when done; one that is
+ * never closed is released once it becomes unreachable.
+ */
+public final class AccountSnapshot implements Iterable<AccountState>, AutoCloseable {
+    private final Supplier<Stream<AccountState>> states;
+    private final Runnable release;
+
+    AccountSnapshot(Supplier<Stream<AccountState>> states, Runnable release) {
+        this.states = states;
+        this.release = release;
+    }
+
+    /**
+     * @return the accounts as of the snapshot; may be consumed any number of times
+     */
+    public Stream<AccountState> stream() {
+        // the stage refers to this snapshot, so an unclosed one is not released while a stream over it is in use
+        return states.get().map(this::pinned);
+    }
+
+    private AccountState pinned(AccountState state) {
+        return state;
+    }
+
+    @Override
+    public Iterator<AccountState> iterator() {
+        return stream().iterator();
+    }
+
+    /**
+     * @return number of accounts in the snapshot
+     */
+    public long count() {
+        return stream().count();
+    }
+
+    /**
+     * @return sum of all balances in the snapshot, in cents
+     */
+    public long totalBalance() {
+        return stream().mapToLong(AccountState::balance).sum();
+    }
+
+    /**
+     * Writes the snapshot as CSV, in the format read by {@link BankManager#BankManager(Path)}.
+     */
+    public void writeCsv(Path csvPath) {
+        try {
+            Path target = csvPath.toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            try (CsvAccountWriter writer = new CsvAccountWriter(FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                writer.writeHeader(0);
+                for (AccountState s : this) writer.write(s.accountNumber(), s.holderName(), s.balance());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export CSV: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Releases the versions held for this snapshot. The snapshot must not be read afterwards.
+     */
+    @Override
+    public void close() {
+        release.run();
+    }
+}
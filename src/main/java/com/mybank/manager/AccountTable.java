@@ -0,0 +1,103 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Accounts in insertion order, stored in fixed-size chunks addressed by row so scans can be split into
+ * contiguous ranges. Appends are serialized internally and may run concurrently with reads; a reader sees
+ * every row below the {@link #size()} it read. Removal leaves an empty row (null) behind, so rows never move.
+ */
+final class AccountTable implements Iterable<Account> {
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+
+    private volatile Account[][] chunks = new Account[0][];
+    private volatile int size;
+
+    /**
+     * @return number of rows, including emptied ones
+     */
+    int size() {
+        return size;
+    }
+
+    synchronized void add(Account account) {
+        int row = size;
+        if (row >> CHUNK_SHIFT == chunks.length) {
+            Account[][] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = new Account[CHUNK_ROWS];
+            chunks = grown;
+        }
+        chunks[row >> CHUNK_SHIFT][row & (CHUNK_ROWS - 1)] = account;
+        size = row + 1; // publishes the row
+    }
+
+    /**
+     * Empties the row holding {@code account}; searches from the end, where rolled-back creates are.
+     */
+    synchronized void remove(Account account) {
+        for (int row = size - 1; row >= 0; row--) {
+            if (chunks[row >> CHUNK_SHIFT][row & (CHUNK_ROWS - 1)] == account) {
+                chunks[row >> CHUNK_SHIFT][row & (CHUNK_ROWS - 1)] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param row in [0, {@link #size()})
+     * @return the account, or null if the row was emptied
+     */
+    Account get(int row) {
+        return chunks[row >> CHUNK_SHIFT][row & (CHUNK_ROWS - 1)];
+    }
+
+    /**
+     * @return the present accounts, in row order
+     */
+    List<Account> toList() {
+        int n = size;
+        List<Account> list = new ArrayList<>(n);
+        for (int row = 0; row < n; row++) {
+            Account a = get(row);
+            if (a != null) list.add(a);
+        }
+        return list;
+    }
+
+    @Override
+    public Iterator<Account> iterator() {
+        int n = size;
+        return new Iterator<>() {
+            private int row;
+            private Account next = advance();
+
+            private Account advance() {
+                while (row < n) {
+                    Account a = get(row++);
+                    if (a != null) return a;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Account next() {
+                if (next == null) throw new NoSuchElementException();
+                Account a = next;
+                next = advance();
+                return a;
+            }
+        };
+    }
+}
@@ -1,53 +1,313 @@
 package com.mybank.manager;
 
 import com.mybank.dto.Account;
+import com.mybank.dto.AccountId;
+import com.mybank.dto.AccountListener;
+import com.mybank.dto.AccountState;
+import com.mybank.dto.BalanceStats;
+import com.mybank.dto.Transfer;
+import com.mybank.metrics.BankMetrics;
+import com.mybank.metrics.Operation;
+import com.mybank.persistence.BinaryAccountStore;
+import com.mybank.persistence.ColumnarAccountStore;
+import com.mybank.persistence.CsvAccountLoader;
+import com.mybank.persistence.CsvAccountWriter;
+import com.mybank.persistence.CsvLoadReport;
+import com.mybank.persistence.JournalRecord;
+import com.mybank.persistence.TransactionIdFile;
+import com.mybank.persistence.TransactionJournal;
+import com.mybank.persistence.WarmStartFile;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Provides business logic and stream-based operations over accounts.
+ * <p>
+ * Safe for use by concurrent threads: the registry is lock-free and balance updates are serialized per
+ * account through a fixed set of striped locks, so operations on different accounts proceed in parallel.
+ * Queries are weakly consistent and never block writers; {@link #snapshot()} gives a consistent point-in-time
+ * view, also without blocking writers.
+ * <p>
+ * When opened with a journal, every create, deposit, withdrawal and transfer is appended to a write-ahead
+ * {@link TransactionJournal} and the call returns only once the record is durable. On startup the journal
+ * is replayed on top of the CSV snapshot.
+ * <p>
+ * Deposits, withdrawals and transfers may carry a client transaction ID; a retry with an ID seen within
+ * the dedupe window (see {@link #setDedupeWindow(int, Duration)}) is acknowledged without being applied
+ * again, and a retry arriving while the original is still running waits for its outcome. IDs are journaled
+ * with their transaction and the time they were appended. A snapshot writes the IDs of the records it covers
+ * to a side file next to the journal ({@code <journal>.txids}) before discarding those records, so after a
+ * restart the IDs re-enter the window with their original age from that file and the replayed journal.
+ * <p>
+ * Name and balance queries are served from a bounded result cache until a create, balance change or
+ * rename makes them stale; their results are unmodifiable lists.
  */
-public class BankManager {
-    private final List<Account> accounts = new ArrayList<>();
+public class BankManager implements AutoCloseable {
+    private static final int LOCK_STRIPES = 1024; // power of two
+    /** Default {@link #setQueryCacheSize(int)}. */
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 1024;
+    /** Upper bound on account references held by all cached results together. */
+    private static final long QUERY_CACHE_MAX_ACCOUNTS = 4_000_000;
+    /** Default {@link #setParallelQueries(int, int)} threshold: books smaller than this are scanned sequentially. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+    /** Default {@link #setDedupeWindow(int, Duration)} size. */
+    public static final int DEFAULT_DEDUPE_ENTRIES = 1_000_000;
+    /** Default {@link #setDedupeWindow(int, Duration)} age. */
+    public static final Duration DEFAULT_DEDUPE_AGE = Duration.ofHours(24);
+    private static final int MAX_TX_ID_LENGTH = 64;
+    /** Default group-commit window: how long an fsync may wait to batch more transactions. */
+    public static final Duration DEFAULT_COMMIT_DELAY = Duration.ofMillis(2);
+
+    /** Accounts in insertion order. */
+    private final AccountTable accounts = new AccountTable();
+    /** Version chains of {@link #accounts}, in the same order, read by {@link #snapshot()}. */
+    private final Queue<History> histories = new ConcurrentLinkedQueue<>();
+    private final VersionClock versions = new VersionClock();
+    /** Primary-key index: {@link AccountId} to account, kept in sync with {@link #accounts}. */
+    private final Map<AccountId, Account> index = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final Path csvPath;
+    /** Image of the CSV snapshot and indexes, written with each save to {@link #csvPath}; null when disabled. */
+    private final Path warmStartPath;
+    private boolean warmStarted;
+    private final TransactionJournal journal;
+    /** Transaction IDs covered by the last snapshot, written with it; null without a journal. */
+    private final Path txIdPath;
+    /** Memory-mapped backing store whose records are materialized on demand; null when loaded from CSV. */
+    private final BinaryAccountStore store;
+    private volatile boolean storeFullyLoaded;
+    /** Set once an account without a record in {@link #store} is created; {@link #close()} then rewrites it. */
+    private volatile boolean storeOutdated;
+    /**
+     * Off-heap columns holding every account in place of {@link #accounts}; null in the default heap mode.
+     * Rows are locked by {@code row & (LOCK_STRIPES - 1)} and returned to callers as detached copies.
+     */
+    private final ColumnarAccountStore columns;
+    /** Balance-ordered secondary index, maintained through {@link #indexer}; null when disabled. */
+    private volatile ConcurrentSkipListMap<BalanceKey, Account> balanceIndex = new ConcurrentSkipListMap<>();
+    private final AccountListener indexer = new Indexer();
+    private final NameIndex nameIndex = new NameIndex();
+    /** Running aggregates, maintained with contention-friendly adders on every registration and balance change. */
+    private final LongAdder accountCount = new LongAdder();
+    private final LongAdder balanceSum = new LongAdder();
+    private final DoubleAdder balanceSumOfSquares = new DoubleAdder();
+    /** Mutation count driving change-triggered snapshots. */
+    private final LongAdder changes = new LongAdder();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private volatile SnapshotScheduler snapshots;
+    private CsvLoadReport loadReport = CsvLoadReport.EMPTY;
+    private final BankMetrics metrics = new BankMetrics();
+    /** Result cache for name and balance queries; null when disabled. */
+    private volatile QueryCache queryCache;
+    /** Client transaction IDs seen recently. */
+    private volatile DedupeWindow dedupe = new DedupeWindow(DEFAULT_DEDUPE_ENTRIES, DEFAULT_DEDUPE_AGE.toNanos(), DedupeWindow.WALL_CLOCK);
+    /** Executes scans that no index can serve. */
+    private volatile ParallelScan scan = new ParallelScan(Runtime.getRuntime().availableProcessors(), DEFAULT_PARALLEL_THRESHOLD);
+
+    {
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+    }
 
     /**
      * Loads accounts from CSV if the file exists; otherwise starts empty.
+     * Rows that are malformed or duplicate an earlier account number are skipped and counted in
+     * {@link #getLoadReport()}.
      *
      * @param csvPath path to CSV file (accountNumber,holderName,balance)
      */
     public BankManager(Path csvPath) {
+        this(csvPath, null, DEFAULT_COMMIT_DELAY);
+    }
+
+    /**
+     * Loads the CSV snapshot, then replays the journal on top of it.
+     *
+     * @param csvPath     snapshot file; {@link #saveToCsv(Path)} to this path discards the covered journal
+     * @param journalPath journal file, created if missing; null disables journaling
+     */
+    public BankManager(Path csvPath, Path journalPath) {
+        this(csvPath, journalPath, DEFAULT_COMMIT_DELAY);
+    }
+
+    /**
+     * @param commitDelay group-commit latency budget: how long a transaction may wait for others to share its fsync
+     */
+    public BankManager(Path csvPath, Path journalPath, Duration commitDelay) {
+        this(csvPath, journalPath, commitDelay, null, null, null);
+    }
+
+    /**
+     * Like {@link #BankManager(Path, Path)}, but restarts from a binary warm-start image when one is current.
+     * <p>
+     * Every save to {@code csvPath} (explicit or by {@link #startSnapshots}) also writes the accounts and the
+     * lookup, balance and name index data to {@code warmStartPath}, checksummed and tagged with the CSV's
+     * size, modification time and the CRC written on its last line. The constructor loads that image instead
+     * of parsing the CSV and rebuilding the indexes, then replays the journal as usual. A missing image, or
+     * one left stale by a CSV changed since, falls back to the CSV; a corrupt one does too, with a warning.
+     *
+     * @param warmStartPath image file, created on the first save
+     */
+    public BankManager(Path csvPath, Path journalPath, Path warmStartPath) {
+        this(csvPath, journalPath, DEFAULT_COMMIT_DELAY, null, null, Objects.requireNonNull(warmStartPath));
+    }
+
+    /**
+     * Keeps accounts in off-heap {@link ColumnarAccountStore} columns instead of one heap object each,
+     * for books of tens of millions of accounts. Loading and journaling work as in the default mode.
+     * <p>
+     * Accounts returned by queries are detached copies materialized from the columns: they reflect the
+     * balance at the time of the call, and changing them does not change the book. The balance index is
+     * not available; balance queries scan the primitive balance column instead.
+     *
+     * @param journalPath journal file, created if missing; null disables journaling
+     */
+    public BankManager(Path csvPath, Path journalPath, ColumnarAccountStore columns) {
+        this(csvPath, journalPath, DEFAULT_COMMIT_DELAY, null, Objects.requireNonNull(columns), null);
+    }
+
+    /**
+     * Serves accounts from a memory-mapped binary store. Opening is O(1): records are decoded when first
+     * looked up (or all at once on the first full scan), and balance changes are written in place to the
+     * mapped file. Accounts created afterwards have no record yet, so if there are any, {@link #close()}
+     * rewrites the store file with every account; otherwise it only syncs and closes the store.
+     * There is no journal in this mode: changes since opening are durable once the manager is closed.
+     */
+    public BankManager(BinaryAccountStore store) {
+        this(null, null, DEFAULT_COMMIT_DELAY, Objects.requireNonNull(store), null, null);
+    }
+
+    private BankManager(Path csvPath, Path journalPath, Duration commitDelay, BinaryAccountStore store,
+                        ColumnarAccountStore columns, Path warmStartPath) {
+        this.csvPath = csvPath;
+        this.warmStartPath = warmStartPath;
+        this.store = store;
+        this.columns = columns;
+        this.queryCache = new QueryCache(DEFAULT_QUERY_CACHE_SIZE, QUERY_CACHE_MAX_ACCOUNTS, columns != null);
+        if (columns != null) {
+            balanceIndex = null;
+            for (int row = 0; row < columns.size(); row++) addToAggregates(columns.balance(row), 1);
+        }
+        this.txIdPath = journalPath == null ? null : journalPath.resolveSibling(journalPath.getFileName() + ".txids");
+        VersionClock.Commit loading = versions.begin();
+        try {
+            long snapshotLsn = loadWarmStart(csvPath);
+            if (snapshotLsn < 0) snapshotLsn = load(csvPath);
+            if (journalPath == null) {
+                journal = null;
+            } else {
+                loadTxIds();
+                try {
+                    journal = TransactionJournal.open(journalPath, commitDelay, snapshotLsn, this::replay, this::restoreTxId);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open journal: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            versions.end(loading);
+        }
+    }
+
+    /**
+     * Registers the accounts of the CSV file, if it exists.
+     *
+     * @return journal LSN the file is a snapshot of
+     */
+    private long load(Path csvPath) {
+        long snapshotLsn = 0;
         if (csvPath != null && Files.exists(csvPath)) {
-            try (BufferedReader reader = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.trim().isEmpty() || line.startsWith("#") || line.startsWith("accountNumber")) continue;
-                    String[] parts = line.split(",");
-                    if (parts.length < 3) continue; // skip malformed
-                    String number = parts[0].trim();
-                    String name = parts[1].trim();
-                    double bal;
-                    try {
-                        bal = Double.parseDouble(parts[2].trim());
-                    } catch (NumberFormatException e) {
-                        continue; // skip invalid numeric rows
-                    }
-                    try {
-                        // ensure uniqueness before adding
-                        if (getByNumber(number).isPresent()) continue;
-                        accounts.add(new Account(number, name, bal));
-                    } catch (IllegalArgumentException ignored) {
-                        // skip invalid rows
-                    }
+            long start = metrics.start();
+            try {
+                CsvAccountLoader.Result rows = CsvAccountLoader.load(csvPath);
+                long skipped = 0;
+                for (Account acc : rows.accounts()) {
+                    if (!register(acc)) skipped++;
                 }
+                loadReport = new CsvLoadReport(rows.accounts().size() - skipped, skipped, rows.malformed());
+                snapshotLsn = rows.journalLsn();
+                metrics.success(Operation.LOAD_CSV, start);
             } catch (IOException e) {
+                metrics.failure(Operation.LOAD_CSV, start, new UncheckedIOException(e));
                 System.err.println("[WARN] Failed to read CSV: " + e.getMessage());
             }
         }
+        return snapshotLsn;
+    }
+
+    /**
+     * Registers the accounts of a current warm-start image, filling the indexes from its index data.
+     *
+     * @return journal LSN the image is a snapshot of, or -1 if there is no usable image
+     */
+    private long loadWarmStart(Path csvPath) {
+        if (warmStartPath == null || csvPath == null) return -1;
+        WarmStartFile.Image image;
+        try {
+            image = WarmStartFile.read(warmStartPath, csvPath);
+        } catch (IOException e) {
+            System.err.println("[WARN] Ignoring warm-start file: " + e.getMessage());
+            return -1;
+        }
+        if (image == null) return -1;
+        int n = image.size();
+        Account[] rows = new Account[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = Account.restore(image.numbers()[i], image.names()[i], image.balances()[i]);
+            if (!register(rows[i], false)) {
+                throw new IllegalStateException("Duplicate account in warm-start file: " + rows[i].getAccountNumber());
+            }
+        }
+        for (int row : image.balanceOrder()) {
+            balanceIndex.put(new BalanceKey(rows[row].getBalance(), rows[row].getId()), rows[row]);
+        }
+        nameIndex.load(rows, image.nameOrder(), image.grams(), image.postings());
+        loadReport = new CsvLoadReport(n, 0, 0);
+        warmStarted = true;
+        return image.journalLsn();
+    }
+
+    /**
+     * @return true if the constructor restored the accounts from the warm-start image rather than the CSV
+     */
+    public boolean isWarmStarted() {
+        return warmStarted;
+    }
+
+    /**
+     * @return row counts from the CSV load performed by the constructor
+     */
+    public CsvLoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * @return operation counters and latency histograms of this manager; see {@link BankMetrics#setEnabled}
+     */
+    public BankMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -55,125 +315,1426 @@ public class BankManager {
      *
      * @param accountNumber  unique identifier (4-12 alphanumeric)
      * @param holderName     non-empty name
-     * @param initialBalance >= 0
+     * @param initialBalance in cents, >= 0
      */
-    public Account createAccount(String accountNumber, String holderName, double initialBalance) {
-        if (getByNumber(accountNumber).isPresent()) {
+    public Account createAccount(String accountNumber, String holderName, long initialBalance) {
+        long start = metrics.start();
+        try {
+            return metrics.success(Operation.CREATE_ACCOUNT, start, addAccount(accountNumber, holderName, initialBalance));
+        } catch (RuntimeException e) {
+            metrics.failure(Operation.CREATE_ACCOUNT, start, e);
+            throw e;
+        }
+    }
+
+    private Account addAccount(String accountNumber, String holderName, long initialBalance) {
+        if (lookup(accountNumber) != null) {
             throw new IllegalArgumentException("Account number already exists");
         }
         Account acc = new Account(accountNumber, holderName, initialBalance);
-        accounts.add(acc);
+        ReentrantLock lock = stripeFor(acc);
+        long lsn;
+        lock.lock();
+        VersionClock.Commit commit = versions.begin();
+        try {
+            if (columns != null) {
+                // rows cannot be removed, so journal before appending; the stripe lock keeps the number free
+                if (columns.indexOf(accountNumber) >= 0) {
+                    throw new IllegalArgumentException("Account number already exists");
+                }
+                lsn = log(JournalRecord.create(acc.getAccountNumber(), acc.getHolderName(), acc.getBalance()), () -> { });
+                register(acc);
+            } else {
+                if (!register(acc)) {
+                    throw new IllegalArgumentException("Account number already exists");
+                }
+                if (store != null) storeOutdated = true;
+                lsn = log(JournalRecord.create(acc.getAccountNumber(), acc.getHolderName(), acc.getBalance()), () -> unregister(acc));
+            }
+        } finally {
+            versions.end(commit);
+            lock.unlock();
+        }
+        changes.increment();
+        awaitDurable(lsn);
         return acc;
     }
 
     /**
      * Deposits into the account with given number.
      */
-    public void deposit(String accountNumber, double amount) {
+    public void deposit(String accountNumber, long amount) {
+        applyOnce(Operation.DEPOSIT, null, () -> applyDeposit(accountNumber, amount, null));
+    }
+
+    /**
+     * Deposits unless a transaction with the same client ID was seen within the dedupe window.
+     *
+     * @param txId client transaction ID (1-64 characters); null applies unconditionally
+     * @return true if applied, false if {@code txId} is a duplicate
+     */
+    public boolean deposit(String txId, String accountNumber, long amount) {
+        return applyOnce(Operation.DEPOSIT, txId, () -> applyDeposit(accountNumber, amount, txId));
+    }
+
+    /**
+     * Applies a deposit without waiting for it to become durable.
+     *
+     * @return journal LSN to pass to {@link #awaitDurable(long)}, or 0 without a journal
+     */
+    long applyDeposit(String accountNumber, long amount) {
+        return instrumented(Operation.DEPOSIT, () -> applyDeposit(accountNumber, amount, null));
+    }
+
+    private long applyDeposit(String accountNumber, long amount, String txId) {
+        if (columns != null) return applyToRow(requireRow(accountNumber), amount, true, txId);
         Account acc = requireAccount(accountNumber);
-        acc.deposit(amount);
+        ReentrantLock lock = stripeFor(acc);
+        long lsn;
+        lock.lock();
+        VersionClock.Commit commit = versions.begin();
+        try {
+            acc.deposit(amount);
+            lsn = log(tagged(JournalRecord.deposit(acc.getAccountNumber(), amount), txId), () -> acc.withdraw(amount));
+            writeThrough(acc);
+        } finally {
+            versions.end(commit);
+            lock.unlock();
+        }
+        changes.increment();
+        return lsn;
     }
 
     /**
      * Withdraws from the account with given number.
      */
-    public void withdraw(String accountNumber, double amount) {
+    public void withdraw(String accountNumber, long amount) {
+        applyOnce(Operation.WITHDRAW, null, () -> applyWithdraw(accountNumber, amount, null));
+    }
+
+    /**
+     * Withdraws unless a transaction with the same client ID was seen within the dedupe window.
+     *
+     * @param txId client transaction ID (1-64 characters); null applies unconditionally
+     * @return true if applied, false if {@code txId} is a duplicate
+     */
+    public boolean withdraw(String txId, String accountNumber, long amount) {
+        return applyOnce(Operation.WITHDRAW, txId, () -> applyWithdraw(accountNumber, amount, txId));
+    }
+
+    /**
+     * Applies a withdrawal without waiting for it to become durable.
+     */
+    long applyWithdraw(String accountNumber, long amount) {
+        return instrumented(Operation.WITHDRAW, () -> applyWithdraw(accountNumber, amount, null));
+    }
+
+    private long applyWithdraw(String accountNumber, long amount, String txId) {
+        if (columns != null) return applyToRow(requireRow(accountNumber), amount, false, txId);
         Account acc = requireAccount(accountNumber);
-        acc.withdraw(amount);
+        ReentrantLock lock = stripeFor(acc);
+        long lsn;
+        lock.lock();
+        VersionClock.Commit commit = versions.begin();
+        try {
+            acc.withdraw(amount);
+            lsn = log(tagged(JournalRecord.withdraw(acc.getAccountNumber(), amount), txId), () -> acc.deposit(amount));
+            writeThrough(acc);
+        } finally {
+            versions.end(commit);
+            lock.unlock();
+        }
+        changes.increment();
+        return lsn;
     }
 
     /**
-     * @return unmodifiable snapshot of all accounts
+     * Atomically moves {@code amount} between two accounts. Both account locks are taken in canonical
+     * stripe order, so concurrent transfers in opposite directions cannot deadlock.
+     *
+     * @throws IllegalArgumentException if either account is missing, the accounts are the same,
+     *                                  the amount is not positive or the source has insufficient balance
+     */
+    public void transfer(String fromAccount, String toAccount, long amount) {
+        transferAll(List.of(new Transfer(fromAccount, toAccount, amount)));
+    }
+
+    /**
+     * Transfers unless a transaction with the same client ID was seen within the dedupe window.
+     *
+     * @param txId client transaction ID (1-64 characters); null applies unconditionally
+     * @return true if applied, false if {@code txId} is a duplicate
+     */
+    public boolean transfer(String txId, String fromAccount, String toAccount, long amount) {
+        return transferAll(txId, List.of(new Transfer(fromAccount, toAccount, amount)));
+    }
+
+    /**
+     * Applies a batch of transfers all-or-nothing. The whole batch is validated up front, then every
+     * involved lock is acquired once in canonical stripe order and the transfers are applied in list order.
+     * If any transfer fails, the ones already applied are rolled back before the exception is rethrown.
+     *
+     * @throws IllegalArgumentException if any transfer is invalid; no balance is changed in that case
+     */
+    public void transferAll(List<Transfer> transfers) {
+        applyOnce(Operation.TRANSFER, null, () -> applyTransfers(transfers, null));
+    }
+
+    /**
+     * Applies the batch as {@link #transferAll(List)} does, unless a transaction with the same client ID
+     * was seen within the dedupe window.
+     *
+     * @param txId client transaction ID (1-64 characters) of the whole batch; null applies unconditionally
+     * @return true if applied, false if {@code txId} is a duplicate
+     */
+    public boolean transferAll(String txId, List<Transfer> transfers) {
+        return applyOnce(Operation.TRANSFER, txId, () -> applyTransfers(transfers, txId));
+    }
+
+    /**
+     * Applies a batch of transfers as {@link #transferAll(List)} does, without waiting for durability.
+     */
+    long applyTransfers(List<Transfer> transfers) {
+        return instrumented(Operation.TRANSFER, () -> applyTransfers(transfers, null));
+    }
+
+    private long applyTransfers(List<Transfer> transfers, String txId) {
+        if (columns != null) return applyColumnarTransfers(transfers, txId);
+        int n = transfers.size();
+        Account[] from = new Account[n];
+        Account[] to = new Account[n];
+        BitSet lockSet = new BitSet(LOCK_STRIPES);
+        for (int i = 0; i < n; i++) {
+            Transfer t = transfers.get(i);
+            if (t.amount() <= 0) {
+                throw new IllegalArgumentException("Transfer amount must be > 0");
+            }
+            from[i] = requireAccount(t.fromAccount());
+            to[i] = requireAccount(t.toAccount());
+            if (from[i] == to[i]) {
+                throw new IllegalArgumentException("Cannot transfer to the same account: " + t.fromAccount());
+            }
+            lockSet.set(stripeIndex(from[i]));
+            lockSet.set(stripeIndex(to[i]));
+        }
+        long lsn;
+        for (int s = lockSet.nextSetBit(0); s >= 0; s = lockSet.nextSetBit(s + 1)) {
+            stripes[s].lock();
+        }
+        // one commit for the whole batch, stamped before the locks are released
+        VersionClock.Commit commit = versions.begin();
+        try {
+            int applied = 0;
+            try {
+                for (; applied < n; applied++) {
+                    long amount = transfers.get(applied).amount();
+                    from[applied].withdraw(amount);
+                    to[applied].deposit(amount);
+                }
+            } catch (IllegalArgumentException e) {
+                rollback(transfers, from, to, applied);
+                throw n == 1 ? e : new IllegalArgumentException("Transfer #" + applied + " failed: " + e.getMessage(), e);
+            }
+            List<JournalRecord> records = journal == null ? List.of() : new ArrayList<>(n);
+            if (journal != null) {
+                for (int i = 0; i < n; i++) {
+                    records.add(tagged(JournalRecord.transfer(from[i].getAccountNumber(), to[i].getAccountNumber(), transfers.get(i).amount()), txId));
+                }
+            }
+            lsn = log(records, () -> rollback(transfers, from, to, n));
+            if (store != null) {
+                for (int i = 0; i < n; i++) {
+                    writeThrough(from[i]);
+                    writeThrough(to[i]);
+                }
+            }
+        } finally {
+            versions.end(commit);
+            for (int s = lockSet.nextSetBit(0); s >= 0; s = lockSet.nextSetBit(s + 1)) {
+                stripes[s].unlock();
+            }
+        }
+        changes.add(n);
+        return lsn;
+    }
+
+    /**
+     * Claims {@code txId} (unless null), applies the change and waits for it to become durable. The ID is
+     * released again if the change is rejected, so a corrected retry can go through. A duplicate of a
+     * transaction still in progress waits for it, and takes its place if it is rejected.
+     *
+     * @param apply applies the change and returns its journal LSN
+     * @return false, without applying, if {@code txId} is a duplicate
+     */
+    private boolean applyOnce(Operation op, String txId, LongSupplier apply) {
+        long start = metrics.start();
+        try {
+            DedupeWindow window = dedupe;
+            DedupeWindow.Claim claim = null;
+            if (txId != null) {
+                requireTxId(txId);
+                while ((claim = window.claim(txId)) == null) {
+                    if (window.awaitApplied(txId)) {
+                        metrics.success(op, start);
+                        return false;
+                    }
+                }
+            }
+            long lsn;
+            try {
+                lsn = apply.getAsLong();
+            } catch (RuntimeException e) {
+                if (claim != null) window.release(claim);
+                throw e;
+            }
+            try {
+                awaitDurable(lsn);
+            } finally {
+                if (claim != null) claim.applied();
+            }
+            metrics.success(op, start);
+            return true;
+        } catch (RuntimeException e) {
+            metrics.failure(op, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a change applied without waiting for durability; its latency excludes the fsync.
+     *
+     * @return the journal LSN returned by {@code apply}
+     */
+    private long instrumented(Operation op, LongSupplier apply) {
+        long start = metrics.start();
+        try {
+            long lsn = apply.getAsLong();
+            metrics.success(op, start);
+            return lsn;
+        } catch (RuntimeException e) {
+            metrics.failure(op, start, e);
+            throw e;
+        }
+    }
+
+    private static String requireTxId(String txId) {
+        if (txId.isEmpty() || txId.length() > MAX_TX_ID_LENGTH) {
+            throw new IllegalArgumentException("Transaction ID must be 1-" + MAX_TX_ID_LENGTH + " characters");
+        }
+        return txId;
+    }
+
+    private static JournalRecord tagged(JournalRecord record, String txId) {
+        return txId == null ? record : record.withTxId(txId);
+    }
+
+    /**
+     * Bounds the set of client transaction IDs remembered for duplicate detection. An ID is forgotten once
+     * {@code maxEntries} newer IDs have been seen or {@code maxAge} has passed, whichever comes first; a
+     * retry after that is applied again. IDs already seen are kept, subject to the new limits.
+     *
+     * @param maxEntries IDs kept at most, > 0; each costs roughly 100 bytes plus the ID
+     * @param maxAge     how long an ID is kept, > 0
+     */
+    public void setDedupeWindow(int maxEntries, Duration maxAge) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("Dedupe window size must be > 0");
+        if (maxAge.isNegative() || maxAge.isZero()) throw new IllegalArgumentException("Dedupe window age must be > 0");
+        dedupe = dedupe.resized(maxEntries, maxAge.toNanos());
+    }
+
+    private static void rollback(List<Transfer> transfers, Account[] from, Account[] to, int applied) {
+        for (int i = applied - 1; i >= 0; i--) {
+            long amount = transfers.get(i).amount();
+            to[i].withdraw(amount);
+            from[i].deposit(amount);
+        }
+    }
+
+    /**
+     * @return unmodifiable list of all accounts; the accounts themselves are live and may change while
+     * the list is read. Use {@link #snapshot()} for a consistent view that does not copy the book.
      */
     public List<Account> getAllAccounts() {
-        return Collections.unmodifiableList(new ArrayList<>(accounts));
+        long start = metrics.start();
+        if (columns != null) return metrics.success(Operation.GET_ALL_ACCOUNTS, start, Collections.unmodifiableList(selectRows(row -> true)));
+        return metrics.success(Operation.GET_ALL_ACCOUNTS, start, Collections.unmodifiableList(all().toList()));
+    }
+
+    /**
+     * Opens a consistent point-in-time view of every account without copying the book or pausing writers.
+     * In columnar mode the view is a copy taken while writers are briefly paused.
+     */
+    public AccountSnapshot snapshot() {
+        if (columns != null) {
+            Snapshot copy;
+            try {
+                copy = capture(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new AccountSnapshot(() -> IntStream.range(0, copy.size())
+                    .mapToObj(i -> new AccountState(copy.numbers()[i], copy.names()[i], copy.balances()[i])), () -> { });
+        }
+        all();
+        VersionClock.Registration registration = versions.open();
+        long epoch = registration.epoch;
+        AccountSnapshot snapshot = new AccountSnapshot(() -> histories.stream()
+                .map(h -> h.stateAt(epoch))
+                .filter(Objects::nonNull), registration::release);
+        registration.watch(snapshot);
+        return snapshot;
     }
 
     /**
-     * Finds accounts whose holder name contains the query (case-insensitive).
+     * Finds accounts whose holder name contains the query (case-insensitive). Queries of three or more
+     * characters are answered from the trigram index; shorter ones scan the cached normalized names. Either
+     * way, accounts come back in the order they were created.
      */
     public List<Account> findByName(String query) {
-        final String q = query == null ? "" : query.trim().toLowerCase();
-        return accounts.stream()
-                .filter(a -> a.getHolderName().toLowerCase().contains(q))
-                .collect(Collectors.toList());
+        long start = metrics.start();
+        String q = query == null ? "" : Account.normalizeName(query);
+        return metrics.success(Operation.FIND_BY_NAME, start, cached(QueryCache.Kind.NAME, q, 0, 0, () -> searchByName(q)));
+    }
+
+    private List<Account> searchByName(String q) {
+        if (columns != null) return selectByName(q, false);
+        if (q.length() >= 3) {
+            all();
+            return nameIndex.contains(q);
+        }
+        return selectAccounts(a -> a.getNormalizedHolderName().contains(q));
     }
 
     /**
-     * Finds accounts with balance in [min, max].
+     * Finds accounts whose holder name starts with the prefix (case-insensitive), in name order.
      */
-    public List<Account> findByBalanceRange(double min, double max) {
+    public List<Account> findByNamePrefix(String prefix) {
+        long start = metrics.start();
+        String p = prefix == null ? "" : Account.normalizeName(prefix);
+        return metrics.success(Operation.FIND_BY_NAME_PREFIX, start, cached(QueryCache.Kind.NAME_PREFIX, p, 0, 0, () -> searchByNamePrefix(p)));
+    }
+
+    private List<Account> searchByNamePrefix(String p) {
+        if (columns != null) {
+            List<Account> found = selectByName(p, true);
+            found.sort(Comparator.comparing(Account::getNormalizedHolderName).thenComparing(Account::getAccountNumber));
+            return found;
+        }
+        all();
+        return nameIndex.startsWith(p);
+    }
+
+    /**
+     * Finds accounts with balance in [min, max] cents, in ascending balance order when the balance
+     * index is enabled ({@code O(log n + k)}), otherwise in insertion order.
+     */
+    public List<Account> findByBalanceRange(long min, long max) {
+        long start = metrics.start();
         if (min > max) {
-            double t = min;
+            long t = min;
             min = max;
             max = t; // swap
         }
-        double minF = min, maxF = max;
-        return accounts.stream()
-                .filter(a -> a.getBalance() >= minF && a.getBalance() <= maxF)
-                .collect(Collectors.toList());
+        long minF = min, maxF = max;
+        return metrics.success(Operation.FIND_BY_BALANCE_RANGE, start,
+                cached(QueryCache.Kind.BALANCE_RANGE, null, minF, maxF, () -> searchByBalanceRange(minF, maxF)));
+    }
+
+    private List<Account> searchByBalanceRange(long minF, long maxF) {
+        NavigableMap<BalanceKey, Account> idx = balanceIndex();
+        if (idx != null) {
+            return new ArrayList<>(idx.subMap(new BalanceKey(minF, AccountId.MIN_VALUE), true, new BalanceKey(maxF, AccountId.MAX_VALUE), true).values());
+        }
+        if (columns != null) {
+            return selectRows(row -> {
+                long b = columns.balance(row);
+                return b >= minF && b <= maxF;
+            });
+        }
+        return selectAccounts(a -> {
+            long b = a.getBalance();
+            return b >= minF && b <= maxF;
+        });
     }
 
     /**
-     * Total balance using streams.
+     * Total balance in cents, read from a running sum in O(1).
      */
-    public double totalBalance() {
-        return accounts.stream().mapToDouble(Account::getBalance).sum();
+    public long totalBalance() {
+        long start = metrics.start();
+        all();
+        long total = balanceSum.sum();
+        metrics.success(Operation.TOTAL_BALANCE, start);
+        return total;
     }
 
     /**
-     * Average balance using streams; returns 0 for empty list.
+     * Average balance in cents, read from running aggregates in O(1); returns 0 for empty list.
      */
     public double averageBalance() {
-        return accounts.isEmpty() ? 0.0 : accounts.stream().mapToDouble(Account::getBalance).average().orElse(0.0);
+        long start = metrics.start();
+        all();
+        long count = accountCount.sum();
+        double average = count == 0 ? 0.0 : (double) balanceSum.sum() / count;
+        metrics.success(Operation.AVERAGE_BALANCE, start);
+        return average;
+    }
+
+    /**
+     * Count, total, average and variance from running aggregates; min and max come from the balance
+     * index in O(log n), or from a scan when the index is disabled. Under concurrent writes the fields
+     * are individually current but not taken at a single instant.
+     */
+    public BalanceStats balanceStats() {
+        long start = metrics.start();
+        NavigableMap<BalanceKey, Account> idx = balanceIndex();
+        long count = accountCount.sum();
+        long total = balanceSum.sum();
+        if (count <= 0) return metrics.success(Operation.BALANCE_STATS, start, new BalanceStats(0, 0, 0, 0, 0, 0));
+        double mean = (double) total / count;
+        double variance = Math.max(0, balanceSumOfSquares.sum() / count - mean * mean);
+        long min, max;
+        if (idx != null && !idx.isEmpty()) {
+            min = idx.firstKey().balance();
+            max = idx.lastKey().balance();
+        } else {
+            LongSummaryStatistics s = columns != null
+                    ? scan.summarize(columns.size(), row -> true, columns::balance)
+                    : scan.summarize(accounts.size(), row -> accounts.get(row) != null, this::balanceAt);
+            min = s.getCount() == 0 ? 0 : s.getMin();
+            max = s.getCount() == 0 ? 0 : s.getMax();
+        }
+        return metrics.success(Operation.BALANCE_STATS, start, new BalanceStats(count, total, mean, variance, min, max));
     }
 
     /**
-     * Top N accounts by balance (descending).
+     * Top N accounts by balance (descending). Walks the balance index when enabled, otherwise keeps a
+     * bounded min-heap of N entries over one pass instead of sorting every account.
      */
     public List<Account> topNByBalance(int n) {
-        if (n <= 0) return List.of();
-        return accounts.stream()
-                .sorted(Comparator.comparingDouble(Account::getBalance).reversed())
-                .limit(n)
-                .collect(Collectors.toList());
+        long start = metrics.start();
+        if (n <= 0) return metrics.success(Operation.TOP_N_BY_BALANCE, start, List.of());
+        return metrics.success(Operation.TOP_N_BY_BALANCE, start, cached(QueryCache.Kind.TOP_N, null, n, 0, () -> searchTopN(n)));
+    }
+
+    private List<Account> searchTopN(int n) {
+        NavigableMap<BalanceKey, Account> idx = balanceIndex();
+        if (idx != null) {
+            return idx.descendingMap().values().stream().limit(n).collect(Collectors.toList());
+        }
+        if (columns != null) return topRowsByBalance(n);
+        all();
+        List<Account> top = new ArrayList<>(Math.min(n, 1024));
+        for (int row : scan.topN(accounts.size(), n, r -> accounts.get(r) != null, this::balanceAt)) {
+            Account a = accounts.get(row);
+            if (a != null) top.add(a);
+        }
+        return top;
     }
 
     /**
-     * Filters accounts by minimum balance.
+     * Filters accounts by minimum balance in cents; ascending by balance when the balance index is enabled.
+     */
+    public List<Account> filterByMinBalance(long min) {
+        long start = metrics.start();
+        return metrics.success(Operation.FILTER_BY_MIN_BALANCE, start, cached(QueryCache.Kind.MIN_BALANCE, null, min, 0, () -> searchByMinBalance(min)));
+    }
+
+    private List<Account> searchByMinBalance(long m) {
+        NavigableMap<BalanceKey, Account> idx = balanceIndex();
+        if (idx != null) {
+            return new ArrayList<>(idx.tailMap(new BalanceKey(m, AccountId.MIN_VALUE), true).values());
+        }
+        if (columns != null) return selectRows(row -> columns.balance(row) >= m);
+        return selectAccounts(a -> a.getBalance() >= m);
+    }
+
+    /**
+     * Enables or disables the balance-ordered index used by {@link #findByBalanceRange},
+     * {@link #filterByMinBalance} and {@link #topNByBalance}. Enabled by default; disabling saves memory
+     * and index maintenance on every balance change at the cost of full scans. Enabling rebuilds the index
+     * while writers are paused. Has no effect in columnar mode, which always scans.
+     */
+    public void setBalanceIndexEnabled(boolean enabled) {
+        if (columns != null) return;
+        all();
+        lockAll();
+        try {
+            if (!enabled) {
+                balanceIndex = null;
+            } else if (balanceIndex == null) {
+                ConcurrentSkipListMap<BalanceKey, Account> idx = new ConcurrentSkipListMap<>();
+                for (Account a : accounts) idx.put(new BalanceKey(a.getBalance(), a.getId()), a);
+                balanceIndex = idx;
+            }
+            balancesChanged(); // result order depends on the index
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Configures how scans that no index can serve (short name queries, balance queries with the balance
+     * index disabled, min and max in {@link #balanceStats()}, and every scan in columnar mode) are run. Books
+     * of at least {@code threshold} accounts are split into contiguous chunks scanned on a dedicated
+     * fork-join pool of {@code parallelism} threads, started on first use; top-N keeps a bounded heap per
+     * chunk and merges them. Results are the same as a sequential scan's. Defaults to one thread per
+     * processor and {@link #DEFAULT_PARALLEL_THRESHOLD}. The previous pool is shut down once the scans
+     * running on it have finished.
+     *
+     * @param parallelism pool size; 1 scans sequentially
+     * @param threshold   smallest book scanned in parallel, >= 0
      */
-    public List<Account> filterByMinBalance(double min) {
-        double m = min;
-        return accounts.stream().filter(a -> a.getBalance() >= m).collect(Collectors.toList());
+    public void setParallelQueries(int parallelism, int threshold) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be >= 1");
+        if (threshold < 0) throw new IllegalArgumentException("Threshold must be >= 0");
+        ParallelScan old = scan;
+        scan = new ParallelScan(parallelism, threshold);
+        old.close();
+    }
+
+    /**
+     * Sets how many query results are kept; 0 disables the cache. Replacing the size clears the cache.
+     */
+    public void setQueryCacheSize(int maxEntries) {
+        if (maxEntries < 0) throw new IllegalArgumentException("Cache size must be >= 0");
+        queryCache = maxEntries == 0 ? null : new QueryCache(maxEntries, QUERY_CACHE_MAX_ACCOUNTS, columns != null);
+    }
+
+    private List<Account> cached(QueryCache.Kind kind, String text, long a, long b, Supplier<List<Account>> query) {
+        QueryCache cache = queryCache;
+        return cache != null ? cache.get(kind, text, a, b, query) : Collections.unmodifiableList(query.get());
+    }
+
+    private void namesChanged() {
+        QueryCache cache = queryCache;
+        if (cache != null) cache.namesChanged();
+    }
+
+    private void balancesChanged() {
+        QueryCache cache = queryCache;
+        if (cache != null) cache.balancesChanged();
+    }
+
+    /**
+     * @return the balance index after materializing any lazily loaded accounts, or null if disabled
+     */
+    private NavigableMap<BalanceKey, Account> balanceIndex() {
+        all();
+        return balanceIndex;
     }
 
     /**
      * Persists accounts to CSV. Creates file if missing.
+     * <p>
+     * Writers are paused only while balances are copied; the file is then written to a temporary sibling
+     * and atomically renamed into place, so a crash never leaves a half-written CSV. The file is tagged
+     * with the journal LSN it covers. Saving to the manager's own CSV path also writes the transaction IDs
+     * of the covered records to the side file and then discards the covered journal segments.
      */
     public void saveToCsv(Path csvPath) {
+        boolean ownCsv = this.csvPath != null
+                && csvPath.toAbsolutePath().normalize().equals(this.csvPath.toAbsolutePath().normalize());
+        boolean ownSnapshot = journal != null && ownCsv;
+        long start = metrics.start();
+        snapshotLock.lock();
+        try {
+            Snapshot snapshot = capture(ownSnapshot);
+            long csvCrc = writeCsv(csvPath, snapshot);
+            if (ownCsv && warmStartPath != null) writeWarmStart(csvPath, csvCrc, snapshot);
+            if (ownSnapshot) {
+                writeTxIds();
+                journal.discardThrough(snapshot.journalLsn());
+            }
+            metrics.success(Operation.SAVE_CSV, start);
+        } catch (IOException e) {
+            RuntimeException failure = new RuntimeException("Failed to save CSV: " + e.getMessage(), e);
+            metrics.failure(Operation.SAVE_CSV, start, failure);
+            throw failure;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Streams the accounts selected by {@code filter} to {@code out} as CSV with a header row, without
+     * collecting them first: rows are formatted into one reusable buffer as the accounts are scanned, so
+     * memory stays bounded however many rows match. A balance range is written in ascending balance order
+     * when the balance index is enabled, otherwise rows come in insertion order.
+     * <p>
+     * Accounts are read live, as by {@link #getAllAccounts()}; for a consistent view write a
+     * {@link #snapshot()} instead. {@code out} is left open.
+     *
+     * @param gzip whether to gzip-compress the output
+     * @return number of accounts written
+     */
+    public long exportCsv(AccountFilter filter, WritableByteChannel out, boolean gzip) {
+        long start = metrics.start();
         try {
-            if (csvPath.getParent() != null) Files.createDirectories(csvPath.getParent());
-            try (BufferedWriter writer = Files.newBufferedWriter(csvPath, StandardCharsets.UTF_8)) {
-                writer.write("accountNumber,holderName,balance\n");
-                for (Account a : accounts) {
-                    writer.write(String.format("%s,%s,%.2f\n", a.getAccountNumber(), a.getHolderName(), a.getBalance()));
+            long rows;
+            if (gzip) {
+                // closing the gzip stream frees its native deflater; the caller's channel stays open
+                OutputStream target = new FilterOutputStream(Channels.newOutputStream(out)) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        this.out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                };
+                try (GZIPOutputStream z = new GZIPOutputStream(target, 64 * 1024)) {
+                    rows = exportRows(filter, Channels.newChannel(z));
                 }
+            } else {
+                rows = exportRows(filter, out);
             }
+            return metrics.success(Operation.EXPORT_CSV, start, rows);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to save CSV: " + e.getMessage(), e);
+            UncheckedIOException failure = new UncheckedIOException("Failed to export CSV: " + e.getMessage(), e);
+            metrics.failure(Operation.EXPORT_CSV, start, failure);
+            throw failure;
         }
     }
 
+    /**
+     * As {@link #exportCsv(AccountFilter, WritableByteChannel, boolean)}, to a stream; {@code out} is
+     * flushed and left open.
+     */
+    public long exportCsv(AccountFilter filter, OutputStream out, boolean gzip) {
+        long rows = exportCsv(filter, Channels.newChannel(out), gzip);
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export CSV: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    private long exportRows(AccountFilter filter, WritableByteChannel out) throws IOException {
+        CsvAccountWriter writer = new CsvAccountWriter(out);
+        writer.writeHeader(0);
+        long rows = 0;
+        if (columns != null) {
+            byte[] ascii = filter.name == null ? null : filter.name.getBytes(StandardCharsets.UTF_8);
+            boolean asciiName = ascii != null && ascii.length == filter.name.length();
+            int size = columns.size();
+            for (int row = 0; row < size; row++) {
+                long balance = columns.balance(row);
+                if (!filter.acceptsBalance(balance)) continue;
+                String name = columns.holderName(row);
+                if (filter.name != null && !(asciiName ? columns.holderNameMatches(row, ascii, false)
+                        : Account.normalizeName(name).contains(filter.name))) continue;
+                writer.write(columns.accountNumber(row), name, balance);
+                rows++;
+            }
+        } else {
+            NavigableMap<BalanceKey, Account> idx = filter.isBalanceRange() ? balanceIndex() : null;
+            Iterable<Account> source = idx == null ? all()
+                    : idx.subMap(new BalanceKey(filter.min, AccountId.MIN_VALUE), true, new BalanceKey(filter.max, AccountId.MAX_VALUE), true).values();
+            for (Account a : source) {
+                long balance = a.getBalance();
+                if (!filter.accepts(a, balance)) continue;
+                writer.write(a.getAccountNumber(), a.getHolderName(), balance);
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Writes all accounts to a {@link BinaryAccountStore} file, replacing it atomically.
+     *
+     * @throws IllegalArgumentException if a holder name is too long for the binary format
+     */
+    public void saveToBinary(Path storePath) {
+        snapshotLock.lock();
+        try {
+            Snapshot snapshot = capture(false);
+            BinaryAccountStore.write(storePath, snapshot.numbers(), snapshot.names(), snapshot.balances(), snapshot.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save binary store: " + e.getMessage(), e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Starts saving to the manager's CSV path in the background whenever {@code changeThreshold} changes
+     * have accumulated or {@code interval} has elapsed with changes pending. Replaces any previous schedule.
+     *
+     * @param interval        maximum snapshot age while changes are pending; {@link Duration#ZERO} disables
+     * @param changeThreshold change count that triggers a snapshot; {@code <= 0} disables
+     */
+    public void startSnapshots(Duration interval, long changeThreshold) {
+        if (csvPath == null) {
+            throw new IllegalStateException("No CSV path to snapshot to");
+        }
+        stopSnapshots();
+        snapshots = new SnapshotScheduler(() -> saveToCsv(csvPath), changes::sum, interval, changeThreshold);
+    }
+
+    /**
+     * Stops background snapshots, waiting for one in progress to finish.
+     */
+    public void stopSnapshots() {
+        SnapshotScheduler s = snapshots;
+        snapshots = null;
+        if (s != null) s.close();
+    }
+
+    /**
+     * Stops background snapshots, then flushes and closes the journal and binary store, if any. A store
+     * that lacks accounts created since it was opened is rewritten with them. Off-heap columns are
+     * dropped last, even if closing the files fails.
+     */
+    @Override
+    public void close() {
+        stopSnapshots();
+        scan.close();
+        try {
+            if (journal != null) journal.close();
+            if (store != null) closeStore();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close: " + e.getMessage(), e);
+        } finally {
+            if (columns != null) columns.close();
+        }
+    }
+
+    private void closeStore() throws IOException {
+        if (!storeOutdated) {
+            store.close();
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            Snapshot snapshot = capture(false);
+            store.close();
+            BinaryAccountStore.write(store.path(), snapshot.numbers(), snapshot.names(), snapshot.balances(), snapshot.size());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Point-in-time copy of every account, consistent with {@code journalLsn}.
+     */
+    private record Snapshot(String[] numbers, String[] names, long[] balances, int size, long journalLsn) {
+    }
+
+    /**
+     * Copies all accounts while writers are paused.
+     *
+     * @param rotateJournal seal the journal so records covered by the copy can be discarded later
+     */
+    private Snapshot capture(boolean rotateJournal) throws IOException {
+        all();
+        lockAll();
+        try {
+            if (columns != null) {
+                int n = columns.size();
+                String[] numbers = new String[n];
+                String[] names = new String[n];
+                long[] balances = new long[n];
+                for (int row = 0; row < n; row++) {
+                    numbers[row] = columns.accountNumber(row);
+                    names[row] = columns.holderName(row);
+                    balances[row] = columns.balance(row);
+                }
+                long lsn = journal == null ? 0 : rotateJournal ? journal.rotate() : journal.lastLsn();
+                return new Snapshot(numbers, names, balances, n, lsn);
+            }
+            int capacity = index.size();
+            String[] numbers = new String[capacity];
+            String[] names = new String[capacity];
+            long[] balances = new long[capacity];
+            int n = 0;
+            for (Account a : accounts) {
+                numbers[n] = a.getAccountNumber();
+                names[n] = a.getHolderName();
+                balances[n] = a.getBalance();
+                n++;
+            }
+            long lsn = journal == null ? 0 : rotateJournal ? journal.rotate() : journal.lastLsn();
+            return new Snapshot(numbers, names, balances, n, lsn);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Writes the warm-start image for a CSV just written from {@code snapshot}. A failure only costs the
+     * next start its shortcut, so it is reported rather than thrown.
+     */
+    private void writeWarmStart(Path csvPath, long csvCrc, Snapshot snapshot) {
+        int n = snapshot.size();
+        String[] numbers = Arrays.copyOf(snapshot.numbers(), n);
+        String[] names = Arrays.copyOf(snapshot.names(), n);
+        long[] balances = Arrays.copyOf(snapshot.balances(), n);
+        AccountId[] ids = new AccountId[n];
+        String[] normalizedNames = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = AccountId.of(numbers[i]);
+            normalizedNames[i] = Account.normalizeName(names[i]);
+        }
+        int[] balanceOrder = RowOrder.sorted(n, (a, b) -> {
+            int c = Long.compare(balances[a], balances[b]);
+            return c != 0 ? c : ids[a].compareTo(ids[b]);
+        });
+        NameIndex.Image nameImage = NameIndex.Image.of(normalizedNames, numbers);
+        try {
+            WarmStartFile.write(warmStartPath, csvPath, csvCrc, new WarmStartFile.Image(numbers, names, balances,
+                    snapshot.journalLsn(), balanceOrder, nameImage.nameOrder(), nameImage.grams(), nameImage.postings()));
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("[WARN] Failed to write warm-start file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return CRC-32 recorded on the file's last line
+     */
+    private static long writeCsv(Path csvPath, Snapshot snapshot) throws IOException {
+        Path target = csvPath.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        long crc;
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CsvAccountWriter writer = new CsvAccountWriter(ch);
+            writer.writeHeader(snapshot.journalLsn());
+            for (int i = 0; i < snapshot.size(); i++) {
+                writer.write(snapshot.numbers()[i], snapshot.names()[i], snapshot.balances()[i]);
+            }
+            crc = writer.writeChecksum();
+            writer.flush();
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return crc;
+    }
+
     /**
      * Gets an account by number.
      */
     public Optional<Account> getByNumber(String accountNumber) {
-        if (accountNumber == null) return Optional.empty();
-        String key = accountNumber.toLowerCase();
-        return accounts.stream().filter(a -> a.getAccountNumber().toLowerCase().equals(key)).findFirst();
+        long start = metrics.start();
+        return metrics.success(Operation.GET_BY_NUMBER, start, Optional.ofNullable(lookup(accountNumber)));
+    }
+
+    /**
+     * @return the account, or null if absent; a detached copy in columnar mode
+     */
+    private Account lookup(String accountNumber) {
+        if (accountNumber == null) return null;
+        if (columns != null) {
+            int row = columns.indexOf(accountNumber);
+            return row < 0 ? null : columns.get(row);
+        }
+        AccountId id = AccountId.parse(accountNumber);
+        if (id == null) return null;
+        Account acc = index.get(id);
+        if (acc == null && store != null && !storeFullyLoaded) acc = materialize(accountNumber, id);
+        return acc;
+    }
+
+    /**
+     * @return all accounts, first decoding any not yet materialized from the binary store
+     */
+    private AccountTable all() {
+        if (store != null && !storeFullyLoaded) loadStore();
+        return accounts;
+    }
+
+    private synchronized void loadStore() {
+        if (storeFullyLoaded) return;
+        for (int i = 0; i < store.size(); i++) {
+            if (!index.containsKey(AccountId.of(store.accountNumber(i)))) register(new StoredAccount(store, i));
+        }
+        storeFullyLoaded = true;
+    }
+
+    private Account materialize(String accountNumber, AccountId id) {
+        int i = store.indexOf(accountNumber);
+        if (i < 0) return null;
+        Account acc = new StoredAccount(store, i);
+        return register(acc) ? acc : index.get(id);
+    }
+
+    /**
+     * Writes the balance of a store-backed account in place, under the account's stripe lock; accounts
+     * created after opening are skipped.
+     */
+    private void writeThrough(Account acc) {
+        if (acc instanceof StoredAccount stored) store.setBalance(stored.record, acc.getBalance());
+    }
+
+    /**
+     * Account decoded from the binary store, remembering its record so balance writes skip the lookup.
+     */
+    private static final class StoredAccount extends Account {
+        final int record;
+
+        StoredAccount(BinaryAccountStore store, int record) {
+            super(store.accountNumber(record), store.holderName(record), store.balance(record));
+            this.record = record;
+        }
+    }
+
+    /**
+     * Atomically claims the account number and appends the account.
+     *
+     * @return false if the number is already taken
+     */
+    private boolean register(Account acc) {
+        return register(acc, true);
+    }
+
+    /**
+     * @param indexed false to leave the account out of the balance and name indexes, for callers that fill
+     *                them in bulk afterwards
+     */
+    private boolean register(Account acc, boolean indexed) {
+        if (columns != null) {
+            if (columns.append(acc.getAccountNumber(), acc.getHolderName(), acc.getBalance()) < 0) return false;
+            addToAggregates(acc.getBalance(), 1);
+            namesChanged();
+            balancesChanged();
+            return true;
+        }
+        AccountId key = acc.getId();
+        ReentrantLock lock = stripeFor(acc);
+        lock.lock();
+        try {
+            if (index.putIfAbsent(key, acc) != null) return false;
+            accounts.add(acc);
+            History history = new History(acc);
+            histories.add(history);
+            acc.setListener(history);
+            addToAggregates(acc.getBalance(), 1);
+            if (indexed) {
+                nameIndex.add(acc, acc.getNormalizedHolderName());
+                ConcurrentSkipListMap<BalanceKey, Account> idx = balanceIndex;
+                if (idx != null) idx.put(new BalanceKey(acc.getBalance(), key), acc);
+            }
+            namesChanged();
+            balancesChanged();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unregister(Account acc) {
+        AccountId key = acc.getId();
+        index.remove(key, acc);
+        accounts.remove(acc);
+        histories.removeIf(h -> h.account == acc);
+        acc.setListener(null);
+        addToAggregates(acc.getBalance(), -1);
+        nameIndex.remove(acc, acc.getNormalizedHolderName());
+        ConcurrentSkipListMap<BalanceKey, Account> idx = balanceIndex;
+        if (idx != null) idx.remove(new BalanceKey(acc.getBalance(), key));
+        namesChanged();
+        balancesChanged();
+    }
+
+    private void addToAggregates(long balance, int sign) {
+        accountCount.add(sign);
+        balanceSum.add(sign * balance);
+        balanceSumOfSquares.add(sign * (double) balance * balance);
+    }
+
+    /**
+     * Keeps secondary indexes and aggregates current; runs under the account's stripe lock for manager-driven changes.
+     */
+    private final class Indexer implements AccountListener {
+        @Override
+        public void balanceChanged(Account account, long oldBalance, long newBalance) {
+            balanceSum.add(newBalance - oldBalance);
+            balanceSumOfSquares.add((double) newBalance * newBalance - (double) oldBalance * oldBalance);
+            ConcurrentSkipListMap<BalanceKey, Account> idx = balanceIndex;
+            if (idx != null) {
+                AccountId key = account.getId();
+                idx.remove(new BalanceKey(oldBalance, key));
+                idx.put(new BalanceKey(newBalance, key), account);
+            }
+            balancesChanged();
+        }
+
+        @Override
+        public void holderNameChanged(Account account, String oldNormalizedName, String newNormalizedName) {
+            nameIndex.rename(account, oldNormalizedName, newNormalizedName);
+            namesChanged();
+        }
+    }
+
+    /**
+     * Per-account listener recording a version for every change before passing it on to {@link #indexer}.
+     */
+    private final class History implements AccountListener {
+        final Account account;
+        private volatile VersionClock.Version head;
+
+        History(Account account) {
+            this.account = account;
+            head = new VersionClock.Version(versions.commitForChange(), account.getHolderName(), account.getBalance(), null);
+        }
+
+        @Override
+        public void balanceChanged(Account account, long oldBalance, long newBalance) {
+            indexer.balanceChanged(account, oldBalance, newBalance);
+            append(account.getHolderName(), newBalance);
+        }
+
+        @Override
+        public void holderNameChanged(Account account, String oldNormalizedName, String newNormalizedName) {
+            indexer.holderNameChanged(account, oldNormalizedName, newNormalizedName);
+            append(account.getHolderName(), account.getBalance());
+        }
+
+        private void append(String holderName, long balance) {
+            VersionClock.Version v = new VersionClock.Version(versions.commitForChange(), holderName, balance, head);
+            head = v;
+            VersionClock.prune(v, versions.oldestReadable());
+        }
+
+        /**
+         * @return the account as of {@code epoch}, or null if it was created later
+         */
+        AccountState stateAt(long epoch) {
+            VersionClock.Version v = VersionClock.visible(head, epoch);
+            return v == null ? null : new AccountState(account.getAccountNumber(), v.holderName, v.balance);
+        }
+    }
+
+    /**
+     * Balance index key: orders by balance, then by {@link AccountId} for uniqueness.
+     */
+    private record BalanceKey(long balance, AccountId key) implements Comparable<BalanceKey> {
+        @Override
+        public int compareTo(BalanceKey o) {
+            int c = Long.compare(balance, o.balance);
+            return c != 0 ? c : key.compareTo(o.key);
+        }
+    }
+
+    /**
+     * Appends to the journal under the caller's lock, undoing the in-memory change if the journal rejects it.
+     *
+     * @return LSN to wait for, or 0 without a journal
+     */
+    private long log(JournalRecord record, Runnable undo) {
+        return journal == null ? 0 : log(List.of(record), undo);
+    }
+
+    private long log(List<JournalRecord> records, Runnable undo) {
+        if (journal == null) return 0;
+        long lsn;
+        try {
+            lsn = journal.appendAll(records);
+        } catch (RuntimeException e) {
+            undo.run();
+            throw e;
+        }
+        DedupeWindow window = dedupe;
+        for (JournalRecord r : records) {
+            if (r.txId() != null) window.journaled(r.txId());
+        }
+        return lsn;
+    }
+
+    /**
+     * Blocks until every journal record up to {@code lsn} is on disk; returns at once for 0.
+     */
+    void awaitDurable(long lsn) {
+        if (lsn > 0) journal.awaitDurable(lsn);
+    }
+
+    /**
+     * Restores the transaction IDs written with the last snapshot, whose journal records are gone. A file
+     * that cannot be read only costs duplicate detection for those IDs, so it is reported rather than thrown.
+     */
+    private void loadTxIds() {
+        TransactionIdFile.Ids ids;
+        try {
+            ids = TransactionIdFile.read(txIdPath);
+        } catch (IOException e) {
+            System.err.println("[WARN] Ignoring transaction ID file: " + e.getMessage());
+            return;
+        }
+        if (ids == null) return;
+        DedupeWindow window = dedupe;
+        for (int i = 0; i < ids.size(); i++) window.restore(ids.ids()[i], ids.claimedAt()[i]);
+    }
+
+    /**
+     * Writes the journaled IDs in the dedupe window to {@link #txIdPath}. Called after a capture: every
+     * record it covers was marked journaled under the locks the capture waited for, and IDs journaled since
+     * are harmless extras.
+     */
+    private void writeTxIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        long[][] claimedAt = {new long[1024]};
+        dedupe.forEachJournaled((id, at) -> {
+            int n = ids.size();
+            if (n == claimedAt[0].length) claimedAt[0] = Arrays.copyOf(claimedAt[0], n * 2);
+            claimedAt[0][n] = at;
+            ids.add(id);
+        });
+        TransactionIdFile.write(txIdPath, ids.toArray(new String[0]), claimedAt[0], ids.size());
+    }
+
+    /**
+     * Puts the client transaction ID of a journal record back into the dedupe window, aged from the time
+     * the record was appended.
+     */
+    private void restoreTxId(JournalRecord r) {
+        if (r.txId() == null) return;
+        DedupeWindow window = dedupe;
+        window.restore(r.txId(), r.txTime() == 0 ? DedupeWindow.WALL_CLOCK.getAsLong() : r.txTime() * 1_000_000);
+    }
+
+    /**
+     * Re-applies a journal record during startup, without journaling it again.
+     */
+    private void replay(JournalRecord r) {
+        restoreTxId(r);
+        try {
+            if (columns != null && r.type() != JournalRecord.Type.CREATE) {
+                replayToColumns(r);
+                return;
+            }
+            switch (r.type()) {
+                case CREATE -> register(new Account(r.account(), r.holderName(), r.amount()));
+                case DEPOSIT -> requireAccount(r.account()).deposit(r.amount());
+                case WITHDRAW -> requireAccount(r.account()).withdraw(r.amount());
+                case TRANSFER -> {
+                    Account from = requireAccount(r.account());
+                    Account to = requireAccount(r.counterparty());
+                    from.withdraw(r.amount());
+                    to.deposit(r.amount());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[WARN] Skipping journal record " + r.lsn() + ": " + e.getMessage());
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) lock.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) stripes[i].unlock();
+    }
+
+    private ReentrantLock stripeFor(Account acc) {
+        return stripes[stripeIndex(acc)];
+    }
+
+    private static int stripeIndex(Account acc) {
+        int h = acc.hashCode();
+        return (h ^ (h >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    // ---- columnar mode -------------------------------------------------------------------------------
+
+    private int requireRow(String accountNumber) {
+        int row = accountNumber == null ? -1 : columns.indexOf(accountNumber);
+        if (row < 0) throw new IllegalArgumentException("Account not found: " + accountNumber);
+        return row;
+    }
+
+    private ReentrantLock rowStripe(int row) {
+        return stripes[row & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Deposits into or withdraws from a row under its stripe lock, with {@link Account}'s validation.
+     *
+     * @return journal LSN, or 0 without a journal
+     */
+    private long applyToRow(int row, long amount, boolean deposit, String txId) {
+        ReentrantLock lock = rowStripe(row);
+        long lsn;
+        lock.lock();
+        try {
+            long old = columns.balance(row);
+            setRowBalance(row, old, deposit ? credited(old, amount) : debited(old, amount));
+            String number = columns.accountNumber(row);
+            lsn = log(tagged(deposit ? JournalRecord.deposit(number, amount) : JournalRecord.withdraw(number, amount), txId),
+                    () -> setRowBalance(row, columns.balance(row), old));
+        } finally {
+            lock.unlock();
+        }
+        changes.increment();
+        return lsn;
+    }
+
+    /**
+     * Columnar counterpart of the heap path in {@link #applyTransfers(List)}, with the same all-or-nothing semantics.
+     */
+    private long applyColumnarTransfers(List<Transfer> transfers, String txId) {
+        int n = transfers.size();
+        int[] from = new int[n];
+        int[] to = new int[n];
+        BitSet lockSet = new BitSet(LOCK_STRIPES);
+        for (int i = 0; i < n; i++) {
+            Transfer t = transfers.get(i);
+            if (t.amount() <= 0) {
+                throw new IllegalArgumentException("Transfer amount must be > 0");
+            }
+            from[i] = requireRow(t.fromAccount());
+            to[i] = requireRow(t.toAccount());
+            if (from[i] == to[i]) {
+                throw new IllegalArgumentException("Cannot transfer to the same account: " + t.fromAccount());
+            }
+            lockSet.set(from[i] & (LOCK_STRIPES - 1));
+            lockSet.set(to[i] & (LOCK_STRIPES - 1));
+        }
+        long[] before = new long[2 * n];
+        long lsn;
+        for (int s = lockSet.nextSetBit(0); s >= 0; s = lockSet.nextSetBit(s + 1)) {
+            stripes[s].lock();
+        }
+        try {
+            int applied = 0;
+            try {
+                for (; applied < n; applied++) {
+                    long amount = transfers.get(applied).amount();
+                    before[2 * applied] = columns.balance(from[applied]);
+                    before[2 * applied + 1] = columns.balance(to[applied]);
+                    long debited = debited(before[2 * applied], amount);
+                    long credited = credited(before[2 * applied + 1], amount);
+                    setRowBalance(from[applied], before[2 * applied], debited);
+                    setRowBalance(to[applied], before[2 * applied + 1], credited);
+                }
+            } catch (IllegalArgumentException e) {
+                restoreRows(from, to, before, applied);
+                throw n == 1 ? e : new IllegalArgumentException("Transfer #" + applied + " failed: " + e.getMessage(), e);
+            }
+            List<JournalRecord> records = journal == null ? List.of() : new ArrayList<>(n);
+            if (journal != null) {
+                for (int i = 0; i < n; i++) {
+                    records.add(tagged(JournalRecord.transfer(columns.accountNumber(from[i]), columns.accountNumber(to[i]), transfers.get(i).amount()), txId));
+                }
+            }
+            lsn = log(records, () -> restoreRows(from, to, before, n));
+        } finally {
+            for (int s = lockSet.nextSetBit(0); s >= 0; s = lockSet.nextSetBit(s + 1)) {
+                stripes[s].unlock();
+            }
+        }
+        changes.add(n);
+        return lsn;
+    }
+
+    private void restoreRows(int[] from, int[] to, long[] before, int applied) {
+        for (int i = applied - 1; i >= 0; i--) {
+            setRowBalance(to[i], columns.balance(to[i]), before[2 * i + 1]);
+            setRowBalance(from[i], columns.balance(from[i]), before[2 * i]);
+        }
+    }
+
+    private static long credited(long balance, long amount) {
+        if (amount <= 0) throw new IllegalArgumentException("Deposit amount must be > 0");
+        if (amount > Long.MAX_VALUE - balance) throw new IllegalArgumentException("Balance overflow");
+        return balance + amount;
+    }
+
+    private static long debited(long balance, long amount) {
+        if (amount <= 0) throw new IllegalArgumentException("Withdrawal amount must be > 0");
+        if (amount > balance) throw new IllegalArgumentException("Insufficient balance");
+        return balance - amount;
+    }
+
+    private void setRowBalance(int row, long oldBalance, long newBalance) {
+        columns.setBalance(row, newBalance);
+        balanceSum.add(newBalance - oldBalance);
+        balanceSumOfSquares.add((double) newBalance * newBalance - (double) oldBalance * oldBalance);
+        balancesChanged();
+    }
+
+    private void replayToColumns(JournalRecord r) {
+        switch (r.type()) {
+            case DEPOSIT -> applyRowChange(requireRow(r.account()), r.amount(), true);
+            case WITHDRAW -> applyRowChange(requireRow(r.account()), r.amount(), false);
+            case TRANSFER -> {
+                int from = requireRow(r.account());
+                int to = requireRow(r.counterparty());
+                long debited = debited(columns.balance(from), r.amount());
+                applyRowChange(to, r.amount(), true);
+                setRowBalance(from, columns.balance(from), debited);
+            }
+            default -> throw new IllegalStateException("Unexpected record type: " + r.type());
+        }
+    }
+
+    private void applyRowChange(int row, long amount, boolean deposit) {
+        long old = columns.balance(row);
+        setRowBalance(row, old, deposit ? credited(old, amount) : debited(old, amount));
+    }
+
+    /**
+     * Materializes the rows accepted by {@code filter}, in row (insertion) order.
+     */
+    private List<Account> selectRows(IntPredicate filter) {
+        return scan.select(columns.size(), row -> filter.test(row) ? columns.get(row) : null);
+    }
+
+    /**
+     * Matches ASCII queries against the raw name bytes and decodes names only for other queries.
+     */
+    private List<Account> selectByName(String normalizedQuery, boolean prefix) {
+        byte[] ascii = normalizedQuery.getBytes(StandardCharsets.UTF_8);
+        if (ascii.length == normalizedQuery.length()) {
+            return selectRows(row -> columns.holderNameMatches(row, ascii, prefix));
+        }
+        return selectRows(row -> {
+            String name = Account.normalizeName(columns.holderName(row));
+            return prefix ? name.startsWith(normalizedQuery) : name.contains(normalizedQuery);
+        });
+    }
+
+    /**
+     * Bounded min-heaps over the balance column; only the winners are materialized.
+     */
+    private List<Account> topRowsByBalance(int n) {
+        int[] rows = scan.topN(columns.size(), n, row -> true, columns::balance);
+        List<Account> top = new ArrayList<>(rows.length);
+        for (int row : rows) top.add(columns.get(row));
+        return top;
+    }
+
+    /**
+     * Full scan of the heap-mode accounts, in insertion order.
+     */
+    private List<Account> selectAccounts(Predicate<Account> filter) {
+        AccountTable table = all();
+        return scan.select(table.size(), row -> {
+            Account a = table.get(row);
+            return a != null && filter.test(a) ? a : null;
+        });
+    }
+
+    /**
+     * @return balance of the account in the row, or {@link Long#MIN_VALUE} for an emptied row
+     */
+    private long balanceAt(int row) {
+        Account a = accounts.get(row);
+        return a == null ? Long.MIN_VALUE : a.getBalance();
     }
 
     private Account requireAccount(String accountNumber) {
-        return getByNumber(accountNumber).orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountNumber));
+        Account acc = lookup(accountNumber);
+        if (acc == null) throw new IllegalArgumentException("Account not found: " + accountNumber);
+        return acc;
     }
 }
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.mybank.manager;
+
+import com.mybank.dto.AccountId;
+import com.mybank.dto.Transfer;
+import com.mybank.util.Money;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Posts batch transaction files against a {@link BankManager}.
+ * <p>
+ * Each line is {@code D,<account>,<amount>}, {@code W,<account>,<amount>} or
+ * {@code T,<from>,<to>,<amount>}, with amounts in currency units; blank lines and lines starting with
+ * {@code #} are ignored. The file is streamed in blocks of at most {@code blockSize} transactions, and the
+ * next block is read while the current one is applied, so memory stays bounded whatever the file size.
+ * <p>
+ * Within a block, transactions are partitioned by the account they debit (the credited account for
+ * deposits) and the partitions run in parallel. Transactions debiting the same account are applied in file
+ * order; credits from other partitions may land in any order relative to them. Every transaction succeeds
+ * or fails on its own, and failures are written to the reject file as {@code <line>,<reason>,<original>}.
+ * Durability is awaited once per block instead of once per transaction.
+ */
+public final class BatchTransactionProcessor {
+    public static final int DEFAULT_BLOCK_SIZE = 65_536;
+
+    /**
+     * Outcome of a batch run.
+     *
+     * @param transactions non-comment lines read
+     * @param applied      transactions that changed balances
+     * @param rejected     transactions written to the reject file
+     */
+    public record Result(long transactions, long applied, long rejected) {
+    }
+
+    private final BankManager manager;
+    private final int partitions;
+    private final int blockSize;
+
+    public BatchTransactionProcessor(BankManager manager) {
+        this(manager, Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param partitions number of parallel partitions, > 0
+     * @param blockSize  transactions held in memory per block, > 0
+     */
+    public BatchTransactionProcessor(BankManager manager, int partitions, int blockSize) {
+        if (partitions <= 0) throw new IllegalArgumentException("Partitions must be > 0");
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be > 0");
+        this.manager = manager;
+        this.partitions = partitions;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Applies every transaction in {@code transactions} and writes failures to {@code rejects}.
+     */
+    public Result process(Path transactions, Path rejects) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(transactions, StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            return process(in, out);
+        }
+    }
+
+    public Result process(BufferedReader in, Writer rejects) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(partitions, r -> {
+            Thread t = new Thread(r, "batch-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            long total = 0;
+            long rejected = 0;
+            Block next = readBlock(in, 0);
+            while (next.size > 0) {
+                Block current = next;
+                List<Future<Long>> running = submit(current, pool);
+                next = readBlock(in, current.lastLine);
+                long lsn = 0;
+                for (Future<Long> f : running) lsn = Math.max(lsn, join(f));
+                manager.awaitDurable(lsn);
+                rejected += current.writeRejects(rejects);
+                total += current.size;
+            }
+            rejects.flush();
+            return new Result(total, total - rejected, rejected);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Future<Long>> submit(Block block, ExecutorService pool) {
+        int[] counts = new int[partitions];
+        for (int i = 0; i < block.size; i++) {
+            if (block.txns[i] != null) counts[block.partition[i]]++;
+        }
+        int[][] members = new int[partitions][];
+        for (int p = 0; p < partitions; p++) members[p] = new int[counts[p]];
+        int[] fill = new int[partitions];
+        for (int i = 0; i < block.size; i++) {
+            if (block.txns[i] != null) members[block.partition[i]][fill[block.partition[i]]++] = i;
+        }
+        List<Future<Long>> running = new ArrayList<>(partitions);
+        for (int[] m : members) {
+            if (m.length > 0) running.add(pool.submit(() -> apply(block, m)));
+        }
+        return running;
+    }
+
+    /**
+     * Applies one partition in file order.
+     *
+     * @return highest journal LSN written
+     */
+    private long apply(Block block, int[] members) {
+        long lsn = 0;
+        for (int i : members) {
+            Txn t = block.txns[i];
+            try {
+                long l = switch (t.type) {
+                    case 'D' -> manager.applyDeposit(t.account, t.amount);
+                    case 'W' -> manager.applyWithdraw(t.account, t.amount);
+                    default -> manager.applyTransfers(List.of(new Transfer(t.account, t.counterparty, t.amount)));
+                };
+                lsn = Math.max(lsn, l);
+            } catch (IllegalArgumentException e) {
+                block.errors[i] = reason(e);
+            }
+        }
+        return lsn;
+    }
+
+    private static String reason(IllegalArgumentException e) {
+        return e.getMessage() != null ? e.getMessage() : "Invalid transaction";
+    }
+
+    private static long join(Future<Long> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while posting batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Block readBlock(BufferedReader in, long lineNo) throws IOException {
+        Block block = new Block(blockSize);
+        String line;
+        while (block.size < blockSize && (line = in.readLine()) != null) {
+            lineNo++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+            int i = block.size++;
+            block.lines[i] = line;
+            block.lineNumbers[i] = lineNo;
+            try {
+                Txn t = parse(trimmed);
+                block.txns[i] = t;
+                block.partition[i] = partitionOf(t.account);
+            } catch (IllegalArgumentException e) {
+                block.errors[i] = reason(e);
+            }
+        }
+        block.lastLine = lineNo;
+        return block;
+    }
+
+    private int partitionOf(String account) {
+        AccountId id = AccountId.parse(account);
+        int h = id == null ? 0 : id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions);
+    }
+
+    static Txn parse(String line) {
+        String[] f = line.split(",", -1);
+        String type = f[0].strip().toUpperCase(Locale.ROOT);
+        switch (type) {
+            case "D", "W" -> {
+                if (f.length != 3) throw new IllegalArgumentException("Expected " + type + ",<account>,<amount>");
+                return new Txn(type.charAt(0), f[1].strip(), null, Money.parse(f[2]));
+            }
+            case "T" -> {
+                if (f.length != 4) throw new IllegalArgumentException("Expected T,<from>,<to>,<amount>");
+                return new Txn('T', f[1].strip(), f[2].strip(), Money.parse(f[3]));
+            }
+            default -> throw new IllegalArgumentException("Unknown transaction type: " + f[0].strip());
+        }
+    }
+
+    record Txn(char type, String account, String counterparty, long amount) {
+    }
+
+    /** A window of the input; arrays are indexed by position within the block. */
+    private static final class Block {
+        final String[] lines;
+        final long[] lineNumbers;
+        final Txn[] txns;
+        final int[] partition;
+        /** Failure reason, written by the owning partition; null on success. */
+        final String[] errors;
+        int size;
+        long lastLine;
+
+        Block(int capacity) {
+            lines = new String[capacity];
+            lineNumbers = new long[capacity];
+            txns = new Txn[capacity];
+            partition = new int[capacity];
+            errors = new String[capacity];
+        }
+
+        int writeRejects(Writer out) {
+            int rejected = 0;
+            try {
+                for (int i = 0; i < size; i++) {
+                    if (errors[i] == null) continue;
+                    rejected++;
+                    out.write(Long.toString(lineNumbers[i]));
+                    out.write(',');
+                    out.write(errors[i].replace(',', ';').replace('\n', ' ').replace('\r', ' '));
+                    out.write(',');
+                    out.write(lines[i]);
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.mybank.manager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Recently seen client transaction IDs, bounded by count and age.
+ * <p>
+ * An ID is claimed atomically with one {@link ConcurrentHashMap#putIfAbsent}, so of several concurrent
+ * submissions with the same ID exactly one wins. The winner's {@link Claim} is settled once its transaction
+ * has been applied or released, and a duplicate can {@link #awaitApplied(String) wait} for that outcome
+ * instead of being acknowledged while the original may still fail. IDs are also queued in claim order;
+ * whichever claimer finds the oldest one over the size or age limit evicts from the head, while the others
+ * skip eviction rather than wait for it. Once evicted, an ID is accepted again.
+ * <p>
+ * Claim times are read from a wall clock in nanoseconds, so IDs restored after a restart keep their
+ * original age. A claim is marked {@linkplain #journaled(String) journaled} once its record is appended,
+ * so a snapshot can persist exactly the IDs whose records it lets the journal discard.
+ */
+final class DedupeWindow {
+    /** Wall-clock time in nanoseconds since the epoch. */
+    static final LongSupplier WALL_CLOCK = () -> {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    };
+
+    /** One claimed ID; settled with true once its transaction is applied, or false once it is released. */
+    static final class Claim {
+        final String id;
+        final long claimedAt;
+        private final CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+        private volatile boolean journaled;
+
+        private Claim(String id, long claimedAt) {
+            this.id = id;
+            this.claimedAt = claimedAt;
+        }
+
+        /**
+         * Marks the claiming transaction as applied, answering every duplicate waiting on it.
+         */
+        void applied() {
+            outcome.complete(true);
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final LongSupplier clock;
+    private final Map<String, Claim> seen = new ConcurrentHashMap<>();
+    private final Queue<Claim> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock evicting = new ReentrantLock();
+
+    /**
+     * @param maxEntries  IDs kept at most, > 0
+     * @param maxAgeNanos how long an ID is kept, > 0
+     * @param clock       time in nanoseconds; {@link #WALL_CLOCK} for ages that carry across restarts
+     */
+    DedupeWindow(int maxEntries, long maxAgeNanos, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAgeNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the caller's new claim if the ID was not in the window, or null for a duplicate
+     */
+    Claim claim(String id) {
+        long now = clock.getAsLong();
+        evict(now);
+        Claim c = new Claim(id, now);
+        if (seen.putIfAbsent(id, c) != null) return null;
+        enqueue(c);
+        return c;
+    }
+
+    /**
+     * Puts back an ID whose transaction was applied at {@code claimedAt}, e.g. when replaying the journal.
+     * Restored IDs must be passed oldest first; one already older than the window is dropped.
+     */
+    void restore(String id, long claimedAt) {
+        Claim c = new Claim(id, claimedAt);
+        c.applied();
+        c.journaled = true;
+        if (seen.putIfAbsent(id, c) == null) enqueue(c);
+        evict(clock.getAsLong());
+    }
+
+    /**
+     * Marks the claim on {@code id} as journaled; called while the transaction still holds its locks, so a
+     * snapshot taken under all locks sees every ID whose record it covers marked.
+     */
+    void journaled(String id) {
+        Claim c = seen.get(id);
+        if (c != null) c.journaled = true;
+    }
+
+    /**
+     * Passes every journaled ID still in the window, with its claim time, oldest claim first.
+     */
+    void forEachJournaled(ObjLongConsumer<String> sink) {
+        for (Claim c : order) {
+            if (c.journaled && seen.get(c.id) == c) sink.accept(c.id, c.claimedAt);
+        }
+    }
+
+    /**
+     * Forgets a claimed ID because its transaction failed and may be retried; waiting duplicates are told
+     * to claim it again.
+     */
+    void release(Claim c) {
+        seen.remove(c.id, c);
+        c.outcome.complete(false);
+    }
+
+    /**
+     * Waits until the transaction holding {@code id} has been applied or released.
+     *
+     * @return true if it was applied, false if the ID is free to claim again
+     * @throws IllegalStateException if interrupted while waiting
+     */
+    boolean awaitApplied(String id) {
+        Claim c = seen.get(id);
+        if (c == null) return false;
+        try {
+            return c.outcome.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for transaction " + id);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return a window with new limits holding the IDs of this one, with their original claims
+     */
+    DedupeWindow resized(int maxEntries, long maxAgeNanos) {
+        DedupeWindow w = new DedupeWindow(maxEntries, maxAgeNanos, clock);
+        for (Claim c : order) {
+            if (seen.get(c.id) == c && w.seen.putIfAbsent(c.id, c) == null) w.enqueue(c);
+        }
+        w.evict(clock.getAsLong());
+        return w;
+    }
+
+    long maxAgeNanos() {
+        return maxAgeNanos;
+    }
+
+    boolean contains(String id) {
+        return seen.containsKey(id);
+    }
+
+    int size() {
+        return seen.size();
+    }
+
+    private void enqueue(Claim c) {
+        order.add(c);
+        queued.incrementAndGet();
+    }
+
+    private void evict(long now) {
+        Claim head = order.peek();
+        if (head == null || (queued.get() <= maxEntries && now - head.claimedAt < maxAgeNanos)) return;
+        if (!evicting.tryLock()) return;
+        try {
+            while ((head = order.peek()) != null && (queued.get() > maxEntries || now - head.claimedAt >= maxAgeNanos)) {
+                order.poll();
+                queued.decrementAndGet();
+                seen.remove(head.id, head); // not a claim made again after a release
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Search index over normalized holder names.
+ * <p>
+ * An inverted trigram index answers "contains" queries of three or more characters by intersecting the
+ * posting sets of the query's trigrams (smallest first) and confirming candidates against the cached
+ * normalized name, and returns matches in the order their accounts were added, like the scan that answers
+ * shorter queries. A sorted map of names answers prefix queries in {@code O(log n + k)}.
+ * Updates are atomic per posting set, so queries may run concurrently with changes.
+ */
+final class NameIndex {
+    private final Map<Long, Set<Account>> postings = new ConcurrentHashMap<>();
+    /** Normalized name + NUL + account number, so equal names stay distinct and sort together. */
+    private final ConcurrentSkipListMap<String, Account> byName = new ConcurrentSkipListMap<>();
+    /** Order in which accounts were added; kept across renames so matches keep their place. */
+    private final Map<Account, Long> sequence = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    void add(Account acc, String normalizedName) {
+        sequence.computeIfAbsent(acc, a -> nextSequence.getAndIncrement());
+        addName(acc, normalizedName);
+    }
+
+    /**
+     * Moves {@code acc} from its old name to its new one without changing its place in match order.
+     */
+    void rename(Account acc, String oldNormalizedName, String newNormalizedName) {
+        removeName(acc, oldNormalizedName);
+        addName(acc, newNormalizedName);
+    }
+
+    void remove(Account acc, String normalizedName) {
+        removeName(acc, normalizedName);
+        sequence.remove(acc);
+    }
+
+    private void addName(Account acc, String normalizedName) {
+        for (long gram : trigrams(normalizedName)) {
+            postings.compute(gram, (k, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(acc);
+                return set;
+            });
+        }
+        byName.put(nameKey(acc, normalizedName), acc);
+    }
+
+    /**
+     * Fills an empty index from persisted index data instead of adding the accounts one by one.
+     *
+     * @param rows      accounts by row, in the order they were added
+     * @param nameOrder rows in name-key order, so the sorted map is appended to in order
+     * @param grams     distinct trigrams, with the rows containing each in {@code postings}
+     */
+    void load(Account[] rows, int[] nameOrder, long[] grams, int[][] postings) {
+        for (Account acc : rows) sequence.put(acc, nextSequence.getAndIncrement());
+        for (int g = 0; g < grams.length; g++) {
+            Set<Account> set = ConcurrentHashMap.newKeySet(postings[g].length);
+            for (int row : postings[g]) set.add(rows[row]);
+            this.postings.put(grams[g], set);
+        }
+        for (int row : nameOrder) {
+            Account acc = rows[row];
+            byName.put(nameKey(acc, acc.getNormalizedHolderName()), acc);
+        }
+    }
+
+    /**
+     * Index data for {@link #load}, computed from rows of normalized names and account numbers.
+     */
+    record Image(int[] nameOrder, long[] grams, int[][] postings) {
+        static Image of(String[] normalizedNames, String[] numbers) {
+            int n = normalizedNames.length;
+            String[] keys = new String[n];
+            for (int i = 0; i < n; i++) keys[i] = normalizedNames[i] + '\0' + numbers[i];
+            int[] nameOrder = RowOrder.sorted(n, (a, b) -> keys[a].compareTo(keys[b]));
+
+            Map<Long, int[]> rows = new HashMap<>(); // trigram -> {count, rows...}
+            for (int i = 0; i < n; i++) {
+                for (long gram : trigrams(normalizedNames[i])) {
+                    int[] list = rows.get(gram);
+                    if (list == null) list = new int[4];
+                    else if (list[0] + 1 == list.length) list = Arrays.copyOf(list, list.length * 2);
+                    list[++list[0]] = i;
+                    rows.put(gram, list);
+                }
+            }
+            long[] grams = new long[rows.size()];
+            int[][] postings = new int[rows.size()][];
+            int g = 0;
+            for (Map.Entry<Long, int[]> e : rows.entrySet()) {
+                grams[g] = e.getKey();
+                postings[g++] = Arrays.copyOfRange(e.getValue(), 1, e.getValue()[0] + 1);
+            }
+            return new Image(nameOrder, grams, postings);
+        }
+    }
+
+    private void removeName(Account acc, String normalizedName) {
+        for (long gram : trigrams(normalizedName)) {
+            postings.computeIfPresent(gram, (k, set) -> {
+                set.remove(acc);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        byName.remove(nameKey(acc, normalizedName), acc);
+    }
+
+    /**
+     * @param query normalized query of at least 3 characters
+     * @return accounts whose normalized name contains {@code query}, in the order they were added
+     */
+    List<Account> contains(String query) {
+        long[] grams = trigrams(query);
+        Set<?>[] sets = new Set<?>[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            Set<Account> set = postings.get(grams[i]);
+            if (set == null) return new ArrayList<>();
+            sets[i] = set;
+        }
+        Arrays.sort(sets, Comparator.comparingInt(Set::size));
+        @SuppressWarnings("unchecked")
+        Set<Account> smallest = (Set<Account>) sets[0];
+        List<Account> result = new ArrayList<>();
+        candidates:
+        for (Account acc : smallest) {
+            for (int i = 1; i < sets.length; i++) {
+                if (!sets[i].contains(acc)) continue candidates;
+            }
+            if (acc.getNormalizedHolderName().contains(query)) result.add(acc);
+        }
+        // posting sets iterate in hash order
+        result.sort(Comparator.comparingLong(acc -> sequence.getOrDefault(acc, Long.MAX_VALUE)));
+        return result;
+    }
+
+    /**
+     * @param prefix normalized prefix
+     * @return accounts whose normalized name starts with {@code prefix}, in name order
+     */
+    List<Account> startsWith(String prefix) {
+        return new ArrayList<>(byName.subMap(prefix, true, prefix + '\uffff', true).values());
+    }
+
+    private static String nameKey(Account acc, String normalizedName) {
+        return normalizedName + '\0' + acc.getAccountNumber();
+    }
+
+    /**
+     * @return distinct trigrams of {@code s}, each packed as three 16-bit chars
+     */
+    static long[] trigrams(String s) {
+        int n = s.length() - 2;
+        if (n <= 0) return new long[0];
+        long[] grams = new long[n];
+        for (int i = 0; i < n; i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
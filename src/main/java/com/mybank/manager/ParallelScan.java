@@ -0,0 +1,198 @@
+package com.mybank.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Runs full scans over rows {@code [0, size)} either sequentially or, for at least {@code threshold} rows,
+ * as fork-join tasks over contiguous chunks of {@value #CHUNK_ROWS} rows on a dedicated pool. Results are
+ * combined in row order, so a parallel scan returns what the sequential one would. The pool is started on
+ * the first parallel scan and shut down on {@link #close()} once the last scan using it has finished.
+ */
+final class ParallelScan implements AutoCloseable {
+    static final int CHUNK_ROWS = 16_384;
+
+    /** Reduces one contiguous range of rows. */
+    @FunctionalInterface
+    interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+
+    private final int parallelism;
+    private final int threshold;
+    private ForkJoinPool pool;
+    /** Parallel scans holding {@link #pool}. */
+    private int running;
+    private boolean closed;
+
+    /**
+     * @param parallelism pool size; 1 or less scans sequentially
+     * @param threshold   smallest row count scanned in parallel
+     */
+    ParallelScan(int parallelism, int threshold) {
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    int parallelism() {
+        return parallelism;
+    }
+
+    int threshold() {
+        return threshold;
+    }
+
+    /**
+     * Applies {@code leaf} to every chunk and combines the results left to right.
+     */
+    <R> R reduce(int rows, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+        ForkJoinPool p = parallelism <= 1 || rows < threshold || rows <= CHUNK_ROWS ? null : acquire();
+        if (p == null) return leaf.apply(0, rows);
+        try {
+            return p.invoke(new Chunk<>(0, rows, leaf, combine));
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @param item maps a row to its result, or to null to leave it out
+     * @return mapped rows in row order
+     */
+    <T> List<T> select(int rows, IntFunction<T> item) {
+        return reduce(rows, (from, to) -> {
+            List<T> found = new ArrayList<>();
+            for (int row = from; row < to; row++) {
+                T t = item.apply(row);
+                if (t != null) found.add(t);
+            }
+            return found;
+        }, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+    }
+
+    LongSummaryStatistics summarize(int rows, IntPredicate present, IntToLongFunction value) {
+        return reduce(rows, (from, to) -> {
+            LongSummaryStatistics s = new LongSummaryStatistics();
+            for (int row = from; row < to; row++) {
+                if (present.test(row)) s.accept(value.applyAsLong(row));
+            }
+            return s;
+        }, (a, b) -> {
+            a.combine(b);
+            return a;
+        });
+    }
+
+    /**
+     * Keeps a bounded min-heap of {@code n} entries per chunk and merges the chunk winners.
+     *
+     * @return up to {@code n} rows with the largest values, largest first
+     */
+    int[] topN(int rows, int n, IntPredicate present, IntToLongFunction value) {
+        long[][] top = reduce(rows, (from, to) -> {
+            PriorityQueue<long[]> heap = new PriorityQueue<>(Math.min(n, 1024) + 1, (x, y) -> Long.compare(x[0], y[0]));
+            for (int row = from; row < to; row++) {
+                if (!present.test(row)) continue;
+                long v = value.applyAsLong(row);
+                if (heap.size() < n) {
+                    heap.add(new long[]{v, row});
+                } else if (v > heap.peek()[0]) {
+                    heap.poll();
+                    heap.add(new long[]{v, row});
+                }
+            }
+            long[][] sorted = new long[heap.size()][];
+            for (int i = sorted.length - 1; i >= 0; i--) sorted[i] = heap.poll();
+            return sorted;
+        }, (a, b) -> merge(a, b, n));
+        int[] result = new int[top.length];
+        for (int i = 0; i < top.length; i++) result[i] = (int) top[i][1];
+        return result;
+    }
+
+    /**
+     * Merges two lists sorted by descending value, keeping the first {@code n}; earlier rows win ties.
+     */
+    private static long[][] merge(long[][] a, long[][] b, int n) {
+        long[][] out = new long[Math.min(n, a.length + b.length)][];
+        int i = 0, j = 0;
+        for (int k = 0; k < out.length; k++) {
+            out[k] = j >= b.length || (i < a.length && a[i][0] >= b[j][0]) ? a[i++] : b[j++];
+        }
+        return out;
+    }
+
+    /**
+     * @return the pool, held until {@link #release()}, or null once closed
+     */
+    private synchronized ForkJoinPool acquire() {
+        if (closed) return null;
+        if (pool == null) pool = new ForkJoinPool(parallelism);
+        running++;
+        return pool;
+    }
+
+    private synchronized void release() {
+        if (--running == 0 && closed) shutdown();
+    }
+
+    /**
+     * Retires the pool, if started: scans already running finish on it, the last of them shuts it down, and
+     * later scans run sequentially.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (running == 0) shutdown();
+    }
+
+    private void shutdown() {
+        if (pool != null) pool.shutdown();
+        pool = null;
+    }
+
+    /**
+     * @return true while the pool is started and not yet shut down
+     */
+    synchronized boolean isPoolRunning() {
+        return pool != null;
+    }
+
+    @SuppressWarnings("serial") // fork-join tasks are never serialized
+    private static final class Chunk<R> extends RecursiveTask<R> {
+        private final int from;
+        private final int to;
+        private final RangeFunction<R> leaf;
+        private final BinaryOperator<R> combine;
+
+        Chunk(int from, int to, RangeFunction<R> leaf, BinaryOperator<R> combine) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= CHUNK_ROWS) return leaf.apply(from, to);
+            // split on a chunk boundary so leaves cover whole chunks
+            int chunks = (to - from + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            int mid = from + chunks / 2 * CHUNK_ROWS;
+            Chunk<R> right = new Chunk<>(mid, to, leaf, combine);
+            right.fork();
+            R left = new Chunk<>(from, mid, leaf, combine).compute();
+            return combine.apply(left, right.join());
+        }
+    }
+}
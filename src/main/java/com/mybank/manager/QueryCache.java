@@ -0,0 +1,145 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of query results, invalidated by version counters.
+ * <p>
+ * Every entry remembers the version of the data it was computed from: name queries depend on
+ * {@link #namesChanged()}, balance queries on {@link #balancesChanged()}. Mutations bump the counter
+ * before they return, so an entry whose version no longer matches is never served, and a result computed
+ * while a mutation was in flight is not stored. Entries are evicted least-recently-used first once either
+ * the entry count or the total number of cached account references exceeds its limit.
+ * <p>
+ * Hits take no lock: entries live in a {@link ConcurrentHashMap} and a hit only stamps its entry with the
+ * current insertion tick, so recency is approximate, ranking entries by the latest insertion they were used
+ * after. Inserting and evicting are serialized; eviction sorts by that stamp and trims the cache somewhat
+ * below its entry limit so a full cache does not sort on every miss.
+ */
+final class QueryCache {
+    enum Kind {
+        NAME(true), NAME_PREFIX(true), BALANCE_RANGE(false), MIN_BALANCE(false), TOP_N(false);
+
+        final boolean byName;
+
+        Kind(boolean byName) {
+            this.byName = byName;
+        }
+    }
+
+    private record Key(Kind kind, String text, long a, long b) {
+    }
+
+    private static final class Entry {
+        final long version;
+        final List<Account> result;
+        /** Insertion tick of the latest use; written racily on hits, as recency is only approximate. */
+        long lastUsed;
+
+        Entry(long version, List<Account> result, long lastUsed) {
+            this.version = version;
+            this.result = result;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxAccounts;
+    /** Name queries also depend on balances when results are detached copies (columnar mode). */
+    private final boolean namesIncludeBalances;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    /** Insertion count; read by hits, advanced only by inserts, so it stays shared rather than contended. */
+    private final AtomicLong tick = new AtomicLong();
+    /** Account references held by all entries; guarded by the monitor. */
+    private long cachedAccounts;
+    private final AtomicLong nameVersion = new AtomicLong();
+    private final AtomicLong balanceVersion = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    QueryCache(int maxEntries, long maxAccounts, boolean namesIncludeBalances) {
+        this.maxEntries = maxEntries;
+        this.maxAccounts = maxAccounts;
+        this.namesIncludeBalances = namesIncludeBalances;
+    }
+
+    void namesChanged() {
+        nameVersion.incrementAndGet();
+    }
+
+    void balancesChanged() {
+        balanceVersion.incrementAndGet();
+    }
+
+    /**
+     * Returns the cached result for the query if still current, otherwise computes and caches it.
+     *
+     * @return an unmodifiable list
+     */
+    List<Account> get(Kind kind, String text, long a, long b, Supplier<List<Account>> query) {
+        Key key = new Key(kind, text, a, b);
+        long version = version(kind);
+        Entry e = entries.get(key);
+        if (e != null && e.version == version) {
+            long now = tick.get();
+            if (e.lastUsed != now) e.lastUsed = now;
+            hits.increment();
+            return e.result;
+        }
+        misses.increment();
+        List<Account> result = Collections.unmodifiableList(query.get());
+        synchronized (this) {
+            if (version(kind) == version) {
+                Entry old = entries.put(key, new Entry(version, result, tick.getAndIncrement()));
+                if (old != null) cachedAccounts -= old.result.size() + 1;
+                cachedAccounts += result.size() + 1;
+                evict();
+            }
+        }
+        return result;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private long version(Kind kind) {
+        if (!kind.byName) return balanceVersion.get();
+        return namesIncludeBalances ? nameVersion.get() + balanceVersion.get() : nameVersion.get();
+    }
+
+    /**
+     * Removes the least recently used entries until both limits hold, trimming to 15/16 of the entry limit.
+     */
+    private void evict() {
+        if (entries.size() <= maxEntries && cachedAccounts <= maxAccounts) return;
+        List<Map.Entry<Key, Entry>> byAge = new ArrayList<>(entries.entrySet());
+        byAge.sort(Comparator.comparingLong(x -> x.getValue().lastUsed));
+        int target = maxEntries - maxEntries / 16;
+        Iterator<Map.Entry<Key, Entry>> it = byAge.iterator();
+        while ((entries.size() > target || cachedAccounts > maxAccounts) && it.hasNext()) {
+            Map.Entry<Key, Entry> oldest = it.next();
+            entries.remove(oldest.getKey());
+            cachedAccounts -= oldest.getValue().result.size() + 1;
+        }
+    }
+}
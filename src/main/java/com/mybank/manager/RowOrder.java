@@ -0,0 +1,41 @@
+package com.mybank.manager;
+
+/**
+ * Sorts row numbers by a comparison of their rows, on plain {@code int} arrays instead of boxed streams.
+ */
+final class RowOrder {
+    /** Compares two rows by number. */
+    @FunctionalInterface
+    interface Comparison {
+        int compare(int a, int b);
+    }
+
+    private RowOrder() {
+    }
+
+    /**
+     * Bottom-up merge sort, so rows that compare equal keep ascending order.
+     *
+     * @return rows {@code 0..n-1} ordered by {@code cmp}
+     */
+    static int[] sorted(int n, Comparison cmp) {
+        int[] rows = new int[n];
+        int[] merged = new int[n];
+        for (int i = 0; i < n; i++) rows[i] = i;
+        for (long width = 1; width < n; width *= 2) {
+            for (long start = 0; start < n; start += 2 * width) {
+                int lo = (int) start;
+                int mid = (int) Math.min(start + width, n);
+                int hi = (int) Math.min(start + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) merged[k++] = cmp.compare(rows[j], rows[i]) < 0 ? rows[j++] : rows[i++];
+                while (i < mid) merged[k++] = rows[i++];
+                while (j < hi) merged[k++] = rows[j++];
+            }
+            int[] t = rows;
+            rows = merged;
+            merged = t;
+        }
+        return rows;
+    }
+}
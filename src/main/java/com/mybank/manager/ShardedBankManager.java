@@ -0,0 +1,292 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+import com.mybank.dto.AccountId;
+import com.mybank.dto.AccountState;
+import com.mybank.persistence.CsvAccountLoader;
+import com.mybank.persistence.CsvAccountWriter;
+import com.mybank.persistence.CsvLoadReport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Partitions accounts by a case-insensitive hash of the account number across independent
+ * {@link BankManager} shards, so writers on different shards share no locks, indexes or counters.
+ * <p>
+ * Each shard is owned by a single thread: creates, deposits, withdrawals and transfers are queued to the
+ * owning shard's thread and the caller waits for the result. Lookups by number read the owning shard
+ * directly. Cross-shard queries are scattered to every shard's thread, run in parallel, and merged; each
+ * shard scans its own accounts sequentially, so the shard threads are the only scan workers.
+ * <p>
+ * A transfer within one shard is atomic. A transfer between shards withdraws on the source shard, then
+ * deposits on the target shard, and deposits back if the second step fails; while it is in flight the
+ * amount is in neither account. Shards are held in memory only; {@link #saveToCsv(Path)} persists them.
+ */
+public final class ShardedBankManager implements AutoCloseable {
+    private final BankManager[] shards;
+    private final ExecutorService[] owners;
+    private CsvLoadReport loadReport = CsvLoadReport.EMPTY;
+
+    /**
+     * Starts empty with one shard per available processor.
+     */
+    public ShardedBankManager() {
+        this(null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads accounts from CSV if the file exists, routing each row to its shard; otherwise starts empty.
+     *
+     * @param csvPath    CSV file (accountNumber,holderName,balance); may be null
+     * @param shardCount number of shards, > 0
+     */
+    public ShardedBankManager(Path csvPath, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be > 0");
+        }
+        shards = new BankManager[shardCount];
+        owners = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new BankManager((Path) null);
+            shards[i].setParallelQueries(1, BankManager.DEFAULT_PARALLEL_THRESHOLD);
+            String name = "bank-shard-" + i;
+            owners[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        if (csvPath != null && Files.exists(csvPath)) load(csvPath);
+    }
+
+    private void load(Path csvPath) {
+        CsvAccountLoader.Result rows;
+        try {
+            rows = CsvAccountLoader.load(csvPath);
+        } catch (IOException e) {
+            System.err.println("[WARN] Failed to read CSV: " + e.getMessage());
+            return;
+        }
+        List<List<Account>> routed = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) routed.add(new ArrayList<>());
+        for (Account a : rows.accounts()) routed.get(shardOf(a.getAccountNumber())).add(a);
+        List<CompletableFuture<Long>> loading = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            List<Account> mine = routed.get(i);
+            loading.add(submit(i, m -> {
+                long skipped = 0;
+                for (Account a : mine) {
+                    try {
+                        m.createAccount(a.getAccountNumber(), a.getHolderName(), a.getBalance());
+                    } catch (IllegalArgumentException e) {
+                        skipped++;
+                    }
+                }
+                return skipped;
+            }));
+        }
+        long skipped = 0;
+        for (CompletableFuture<Long> f : loading) skipped += join(f);
+        loadReport = new CsvLoadReport(rows.accounts().size() - skipped, skipped, rows.malformed());
+    }
+
+    /**
+     * @return row counts from the CSV load performed by the constructor
+     */
+    public CsvLoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return shard owning the account number; case-insensitive, like account number equality
+     */
+    int shardOf(String accountNumber) {
+        AccountId id = AccountId.parse(accountNumber);
+        if (id == null) return 0; // rejected by the shard
+        int h = id.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * @see BankManager#createAccount(String, String, long)
+     */
+    public Account createAccount(String accountNumber, String holderName, long initialBalance) {
+        return call(shardOf(accountNumber), m -> m.createAccount(accountNumber, holderName, initialBalance));
+    }
+
+    public void deposit(String accountNumber, long amount) {
+        call(shardOf(accountNumber), m -> {
+            m.deposit(accountNumber, amount);
+            return null;
+        });
+    }
+
+    public void withdraw(String accountNumber, long amount) {
+        call(shardOf(accountNumber), m -> {
+            m.withdraw(accountNumber, amount);
+            return null;
+        });
+    }
+
+    /**
+     * Moves {@code amount} between two accounts; atomic only when both live on the same shard.
+     *
+     * @throws IllegalArgumentException if either account is missing, the accounts are the same,
+     *                                  the amount is not positive or the source has insufficient balance
+     */
+    public void transfer(String fromAccount, String toAccount, long amount) {
+        int source = shardOf(fromAccount);
+        int target = shardOf(toAccount);
+        if (source == target) {
+            call(source, m -> {
+                m.transfer(fromAccount, toAccount, amount);
+                return null;
+            });
+            return;
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be > 0");
+        }
+        if (shards[target].getByNumber(toAccount).isEmpty()) {
+            throw new IllegalArgumentException("Account not found: " + toAccount);
+        }
+        withdraw(fromAccount, amount);
+        try {
+            deposit(toAccount, amount);
+        } catch (RuntimeException e) {
+            deposit(fromAccount, amount);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets an account by number from its shard, without queueing.
+     */
+    public Optional<Account> getByNumber(String accountNumber) {
+        return shards[shardOf(accountNumber)].getByNumber(accountNumber);
+    }
+
+    /**
+     * @return accounts whose holder name contains the query (case-insensitive), grouped by shard
+     */
+    public List<Account> findByName(String query) {
+        List<Account> result = new ArrayList<>();
+        for (List<Account> part : scatter(m -> m.findByName(query))) result.addAll(part);
+        return result;
+    }
+
+    /**
+     * Merges the top {@code n} of every shard.
+     */
+    public List<Account> topNByBalance(int n) {
+        if (n <= 0) return List.of();
+        List<Account> candidates = new ArrayList<>();
+        for (List<Account> part : scatter(m -> m.topNByBalance(n))) candidates.addAll(part);
+        candidates.sort(Comparator.comparingLong(Account::getBalance).reversed());
+        return List.copyOf(candidates.subList(0, Math.min(n, candidates.size())));
+    }
+
+    public long totalBalance() {
+        long total = 0;
+        for (long t : scatter(BankManager::totalBalance)) total += t;
+        return total;
+    }
+
+    public long accountCount() {
+        long count = 0;
+        for (long c : scatter(m -> m.balanceStats().count())) count += c;
+        return count;
+    }
+
+    /**
+     * Writes every shard to one CSV file, replacing it atomically. Each shard is written as of a
+     * {@link BankManager#snapshot()}; shards are snapshotted one after another, so a cross-shard transfer
+     * in flight may be missing from both accounts.
+     */
+    public void saveToCsv(Path csvPath) {
+        Path target = csvPath.toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<AccountSnapshot> snapshots = scatter(BankManager::snapshot);
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                CsvAccountWriter writer = new CsvAccountWriter(ch);
+                writer.writeHeader(0);
+                for (AccountSnapshot s : snapshots) {
+                    for (AccountState a : s) writer.write(a.accountNumber(), a.holderName(), a.balance());
+                }
+                writer.flush();
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save CSV: " + e.getMessage(), e);
+        } finally {
+            snapshots.forEach(AccountSnapshot::close);
+        }
+    }
+
+    /**
+     * Lets queued operations finish, then stops the shard threads and closes the shards.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService owner : owners) owner.close();
+        for (BankManager shard : shards) shard.close();
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Function<BankManager, T> op) {
+        BankManager m = shards[shard];
+        return CompletableFuture.supplyAsync(() -> op.apply(m), owners[shard]);
+    }
+
+    private <T> T call(int shard, Function<BankManager, T> op) {
+        return join(submit(shard, op));
+    }
+
+    /**
+     * Runs {@code op} on every shard's thread in parallel.
+     *
+     * @return results in shard order
+     */
+    private <T> List<T> scatter(Function<BankManager, T> op) {
+        List<CompletableFuture<T>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) parts.add(submit(i, op));
+        List<T> results = new ArrayList<>(shards.length);
+        for (CompletableFuture<T> f : parts) results.add(join(f));
+        return results;
+    }
+
+    private static <T> T join(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
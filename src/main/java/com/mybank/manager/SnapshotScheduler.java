@@ -0,0 +1,74 @@
+package com.mybank.manager;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a snapshot on a background thread once enough changes have accumulated or enough time has passed
+ * since the previous one. Snapshots are skipped while nothing has changed.
+ */
+final class SnapshotScheduler implements AutoCloseable {
+    private static final long MAX_TICK_MILLIS = 100;
+
+    private final ScheduledExecutorService executor;
+    private final Runnable snapshot;
+    private final LongSupplier changeCount;
+    private final long intervalNanos;
+    private final long changeThreshold;
+    private long changesAtLast;
+    private long lastNanos = System.nanoTime();
+
+    /**
+     * @param snapshot        writes one snapshot; exceptions are logged and retried on a later tick
+     * @param changeCount     monotonically increasing count of mutations
+     * @param interval        maximum age of a snapshot while changes are pending; zero disables
+     * @param changeThreshold number of changes that triggers a snapshot; {@code <= 0} disables
+     */
+    SnapshotScheduler(Runnable snapshot, LongSupplier changeCount, Duration interval, long changeThreshold) {
+        this.snapshot = snapshot;
+        this.changeCount = changeCount;
+        this.intervalNanos = Math.max(0, interval.toNanos());
+        this.changeThreshold = changeThreshold;
+        this.changesAtLast = changeCount.getAsLong();
+        long tick = intervalNanos == 0 ? MAX_TICK_MILLIS : Math.max(1, Math.min(MAX_TICK_MILLIS, interval.toMillis()));
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "snapshot-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        long changes = changeCount.getAsLong();
+        long pending = changes - changesAtLast;
+        if (pending == 0) return;
+        long now = System.nanoTime();
+        boolean due = (changeThreshold > 0 && pending >= changeThreshold)
+                || (intervalNanos > 0 && now - lastNanos >= intervalNanos);
+        if (!due) return;
+        try {
+            snapshot.run();
+            changesAtLast = changes;
+            lastNanos = now;
+        } catch (RuntimeException e) {
+            System.err.println("[WARN] Background snapshot failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops scheduling and waits for a running snapshot to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.mybank.manager;
+
+import java.lang.ref.Cleaner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commit clock and version chains behind {@link AccountSnapshot}.
+ * <p>
+ * Every balance or name change appends an immutable {@link Version} to its account's chain. Versions
+ * written by one transaction share a {@link Commit} that is stamped with an epoch when the transaction
+ * completes, while its locks are still held, so the versions of a transfer become visible together. A
+ * snapshot reads the clock once and then sees, for every account, the newest version whose commit epoch
+ * is not later than its own; it never takes an account lock.
+ * <p>
+ * Stamping takes no lock: a writer marks its commit as stamping, draws the next epoch from an atomic
+ * counter and publishes it. A snapshot opened at epoch {@code E} treats a commit still pending as later
+ * than itself, since its epoch will be drawn after {@code E} was read, and waits out the few instructions
+ * between a draw and its publication when it meets a commit being stamped. That makes every commit either
+ * entirely before or entirely after every snapshot without writers ever waiting for each other or for
+ * readers. Versions that no open snapshot can see any more are unlinked by the writer that appends the
+ * next version of the same account.
+ */
+final class VersionClock {
+    static final long PENDING = Long.MAX_VALUE;
+    /** Epoch of a commit whose number has been, or is being, drawn but not yet published. */
+    static final long STAMPING = Long.MAX_VALUE - 1;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /** One transaction; its versions are invisible until {@link #epoch} is stamped. */
+    static final class Commit {
+        volatile long epoch = PENDING;
+    }
+
+    /** Account state as of a commit; {@link #prev} is the state before it, or null once pruned. */
+    static final class Version {
+        final Commit commit;
+        final String holderName;
+        final long balance;
+        volatile Version prev;
+
+        Version(Commit commit, String holderName, long balance, Version prev) {
+            this.commit = commit;
+            this.holderName = holderName;
+            this.balance = balance;
+            this.prev = prev;
+        }
+    }
+
+    /** Last epoch drawn. */
+    private final AtomicLong epoch = new AtomicLong();
+    /** Epochs of open snapshots, with the number of snapshots open at each. */
+    private final ConcurrentSkipListMap<Long, Integer> open = new ConcurrentSkipListMap<>();
+    private final ThreadLocal<Commit> current = new ThreadLocal<>();
+
+    /**
+     * Starts a transaction on this thread; versions appended until {@link #end(Commit)} share its commit.
+     *
+     * @return the commit to end, or null if a transaction is already open on this thread
+     */
+    Commit begin() {
+        if (current.get() != null) return null;
+        Commit c = new Commit();
+        current.set(c);
+        return c;
+    }
+
+    /**
+     * Stamps and closes a transaction returned by {@link #begin()}; does nothing for null.
+     */
+    void end(Commit c) {
+        if (c == null) return;
+        current.remove();
+        stamp(c);
+    }
+
+    /**
+     * @return the open transaction of this thread, or a commit already stamped for a change made outside one
+     */
+    Commit commitForChange() {
+        Commit c = current.get();
+        if (c != null) return c;
+        c = new Commit();
+        stamp(c);
+        return c;
+    }
+
+    private void stamp(Commit c) {
+        c.epoch = STAMPING;
+        c.epoch = epoch.incrementAndGet();
+    }
+
+    /**
+     * Registers a snapshot at the current epoch. Versions it can see are kept until the returned handle
+     * is released.
+     */
+    Registration open() {
+        long pinned = epoch.get();
+        open.merge(pinned, 1, Integer::sum);
+        // read after registering: a concurrent prune either sees the pin or ran at an epoch no later than this
+        return new Registration(this, pinned, epoch.get());
+    }
+
+    /**
+     * @return an epoch no later than that of any open or opening snapshot; versions older than the newest one
+     * visible at this epoch can be discarded
+     */
+    long oldestReadable() {
+        long now = epoch.get(); // read first: a snapshot not yet in the map opens at this epoch or later
+        Map.Entry<Long, Integer> oldest = open.firstEntry();
+        return oldest == null ? now : Math.min(oldest.getKey(), now);
+    }
+
+    private void release(long e) {
+        open.computeIfPresent(e, (k, n) -> n == 1 ? null : n - 1);
+    }
+
+    /**
+     * @return the newest version in the chain visible at {@code epoch}, or null if the account did not exist yet
+     */
+    static Version visible(Version head, long epoch) {
+        for (Version v = head; v != null; v = v.prev) {
+            if (epochOf(v.commit) <= epoch) return v;
+        }
+        return null;
+    }
+
+    private static long epochOf(Commit c) {
+        long e;
+        while ((e = c.epoch) == STAMPING) Thread.onSpinWait();
+        return e;
+    }
+
+    /**
+     * Unlinks versions behind the newest one visible at {@code oldestReadable}.
+     */
+    static void prune(Version head, long oldestReadable) {
+        Version keep = visible(head, oldestReadable);
+        if (keep != null && keep.prev != null) keep.prev = null;
+    }
+
+    /** Open-snapshot handle; releasing is idempotent. */
+    static final class Registration implements Runnable {
+        private final VersionClock clock;
+        private final long pinned;
+        final long epoch;
+        private Cleaner.Cleanable cleanable;
+
+        private Registration(VersionClock clock, long pinned, long epoch) {
+            this.clock = clock;
+            this.pinned = pinned;
+            this.epoch = epoch;
+        }
+
+        /** Cleaning action; the cleaner runs it at most once, from {@link #release()} or after the owner is collected. */
+        @Override
+        public void run() {
+            clock.release(pinned);
+        }
+
+        /**
+         * Also releases the snapshot once {@code owner} becomes unreachable.
+         */
+        void watch(Object owner) {
+            cleanable = CLEANER.register(owner, this);
+        }
+
+        void release() {
+            cleanable.clean();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.mybank.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-operation call counts, failure counts by cause and latency histograms.
+ * <p>
+ * Callers bracket an operation with {@link #start()} and {@link #success} or {@link #failure}; recording
+ * allocates nothing. When disabled, {@link #start()} returns 0 and the completion calls return after a
+ * single branch, so the instrumentation costs one volatile read per operation.
+ */
+public final class BankMetrics implements BankMetricsMXBean {
+
+    /** Why an operation failed, derived from the exception message. */
+    public enum Failure {
+        ACCOUNT_NOT_FOUND,
+        INSUFFICIENT_BALANCE,
+        INVALID_REQUEST,
+        ERROR
+    }
+
+    /**
+     * Counters of one operation.
+     *
+     * @param calls    successful and failed calls
+     * @param failures failed calls by cause
+     * @param latency  latency of all calls, successful or not
+     */
+    public record OperationStats(long calls, Map<Failure, Long> failures, LatencyHistogram.Snapshot latency) {
+        public long failureCount() {
+            return failures.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Failure[] FAILURES = Failure.values();
+
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LongAdder[][] failures = new LongAdder[OPERATIONS.length][FAILURES.length];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private volatile boolean enabled = true;
+
+    public BankMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i] = new LongAdder();
+            latencies[i] = new LatencyHistogram();
+            for (int f = 0; f < FAILURES.length; f++) failures[i][f] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return start timestamp to pass to {@link #success} or {@link #failure}; 0 while disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void success(Operation op, long start) {
+        if (start == 0) return;
+        long elapsed = System.nanoTime() - start;
+        calls[op.ordinal()].increment();
+        latencies[op.ordinal()].record(elapsed);
+    }
+
+    /**
+     * Records {@code value} as a success and returns it, so a {@code return} can be instrumented inline.
+     */
+    public <T> T success(Operation op, long start, T value) {
+        success(op, start);
+        return value;
+    }
+
+    public void failure(Operation op, long start, RuntimeException cause) {
+        if (start == 0) return;
+        success(op, start);
+        failures[op.ordinal()][classify(cause).ordinal()].increment();
+    }
+
+    static Failure classify(RuntimeException e) {
+        if (!(e instanceof IllegalArgumentException)) return Failure.ERROR;
+        String message = e.getMessage();
+        if (message == null) return Failure.INVALID_REQUEST;
+        if (message.startsWith("Account not found")) return Failure.ACCOUNT_NOT_FOUND;
+        if (message.endsWith("Insufficient balance")) return Failure.INSUFFICIENT_BALANCE;
+        return Failure.INVALID_REQUEST;
+    }
+
+    public OperationStats stats(Operation op) {
+        Map<Failure, Long> byCause = new EnumMap<>(Failure.class);
+        for (Failure f : FAILURES) byCause.put(f, failures[op.ordinal()][f.ordinal()].sum());
+        return new OperationStats(calls[op.ordinal()].sum(), Collections.unmodifiableMap(byCause),
+                latencies[op.ordinal()].snapshot());
+    }
+
+    /**
+     * @return stats of every operation that has been called at least once
+     */
+    public Map<Operation, OperationStats> snapshot() {
+        Map<Operation, OperationStats> all = new EnumMap<>(Operation.class);
+        for (Operation op : OPERATIONS) {
+            if (calls[op.ordinal()].sum() > 0) all.put(op, stats(op));
+        }
+        return Collections.unmodifiableMap(all);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off; counters keep their values while off.
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            calls[i].reset();
+            latencies[i].reset();
+            for (LongAdder f : failures[i]) f.reset();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCalls() {
+        return perOperation(OperationStats::calls);
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        return perOperation(OperationStats::failureCount);
+    }
+
+    @Override
+    public Map<String, Long> getAccountNotFound() {
+        return perOperation(s -> s.failures().get(Failure.ACCOUNT_NOT_FOUND));
+    }
+
+    @Override
+    public Map<String, Long> getInsufficientBalance() {
+        return perOperation(s -> s.failures().get(Failure.INSUFFICIENT_BALANCE));
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        return perOperationMicros(s -> s.latency().mean());
+    }
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return perOperationMicros(s -> s.latency().p50());
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return perOperationMicros(s -> s.latency().p99());
+    }
+
+    @Override
+    public Map<String, Double> getP999Micros() {
+        return perOperationMicros(s -> s.latency().p999());
+    }
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        return perOperationMicros(s -> s.latency().max());
+    }
+
+    private Map<String, Long> perOperation(ToLongFunction<OperationStats> value) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        snapshot().forEach((op, s) -> out.put(op.name(), value.applyAsLong(s)));
+        return out;
+    }
+
+    private Map<String, Double> perOperationMicros(ToDoubleFunction<OperationStats> nanos) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        snapshot().forEach((op, s) -> out.put(op.name(), nanos.applyAsDouble(s) / 1_000));
+        return out;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as {@code com.mybank:type=BankMetrics,name=<name>},
+     * replacing any previous registration under that name.
+     *
+     * @return the object name, for unregistering
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = ObjectName.getInstance("com.mybank:type=BankMetrics,name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                server.registerMBean(this, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBean: " + e.getMessage(), e);
+        }
+    }
+}
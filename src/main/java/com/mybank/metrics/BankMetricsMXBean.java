@@ -0,0 +1,33 @@
+package com.mybank.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link BankMetrics}. Map attributes are keyed by {@link Operation} name and list only
+ * operations called at least once; latencies are in microseconds.
+ */
+public interface BankMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+
+    Map<String, Long> getCalls();
+
+    Map<String, Long> getFailures();
+
+    Map<String, Long> getAccountNotFound();
+
+    Map<String, Long> getInsufficientBalance();
+
+    Map<String, Double> getMeanMicros();
+
+    Map<String, Double> getP50Micros();
+
+    Map<String, Double> getP99Micros();
+
+    Map<String, Double> getP999Micros();
+
+    Map<String, Double> getMaxMicros();
+}
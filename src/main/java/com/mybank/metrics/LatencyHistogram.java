@@ -0,0 +1,94 @@
+package com.mybank.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear latency histogram in the style of HdrHistogram.
+ * <p>
+ * Values below 64 ns get a bucket each; above that every power of two is split into 32 linear
+ * sub-buckets, so any recorded value is reported within about 3% across the whole {@code long} range
+ * with a fixed 1,888 counters. {@link #record(long)} is lock-free and, once warmed up, allocation-free.
+ * Each counter is a {@link LongAdder}, which spreads increments from contending threads over padded cells, so
+ * threads recording into the same bucket on many cores do not serialize on one cache line; reads sum the cells.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) counts[i] = new LongAdder();
+    }
+
+    /**
+     * Records one value in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts[bucketOf(v)].increment();
+        total.add(v);
+        if (v > max.get()) max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Clears all recorded values. Values recorded concurrently may be partly kept.
+     */
+    public void reset() {
+        for (LongAdder c : counts) c.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Copies the counters and derives summary statistics. Concurrent recording may make the copy
+     * slightly inconsistent, never wrong by more than the values in flight.
+     */
+    public Snapshot snapshot() {
+        long[] c = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            c[i] = counts[i].sum();
+            n += c[i];
+        }
+        long maxValue = max.get();
+        if (n == 0) return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        return new Snapshot(n, (double) total.sum() / n,
+                percentile(c, n, 50, maxValue), percentile(c, n, 90, maxValue),
+                percentile(c, n, 99, maxValue), percentile(c, n, 99.9, maxValue), maxValue);
+    }
+
+    /**
+     * Summary of a histogram; latencies are in nanoseconds and percentiles are upper bucket bounds.
+     */
+    public record Snapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+    }
+
+    static int bucketOf(long v) {
+        if (v < 2 * SUB_BUCKETS) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (v >>> shift) - SUB_BUCKETS;
+    }
+
+    /** Largest value that falls into the bucket. */
+    static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    private static long percentile(long[] c, long n, double p, long maxValue) {
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < c.length; i++) {
+            seen += c[i];
+            if (seen >= rank) return Math.min(upperBound(i), maxValue);
+        }
+        return maxValue;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mybank.metrics;
+
+/**
+ * Operations instrumented by {@link BankMetrics}.
+ */
+public enum Operation {
+    CREATE_ACCOUNT,
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    GET_BY_NUMBER,
+    GET_ALL_ACCOUNTS,
+    FIND_BY_NAME,
+    FIND_BY_NAME_PREFIX,
+    FIND_BY_BALANCE_RANGE,
+    FILTER_BY_MIN_BALANCE,
+    TOP_N_BY_BALANCE,
+    TOTAL_BALANCE,
+    AVERAGE_BALANCE,
+    BALANCE_STATS,
+    LOAD_CSV,
+    SAVE_CSV,
+    EXPORT_CSV
+}
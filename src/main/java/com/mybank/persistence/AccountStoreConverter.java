@@ -0,0 +1,68 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import com.mybank.dto.AccountId;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts between the CSV and {@link BinaryAccountStore} formats.
+ * <p>
+ * Usage: {@code AccountStoreConverter csv2bin <in.csv> <out.bin>} or {@code bin2csv <in.bin> <out.csv>}.
+ */
+public final class AccountStoreConverter {
+    private AccountStoreConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("csv2bin") || args[0].equals("bin2csv"))) {
+            System.err.println("Usage: AccountStoreConverter csv2bin|bin2csv <input> <output>");
+            System.exit(2);
+            return;
+        }
+        long n = args[0].equals("csv2bin")
+                ? csvToBinary(Path.of(args[1]), Path.of(args[2]))
+                : binaryToCsv(Path.of(args[1]), Path.of(args[2]));
+        System.out.println("Converted " + n + " accounts");
+    }
+
+    /**
+     * Loads a CSV (first occurrence of a number wins) and writes it as a binary store.
+     *
+     * @return number of accounts written
+     */
+    public static long csvToBinary(Path csv, Path store) throws IOException {
+        List<Account> rows = CsvAccountLoader.load(csv).accounts();
+        Set<AccountId> seen = new HashSet<>(rows.size() * 2);
+        List<Account> unique = new ArrayList<>(rows.size());
+        for (Account a : rows) {
+            if (seen.add(a.getId())) unique.add(a);
+        }
+        BinaryAccountStore.write(store, unique);
+        return unique.size();
+    }
+
+    /**
+     * Writes every record of a binary store as CSV.
+     *
+     * @return number of accounts written
+     */
+    public static long binaryToCsv(Path store, Path csv) throws IOException {
+        try (BinaryAccountStore in = BinaryAccountStore.open(store);
+             CsvAccountWriter out = new CsvAccountWriter(FileChannel.open(csv,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            out.writeHeader(0);
+            for (int i = 0; i < in.size(); i++) {
+                out.write(in.accountNumber(i), in.holderName(i), in.balance(i));
+            }
+            return in.size();
+        }
+    }
+}
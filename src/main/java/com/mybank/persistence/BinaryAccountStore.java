@@ -0,0 +1,341 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-record binary account file, memory-mapped for random access.
+ * <p>
+ * The file is a 128-byte header ({@code int magic, int version, int recordSize, int flags, long count,
+ * long crc32}) followed by 128-byte records sorted by case-insensitive account number:
+ * <pre>
+ *   byte  numberLength, byte[12] number (ASCII)
+ *   short nameLength,   byte[105] name (UTF-8)
+ *   long  balance (cents)
+ * </pre>
+ * Opening only maps the file; records are decoded on access and looked up by binary search. Balances are
+ * updated in place; the checksum is recomputed by {@link #sync()}, and until then the header carries a
+ * dirty flag so a crash is detectable.
+ * <p>
+ * Balance slots are 8-byte aligned and written with single opaque stores, so updates to different records
+ * need no common lock: callers serialize writes to the same record, and only the first write after a sync
+ * takes the store's monitor, to set the dirty flag.
+ */
+public final class BinaryAccountStore implements Closeable {
+    public static final int RECORD_SIZE = 128;
+    /** Longest holder name, in UTF-8 bytes, that fits a record. */
+    public static final int MAX_NAME_BYTES = 105;
+
+    private static final int MAGIC = 0x424B5331; // "BKS1"
+    private static final int VERSION = 1;
+    private static final int FLAG_DIRTY = 1;
+    private static final int OFF_FLAGS = 12, OFF_COUNT = 16, OFF_CRC = 24;
+    private static final int NUMBER_OFFSET = 1, NAME_LENGTH_OFFSET = 13, NAME_OFFSET = 15, BALANCE_OFFSET = 120;
+    /** Mapping granularity; a multiple of the record size so no record straddles two mappings. */
+    private static final long SEGMENT_BYTES = 1L << 30;
+    private static final int RECORDS_PER_SEGMENT = (int) (SEGMENT_BYTES / RECORD_SIZE);
+    private static final VarHandle BALANCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final int count;
+    private final Path path;
+    private volatile boolean dirty;
+
+    private BinaryAccountStore(Path path, FileChannel channel, MappedByteBuffer header, MappedByteBuffer[] segments, int count) {
+        this.path = path;
+        this.channel = channel;
+        this.header = header;
+        this.segments = segments;
+        this.count = count;
+        this.dirty = (header.getInt(OFF_FLAGS) & FLAG_DIRTY) != 0;
+    }
+
+    /**
+     * Maps an existing store for reading and in-place balance updates. Only the header is validated;
+     * use {@link #verify()} to check the records against the checksum.
+     *
+     * @throws IOException if the file is missing or not a store
+     */
+    public static BinaryAccountStore open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = ch.size();
+            if (size < RECORD_SIZE) throw new IOException("Not an account store: " + path);
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, RECORD_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+                throw new IOException("Not an account store: " + path);
+            }
+            long count = header.getLong(OFF_COUNT);
+            if (count < 0 || count > Integer.MAX_VALUE || size < RECORD_SIZE * (count + 1)) {
+                throw new IOException("Truncated account store: " + path);
+            }
+            int n = (int) count;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(n + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT];
+            for (int s = 0; s < segments.length; s++) {
+                long records = Math.min(RECORDS_PER_SEGMENT, n - (long) s * RECORDS_PER_SEGMENT);
+                segments[s] = ch.map(FileChannel.MapMode.READ_WRITE, RECORD_SIZE + s * SEGMENT_BYTES, records * RECORD_SIZE);
+            }
+            return new BinaryAccountStore(path, ch, header, segments, n);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes accounts to a new store (sorted by account number), replacing {@code path} atomically.
+     *
+     * @throws IllegalArgumentException if a holder name exceeds {@link #MAX_NAME_BYTES} bytes
+     */
+    public static void write(Path path, List<Account> accounts) throws IOException {
+        int n = accounts.size();
+        String[] numbers = new String[n];
+        String[] names = new String[n];
+        long[] balances = new long[n];
+        for (int i = 0; i < n; i++) {
+            Account a = accounts.get(i);
+            numbers[i] = a.getAccountNumber();
+            names[i] = a.getHolderName();
+            balances[i] = a.getBalance();
+        }
+        write(path, numbers, names, balances, n);
+    }
+
+    /**
+     * Writes the first {@code n} entries of parallel arrays; see {@link #write(Path, List)}.
+     */
+    public static void write(Path path, String[] numbers, String[] names, long[] balances, int n) throws IOException {
+        String[] keys = new String[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = numbers[i].toLowerCase(Locale.ROOT);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeRecords(ch, numbers, names, balances, order);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeRecords(FileChannel ch, String[] numbers, String[] names, long[] balances,
+                                     Integer[] order) throws IOException {
+        int n = order.length;
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 512);
+        CRC32 crc = new CRC32();
+        ch.position(RECORD_SIZE);
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            int start = buf.position();
+            putRecord(buf, numbers[i], names[i], balances[i]);
+            crc.update(buf.array(), start, RECORD_SIZE);
+            if (!buf.hasRemaining()) drain(ch, buf);
+        }
+        drain(ch, buf);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0)
+                .putLong(n).putLong(crc.getValue());
+        header.clear();
+        ch.write(header, 0);
+        ch.force(true);
+    }
+
+    /**
+     * @return the file the store was opened from
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return number of records
+     */
+    public int size() {
+        return count;
+    }
+
+    public String accountNumber(int i) {
+        ByteBuffer seg = segment(i);
+        int base = offset(i);
+        int len = seg.get(base);
+        byte[] b = new byte[len];
+        seg.get(base + NUMBER_OFFSET, b);
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+
+    public String holderName(int i) {
+        ByteBuffer seg = segment(i);
+        int base = offset(i);
+        byte[] b = new byte[seg.getShort(base + NAME_LENGTH_OFFSET)];
+        seg.get(base + NAME_OFFSET, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    public long balance(int i) {
+        return (long) BALANCE.getOpaque(segment(i), offset(i) + BALANCE_OFFSET);
+    }
+
+    /**
+     * Decodes record {@code i} into a new, detached {@link Account}.
+     */
+    public Account get(int i) {
+        return new Account(accountNumber(i), holderName(i), balance(i));
+    }
+
+    /**
+     * Finds a record by account number, ignoring case.
+     *
+     * @return record index, or -1 if absent
+     */
+    public int indexOf(String accountNumber) {
+        if (!Account.isValidAccountNumber(accountNumber)) return -1;
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareNumber(mid, accountNumber);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Overwrites the balance of record {@code i} in the mapped file. Concurrent calls for the same record
+     * must be serialized by the caller; calls for different records need not be.
+     */
+    public void setBalance(int i, long balance) {
+        ByteBuffer seg = segment(i);
+        if (!dirty) markDirty();
+        BALANCE.setOpaque(seg, offset(i) + BALANCE_OFFSET, balance);
+    }
+
+    /**
+     * Flags the header before the first in-place update, so a crash before {@link #sync()} is detectable.
+     */
+    private synchronized void markDirty() {
+        if (dirty) return;
+        header.putInt(OFF_FLAGS, header.getInt(OFF_FLAGS) | FLAG_DIRTY);
+        header.force();
+        dirty = true;
+    }
+
+    /**
+     * @return true if balances changed since the checksum was last written
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return true if the records match the header checksum
+     */
+    public synchronized boolean verify() {
+        return checksum() == header.getLong(OFF_CRC);
+    }
+
+    /**
+     * Flushes in-place updates to disk, then records the new checksum and clears the dirty flag. Updates
+     * made while it runs may be missed by the checksum, so call it once writers have stopped.
+     */
+    public synchronized void sync() {
+        if (!dirty) return;
+        for (MappedByteBuffer seg : segments) seg.force();
+        header.putLong(OFF_CRC, checksum());
+        header.putInt(OFF_FLAGS, header.getInt(OFF_FLAGS) & ~FLAG_DIRTY);
+        header.force();
+        dirty = false;
+    }
+
+    /**
+     * Syncs and releases the file.
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    private long checksum() {
+        CRC32 crc = new CRC32();
+        for (MappedByteBuffer seg : segments) {
+            crc.update(seg.duplicate().clear());
+        }
+        return crc.getValue();
+    }
+
+    private int compareNumber(int i, String key) {
+        ByteBuffer seg = segment(i);
+        int base = offset(i);
+        int len = seg.get(base);
+        int n = Math.min(len, key.length());
+        for (int k = 0; k < n; k++) {
+            int a = Character.toLowerCase(seg.get(base + NUMBER_OFFSET + k));
+            int b = Character.toLowerCase(key.charAt(k));
+            if (a != b) return a - b;
+        }
+        return len - key.length();
+    }
+
+    private ByteBuffer segment(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Record " + i + " of " + count);
+        return segments[i / RECORDS_PER_SEGMENT];
+    }
+
+    private static int offset(int i) {
+        return (i % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    private static void putRecord(ByteBuffer buf, String number, String name, long balance) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Holder name too long for binary store: " + name);
+        }
+        int base = buf.position();
+        Arrays.fill(buf.array(), base, base + RECORD_SIZE, (byte) 0);
+        buf.put((byte) number.length());
+        for (int k = 0; k < number.length(); k++) buf.put((byte) number.charAt(k));
+        buf.position(base + NAME_LENGTH_OFFSET);
+        buf.putShort((short) nameBytes.length).put(nameBytes);
+        buf.position(base + BALANCE_OFFSET);
+        buf.putLong(balance);
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+}
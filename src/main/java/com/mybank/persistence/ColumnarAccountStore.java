@@ -0,0 +1,273 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only account table kept in off-heap, primitive columns instead of one heap object per account.
+ * <p>
+ * Rows live in chunks of {@value #CHUNK_ROWS} and each chunk holds three direct buffers: account-number
+ * bytes (a length byte plus 12 ASCII bytes), a name reference (heap offset and length packed into a
+ * {@code long}) and the balance in cents. Holder names are UTF-8 bytes in a separate off-heap name heap.
+ * The only on-heap structure is an open-addressing {@code int[]} hash index from case-insensitive account
+ * number to row, so a book of tens of millions of accounts costs a few small objects instead of tens of
+ * millions.
+ * <p>
+ * Appends are serialized internally; lookups and reads may run concurrently with them. Balance reads
+ * and writes are atomic, but read-modify-write sequences must be serialized by the caller (see
+ * {@code BankManager}). {@link #get(int)} materializes a detached {@link Account} copy of a row.
+ * <p>
+ * {@link #close()} drops every chunk at once, so the off-heap memory is no longer reachable from the store
+ * and is returned as soon as the buffers are collected, rather than whenever the store itself is; a reader
+ * still holding a chunk keeps only that one alive, and never sees freed memory. Direct buffers have no
+ * supported way to be freed sooner without the foreign memory API.
+ */
+public final class ColumnarAccountStore implements AutoCloseable {
+    static final int CHUNK_ROWS = 1 << 16;
+    private static final int NUMBER_BYTES = 13; // length byte + up to 12 ASCII characters
+    private static final int NAME_HEAP_CHUNK = 1 << 24;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /** Per-chunk columns; arrays are replaced, never mutated in place, when they grow. */
+    private volatile ByteBuffer[] numbers = new ByteBuffer[0];
+    private volatile ByteBuffer[] nameRefs = new ByteBuffer[0];
+    private volatile ByteBuffer[] balances = new ByteBuffer[0];
+    private volatile ByteBuffer[] nameHeap = new ByteBuffer[0];
+    private int nameHeapUsed = NAME_HEAP_CHUNK; // forces a chunk on the first append
+    /** Hash index: 0 for an empty slot, otherwise row + 1. */
+    private volatile int[] slots = new int[1024];
+    private volatile int size;
+    private volatile boolean closed;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a row unless the account number is already present (case-insensitively).
+     *
+     * @param accountNumber 4-12 alphanumeric characters
+     * @param holderName    trimmed, non-empty holder name
+     * @param balance       in cents, >= 0
+     * @return the new row, or -1 if the number is taken
+     * @throws IllegalArgumentException if a field is invalid
+     */
+    public synchronized int append(String accountNumber, String holderName, long balance) {
+        if (closed) throw new IllegalStateException("Store is closed");
+        if (!Account.isValidAccountNumber(accountNumber)) {
+            throw new IllegalArgumentException("Account number must be 4-12 alphanumeric characters");
+        }
+        if (holderName == null || holderName.isEmpty()) {
+            throw new IllegalArgumentException("Holder name cannot be empty");
+        }
+        if (balance < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative");
+        }
+        byte[] name = holderName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Holder name too long: " + name.length + " bytes");
+        }
+        if (indexOf(accountNumber) >= 0) return -1;
+
+        int row = size;
+        int chunk = row / CHUNK_ROWS;
+        if (chunk == numbers.length) addChunk();
+        int r = row % CHUNK_ROWS;
+        ByteBuffer num = numbers[chunk];
+        num.put(r * NUMBER_BYTES, (byte) accountNumber.length());
+        for (int i = 0; i < accountNumber.length(); i++) {
+            num.put(r * NUMBER_BYTES + 1 + i, (byte) accountNumber.charAt(i));
+        }
+        nameRefs[chunk].putLong(r * Long.BYTES, storeName(name));
+        LONGS.setVolatile(balances[chunk], r * Long.BYTES, balance);
+
+        if ((row + 1) * 2L > slots.length) rehash(slots.length * 2);
+        size = row + 1; // before the index entry, so a row found by lookup is always in range
+        insert(slots, row);
+        return row;
+    }
+
+    /**
+     * @return row of the account, or -1 if absent
+     */
+    public int indexOf(CharSequence accountNumber) {
+        if (!Account.isValidAccountNumber(accountNumber)) return -1;
+        int[] table = slots;
+        int mask = table.length - 1;
+        for (int i = hash(accountNumber) & mask; ; i = (i + 1) & mask) {
+            int v = (int) SLOTS.getAcquire(table, i);
+            if (v == 0) return -1;
+            if (numberEquals(v - 1, accountNumber)) return v - 1;
+        }
+    }
+
+    public String accountNumber(int row) {
+        checkRow(row);
+        ByteBuffer num = numbers[row / CHUNK_ROWS];
+        int base = (row % CHUNK_ROWS) * NUMBER_BYTES;
+        byte[] b = new byte[num.get(base)];
+        num.get(base + 1, b);
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+
+    public String holderName(int row) {
+        return new String(nameBytes(row), StandardCharsets.UTF_8);
+    }
+
+    public long balance(int row) {
+        checkRow(row);
+        return (long) LONGS.getVolatile(balances[row / CHUNK_ROWS], (row % CHUNK_ROWS) * Long.BYTES);
+    }
+
+    public void setBalance(int row, long balance) {
+        checkRow(row);
+        LONGS.setVolatile(balances[row / CHUNK_ROWS], (row % CHUNK_ROWS) * Long.BYTES, balance);
+    }
+
+    /**
+     * @return a detached copy of the row; changing it does not change the store
+     */
+    public Account get(int row) {
+        return new Account(accountNumber(row), holderName(row), balance(row));
+    }
+
+    /**
+     * Case-insensitive match of the holder name against a lower-case ASCII query without decoding the name.
+     *
+     * @param prefix match only at the start of the name instead of anywhere
+     */
+    public boolean holderNameMatches(int row, byte[] lowerAsciiQuery, boolean prefix) {
+        checkRow(row);
+        long ref = nameRefs[row / CHUNK_ROWS].getLong((row % CHUNK_ROWS) * Long.BYTES);
+        ByteBuffer heap = nameHeap[(int) ((ref >>> 16) / NAME_HEAP_CHUNK)];
+        int start = (int) ((ref >>> 16) % NAME_HEAP_CHUNK);
+        int len = (int) (ref & MAX_NAME_BYTES);
+        if (len < lowerAsciiQuery.length) return false;
+        int last = prefix ? 0 : len - lowerAsciiQuery.length;
+        for (int s = 0; s <= last; s++) {
+            int i = 0;
+            while (i < lowerAsciiQuery.length && lowerAscii(heap.get(start + s + i)) == lowerAsciiQuery[i]) i++;
+            if (i == lowerAsciiQuery.length) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return bytes held off-heap by the columns and name heap
+     */
+    public long offHeapBytes() {
+        long total = 0;
+        for (ByteBuffer[] column : new ByteBuffer[][]{numbers, nameRefs, balances, nameHeap}) {
+            for (ByteBuffer b : column) total += b.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Drops all rows and the off-heap chunks holding them; later reads and appends fail.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        size = 0;
+        slots = new int[1];
+        numbers = new ByteBuffer[0];
+        nameRefs = new ByteBuffer[0];
+        balances = new ByteBuffer[0];
+        nameHeap = new ByteBuffer[0];
+    }
+
+    private byte[] nameBytes(int row) {
+        checkRow(row);
+        long ref = nameRefs[row / CHUNK_ROWS].getLong((row % CHUNK_ROWS) * Long.BYTES);
+        ByteBuffer heap = nameHeap[(int) ((ref >>> 16) / NAME_HEAP_CHUNK)];
+        byte[] b = new byte[(int) (ref & MAX_NAME_BYTES)];
+        heap.get((int) ((ref >>> 16) % NAME_HEAP_CHUNK), b);
+        return b;
+    }
+
+    /**
+     * Copies the name into the heap, starting a new heap chunk if it does not fit, and returns
+     * {@code offset << 16 | length}.
+     */
+    private long storeName(byte[] name) {
+        if (nameHeapUsed + name.length > NAME_HEAP_CHUNK) {
+            nameHeap = append(nameHeap, ByteBuffer.allocateDirect(NAME_HEAP_CHUNK));
+            nameHeapUsed = 0;
+        }
+        long offset = (long) (nameHeap.length - 1) * NAME_HEAP_CHUNK + nameHeapUsed;
+        nameHeap[nameHeap.length - 1].put(nameHeapUsed, name);
+        nameHeapUsed += name.length;
+        return offset << 16 | name.length;
+    }
+
+    private void addChunk() {
+        nameRefs = append(nameRefs, ByteBuffer.allocateDirect(CHUNK_ROWS * Long.BYTES).order(ByteOrder.nativeOrder()));
+        balances = append(balances, ByteBuffer.allocateDirect(CHUNK_ROWS * Long.BYTES).order(ByteOrder.nativeOrder()));
+        numbers = append(numbers, ByteBuffer.allocateDirect(CHUNK_ROWS * NUMBER_BYTES));
+    }
+
+    private static ByteBuffer[] append(ByteBuffer[] column, ByteBuffer chunk) {
+        ByteBuffer[] grown = Arrays.copyOf(column, column.length + 1);
+        grown[column.length] = chunk;
+        return grown;
+    }
+
+    private void rehash(int capacity) {
+        int[] table = new int[capacity];
+        for (int row = 0; row < size; row++) insert(table, row);
+        slots = table;
+    }
+
+    private void insert(int[] table, int row) {
+        int mask = table.length - 1;
+        int i = hashRow(row) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        SLOTS.setRelease(table, i, row + 1);
+    }
+
+    private int hashRow(int row) {
+        ByteBuffer num = numbers[row / CHUNK_ROWS];
+        int base = (row % CHUNK_ROWS) * NUMBER_BYTES;
+        int h = 0;
+        for (int i = 0, len = num.get(base); i < len; i++) h = 31 * h + lowerAscii(num.get(base + 1 + i));
+        return h ^ (h >>> 16);
+    }
+
+    private boolean numberEquals(int row, CharSequence accountNumber) {
+        ByteBuffer num = numbers[row / CHUNK_ROWS];
+        int base = (row % CHUNK_ROWS) * NUMBER_BYTES;
+        int len = num.get(base);
+        if (len != accountNumber.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (lowerAscii(num.get(base + 1 + i)) != lowerAscii((byte) accountNumber.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** Case-insensitive hash of an ASCII account number. */
+    private static int hash(CharSequence accountNumber) {
+        int h = 0;
+        for (int i = 0; i < accountNumber.length(); i++) h = 31 * h + lowerAscii((byte) accountNumber.charAt(i));
+        return h ^ (h >>> 16);
+    }
+
+    private static byte lowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            if (closed) throw new IllegalStateException("Store is closed");
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+}
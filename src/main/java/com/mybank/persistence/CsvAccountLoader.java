@@ -0,0 +1,270 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import com.mybank.util.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel loader for {@code accountNumber,holderName,balance} files.
+ * <p>
+ * The file is memory-mapped and cut into newline-aligned chunks that are parsed concurrently on the
+ * common fork-join pool. Fields are parsed straight from the mapped bytes; only the final account
+ * number and holder name become Strings. Blank lines, {@code #} comments and header rows are ignored;
+ * every other row either yields an account or is counted as malformed. A {@code # lsn=<n>} comment
+ * records the journal position the file is a snapshot of; a trailing {@code # crc=<hex>} comment, the
+ * checksum of the rows before it (see {@link #recordedChecksum(Path)}).
+ */
+public final class CsvAccountLoader {
+    private static final long MIN_CHUNK = 1 << 20;
+    /** Upper bound keeps every chunk within a single mapping (mappings are limited to 2 GiB). */
+    private static final long MAX_CHUNK = 1 << 30;
+    private static final byte[] HEADER = "accountNumber".getBytes(StandardCharsets.US_ASCII);
+    /** Comment written by snapshots: {@code # lsn=<journal sequence number>}. */
+    public static final String LSN_COMMENT = "# lsn=";
+    private static final byte[] LSN_PREFIX = LSN_COMMENT.getBytes(StandardCharsets.US_ASCII);
+    /** Last line written by snapshots: {@code # crc=<CRC-32 of the preceding bytes, 8 hex digits>}. */
+    public static final String CRC_COMMENT = "# crc=";
+    private static final int CRC_LINE = CRC_COMMENT.length() + 8 + 1;
+
+    /**
+     * Parsed rows in file order.
+     *
+     * @param accounts   valid accounts, possibly with duplicate numbers
+     * @param malformed  number of rows rejected
+     * @param journalLsn journal LSN recorded in the file, 0 if none
+     */
+    public record Result(List<Account> accounts, long malformed, long journalLsn) {
+    }
+
+    private CsvAccountLoader() {
+    }
+
+    /**
+     * Loads all rows of {@code path}.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static Result load(Path path) throws IOException {
+        return load(path, 0);
+    }
+
+    /**
+     * @param chunkSize target chunk size in bytes; {@code <= 0} picks one from the file size and parallelism
+     */
+    static Result load(Path path, long chunkSize) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (chunkSize <= 0) {
+                long perWorker = size / (ForkJoinPool.getCommonPoolParallelism() * 4L);
+                chunkSize = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, perWorker));
+            }
+            List<long[]> chunks = split(ch, size, Math.min(chunkSize, MAX_CHUNK));
+            List<Result> parts;
+            try {
+                parts = chunks.parallelStream().map(c -> parseChunk(ch, c[0], c[1])).toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            List<Account> accounts = new ArrayList<>();
+            long malformed = 0;
+            long lsn = 0;
+            for (Result part : parts) {
+                accounts.addAll(part.accounts());
+                malformed += part.malformed();
+                lsn = Math.max(lsn, part.journalLsn());
+            }
+            return new Result(accounts, malformed, lsn);
+        }
+    }
+
+    /**
+     * Reads the checksum a snapshot writer left on the last line, without reading the rest of the file.
+     *
+     * @return the recorded CRC-32, or -1 if the file does not end with a {@code # crc=} line
+     * @throws IOException if the file cannot be read
+     */
+    public static long recordedChecksum(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < CRC_LINE) return -1;
+            ByteBuffer tail = ByteBuffer.allocate(CRC_LINE);
+            while (tail.hasRemaining()) {
+                if (ch.read(tail, size - CRC_LINE + tail.position()) < 0) return -1;
+            }
+            String line = new String(tail.array(), StandardCharsets.US_ASCII);
+            if (!line.startsWith(CRC_COMMENT) || !line.endsWith("\n")) return -1;
+            try {
+                return Long.parseLong(line, CRC_COMMENT.length(), CRC_LINE - 1, 16);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Cuts {@code [0, size)} into {@code [start, end)} ranges that each end just after a newline (or at EOF).
+     */
+    private static List<long[]> split(FileChannel ch, long size, long chunkSize) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            while (end < size) {
+                probe.clear();
+                int n = ch.read(probe, end);
+                if (n <= 0) {
+                    end = size;
+                    break;
+                }
+                int nl = -1;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        nl = i;
+                        break;
+                    }
+                }
+                if (nl >= 0) {
+                    end += nl + 1;
+                    break;
+                }
+                end += n;
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static Result parseChunk(FileChannel ch, long start, long end) {
+        MappedByteBuffer buf;
+        try {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Account> accounts = new ArrayList<>();
+        long malformed = 0;
+        long lsn = 0;
+        int limit = buf.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') lineEnd++;
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            if (startsWith(buf, lineStart, lineEnd, LSN_PREFIX)) {
+                long parsed = parseLsn(buf, lineStart + LSN_PREFIX.length, trimEnd(buf, lineStart, lineEnd));
+                if (parsed < 0) malformed++;
+                else lsn = Math.max(lsn, parsed);
+            } else if (!isIgnorable(buf, lineStart, lineEnd)) {
+                Account acc = parseRow(buf, lineStart, lineEnd);
+                if (acc == null) malformed++;
+                else accounts.add(acc);
+            }
+            lineStart = next;
+        }
+        return new Result(accounts, malformed, lsn);
+    }
+
+    private static boolean isIgnorable(ByteBuffer buf, int from, int to) {
+        if (from < to && buf.get(from) == '#') return true;
+        if (startsWith(buf, from, to, HEADER)) return true;
+        for (int i = from; i < to; i++) {
+            if (!isSpace(buf.get(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the account, or null if the row is malformed
+     */
+    private static Account parseRow(ByteBuffer buf, int from, int to) {
+        int c1 = indexOf(buf, from, to, (byte) ',');
+        if (c1 < 0) return null;
+        int c2 = indexOf(buf, c1 + 1, to, (byte) ',');
+        if (c2 < 0) return null;
+        int c3 = indexOf(buf, c2 + 1, to, (byte) ',');
+        if (c3 < 0) c3 = to; // extra columns are ignored
+
+        int numFrom = skipSpace(buf, from, c1), numTo = trimEnd(buf, numFrom, c1);
+        int numLen = numTo - numFrom;
+        if (numLen < 4 || numLen > 12) return null;
+        byte[] number = new byte[numLen];
+        for (int i = 0; i < numLen; i++) {
+            byte b = buf.get(numFrom + i);
+            if (!Account.isAlphanumeric(b)) return null;
+            number[i] = b;
+        }
+
+        int nameFrom = skipSpace(buf, c1 + 1, c2), nameTo = trimEnd(buf, nameFrom, c2);
+        if (nameFrom == nameTo) return null;
+
+        int balFrom = skipSpace(buf, c2 + 1, c3), balTo = trimEnd(buf, balFrom, c3);
+        long balance;
+        try {
+            balance = Money.parse(buf, balFrom, balTo);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (balance < 0) return null;
+
+        byte[] name = new byte[nameTo - nameFrom];
+        buf.get(nameFrom, name);
+        return new Account(new String(number, StandardCharsets.US_ASCII), new String(name, StandardCharsets.UTF_8), balance);
+    }
+
+    /**
+     * @return the non-negative decimal in {@code [from, to)}, or -1 if invalid
+     */
+    private static long parseLsn(ByteBuffer buf, int from, int to) {
+        if (from >= to || to - from > 18) return -1;
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static int indexOf(ByteBuffer buf, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    private static int skipSpace(ByteBuffer buf, int from, int to) {
+        while (from < to && isSpace(buf.get(from))) from++;
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer buf, int from, int to) {
+        while (to > from && isSpace(buf.get(to - 1))) to--;
+        return to;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean startsWith(ByteBuffer buf, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (buf.get(from + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import com.mybank.util.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Writes {@code accountNumber,holderName,balance} rows to a channel through one reusable byte buffer.
+ * Numbers are formatted by hand and ASCII names are copied char by char, so writing a row allocates nothing.
+ * A CRC-32 of the bytes is kept as they are flushed, so a snapshot can record it without reading the file back.
+ */
+public final class CsvAccountWriter implements Closeable {
+    private static final byte[] HEADER = "accountNumber,holderName,balance\n".getBytes(StandardCharsets.US_ASCII);
+    /** Room for the longest account number plus separator. */
+    private static final int NUMBER_ROOM = 12 + 1;
+    /** Room for separator, the longest balance and newline. */
+    private static final int BALANCE_ROOM = 1 + 21 + 1;
+
+    private final WritableByteChannel out;
+    private final ByteBuffer buf;
+    private final CRC32 crc = new CRC32();
+
+    public CsvAccountWriter(WritableByteChannel out) {
+        this(out, 64 * 1024);
+    }
+
+    CsvAccountWriter(WritableByteChannel out, int bufferSize) {
+        this.out = out;
+        this.buf = ByteBuffer.allocate(Math.max(bufferSize, 256));
+    }
+
+    /**
+     * Writes the column header and, if positive, the journal LSN the rows are a snapshot of.
+     */
+    public void writeHeader(long journalLsn) throws IOException {
+        putBytes(HEADER);
+        if (journalLsn > 0) {
+            putBytes(CsvAccountLoader.LSN_COMMENT.getBytes(StandardCharsets.US_ASCII));
+            ensure(20);
+            putLong(journalLsn);
+            buf.put((byte) '\n');
+        }
+    }
+
+    public void write(Account account) throws IOException {
+        write(account.getAccountNumber(), account.getHolderName(), account.getBalance());
+    }
+
+    public void write(String accountNumber, String holderName, long balance) throws IOException {
+        ensure(NUMBER_ROOM);
+        for (int i = 0; i < accountNumber.length(); i++) {
+            buf.put((byte) accountNumber.charAt(i));
+        }
+        buf.put((byte) ',');
+        putName(holderName);
+        ensure(BALANCE_ROOM);
+        buf.put((byte) ',');
+        Money.putAscii(buf, balance);
+        buf.put((byte) '\n');
+    }
+
+    /**
+     * Ends the rows with a {@code # crc=<hex>} comment holding the CRC-32 of everything written before it.
+     *
+     * @return the CRC-32 recorded in the comment
+     */
+    public long writeChecksum() throws IOException {
+        flush();
+        long value = crc.getValue();
+        putBytes(String.format("%s%08x\n", CsvAccountLoader.CRC_COMMENT, value).getBytes(StandardCharsets.US_ASCII));
+        return value;
+    }
+
+    /**
+     * Writes buffered bytes to the channel.
+     */
+    public void flush() throws IOException {
+        crc.update(buf.array(), 0, buf.position());
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Flushes and closes the underlying channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void putName(String name) throws IOException {
+        int len = name.length();
+        for (int i = 0; i < len; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                putBytes(name.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (!buf.hasRemaining()) flush();
+            buf.put((byte) c);
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        for (int off = 0; off < bytes.length; ) {
+            if (!buf.hasRemaining()) flush();
+            int n = Math.min(buf.remaining(), bytes.length - off);
+            buf.put(bytes, off, n);
+            off += n;
+        }
+    }
+
+    private void putLong(long v) {
+        int start = buf.position();
+        do {
+            buf.put((byte) ('0' + v % 10));
+            v /= 10;
+        } while (v != 0);
+        for (int i = start, j = buf.position() - 1; i < j; i++, j--) {
+            byte t = buf.get(i);
+            buf.put(i, buf.get(j));
+            buf.put(j, t);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+}
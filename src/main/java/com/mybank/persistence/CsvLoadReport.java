@@ -0,0 +1,12 @@
+package com.mybank.persistence;
+
+/**
+ * Outcome of loading an accounts CSV.
+ *
+ * @param loaded    rows turned into accounts
+ * @param skipped   well-formed rows ignored because their account number was already loaded
+ * @param malformed rows that could not be parsed or failed validation
+ */
+public record CsvLoadReport(long loaded, long skipped, long malformed) {
+    public static final CsvLoadReport EMPTY = new CsvLoadReport(0, 0, 0);
+}
@@ -0,0 +1,64 @@
+package com.mybank.persistence;
+
+/**
+ * One entry of the {@link TransactionJournal}.
+ *
+ * @param type         operation kind
+ * @param lsn          log sequence number assigned by the journal (0 until appended)
+ * @param account      account created, credited or debited; the source of a transfer
+ * @param counterparty destination of a transfer, otherwise null
+ * @param holderName   holder name of a created account, otherwise null
+ * @param amount       amount in cents; the initial balance for {@link Type#CREATE}
+ * @param txId         client transaction ID the change was submitted with, or null
+ * @param txTime       wall-clock time the journal appended a record with {@code txId}, in epoch milliseconds;
+ *                     0 if unknown
+ */
+public record JournalRecord(Type type, long lsn, String account, String counterparty, String holderName, long amount,
+                            String txId, long txTime) {
+
+    public enum Type {
+        CREATE, DEPOSIT, WITHDRAW, TRANSFER
+    }
+
+    /**
+     * A record without a client transaction ID.
+     */
+    public JournalRecord(Type type, long lsn, String account, String counterparty, String holderName, long amount) {
+        this(type, lsn, account, counterparty, holderName, amount, null, 0);
+    }
+
+    /**
+     * A record with a client transaction ID but no time yet; the journal stamps it when appending.
+     */
+    public JournalRecord(Type type, long lsn, String account, String counterparty, String holderName, long amount,
+                         String txId) {
+        this(type, lsn, account, counterparty, holderName, amount, txId, 0);
+    }
+
+    public static JournalRecord create(String account, String holderName, long initialBalance) {
+        return new JournalRecord(Type.CREATE, 0, account, null, holderName, initialBalance);
+    }
+
+    public static JournalRecord deposit(String account, long amount) {
+        return new JournalRecord(Type.DEPOSIT, 0, account, null, null, amount);
+    }
+
+    public static JournalRecord withdraw(String account, long amount) {
+        return new JournalRecord(Type.WITHDRAW, 0, account, null, null, amount);
+    }
+
+    public static JournalRecord transfer(String from, String to, long amount) {
+        return new JournalRecord(Type.TRANSFER, 0, from, to, null, amount);
+    }
+
+    /**
+     * @return this record tagged with a client transaction ID (null for none)
+     */
+    public JournalRecord withTxId(String txId) {
+        return new JournalRecord(type, lsn, account, counterparty, holderName, amount, txId, txTime);
+    }
+
+    JournalRecord withLsn(long lsn) {
+        return new JournalRecord(type, lsn, account, counterparty, holderName, amount, txId, txTime);
+    }
+}
@@ -0,0 +1,117 @@
+package com.mybank.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Client transaction IDs whose journal records a snapshot covers, with the time each was claimed, so the
+ * covered journal segments can be discarded while the IDs still guard against duplicates after a restart.
+ * <p>
+ * Layout, big-endian, followed by a CRC-32 of everything before it:
+ * <pre>
+ *   int magic, int version, int count
+ *   count x (short idLength, id (UTF-8), long claimedAtNanos)
+ * </pre>
+ */
+public final class TransactionIdFile {
+    private static final int MAGIC = 0x424B5431; // "BKT1"
+    private static final int VERSION = 1;
+    /** Longest encoded ID; transaction IDs are far shorter. */
+    private static final int MAX_ID_BYTES = 1024;
+
+    /**
+     * @param ids       transaction IDs, oldest claim first
+     * @param claimedAt wall-clock claim time of each ID, in nanoseconds since the epoch
+     */
+    public record Ids(String[] ids, long[] claimedAt) {
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    private TransactionIdFile() {
+    }
+
+    /**
+     * Writes the first {@code n} IDs, replacing {@code file} atomically.
+     */
+    public static void write(Path file, String[] ids, long[] claimedAt, int n) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream os = Channels.newOutputStream(ch);
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(os, 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                byte[] id = ids[i].getBytes(StandardCharsets.UTF_8);
+                if (id.length > MAX_ID_BYTES) throw new IllegalArgumentException("Transaction ID too long: " + ids[i]);
+                out.writeShort(id.length);
+                out.write(id);
+                out.writeLong(claimedAt[i]);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            ch.force(true); // the journal segments holding these IDs are deleted next
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the IDs, or null if {@code file} does not exist
+     * @throws IOException if the file cannot be read, is of another version, or fails its checksum
+     */
+    public static Ids read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        long limit = Files.size(file);
+        CRC32 crc = new CRC32();
+        try (InputStream is = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(is, 1 << 16), crc));
+            if (in.readInt() != MAGIC) throw new IOException("Not a transaction ID file: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported transaction ID file version " + version + ": " + file);
+            int n = in.readInt();
+            if (n < 0 || n > limit) throw new IOException("Corrupt transaction ID file: " + file);
+            String[] ids = new String[n];
+            long[] claimedAt = new long[n];
+            byte[] buf = new byte[MAX_ID_BYTES];
+            for (int i = 0; i < n; i++) {
+                int len = in.readUnsignedShort();
+                if (len > MAX_ID_BYTES) throw new IOException("Corrupt transaction ID file: " + file);
+                in.readFully(buf, 0, len);
+                ids[i] = new String(buf, 0, len, StandardCharsets.UTF_8);
+                claimedAt[i] = in.readLong();
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) throw new IOException("Transaction ID file checksum mismatch: " + file);
+            return new Ids(ids, claimedAt);
+        } catch (EOFException e) {
+            throw new IOException("Truncated transaction ID file: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.mybank.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary write-ahead journal with group commit.
+ * <p>
+ * Appenders encode records into a shared buffer and get back a log sequence number (LSN); a single
+ * flusher thread writes the buffer and fsyncs it, collecting every record that arrives within the
+ * configured commit delay into the same fsync. {@link #awaitDurable(long)} blocks until a record is on disk.
+ * <p>
+ * File layout: {@code int magic, int version}, then records of {@code int length, body, int crc32(body)}
+ * where the body is {@code byte type, long lsn} followed by the type's fields. A torn or corrupt tail left
+ * by a crash is detected by length/CRC checks and truncated on open. {@link #rotate()} seals the file
+ * into a numbered segment so snapshots can discard covered records without pausing appenders.
+ * <p>
+ * Version 2 bodies end with the client transaction ID, and version 3 bodies follow a non-null ID with the
+ * wall-clock time it was appended, so the dedupe window can restore its age. Older files are still replayed,
+ * and a non-empty one is appended to in its own version until the next rotation starts a version 3 file.
+ */
+public final class TransactionJournal implements Closeable {
+    private static final int MAGIC = 0x424B4A31; // "BKJ1"
+    private static final int VERSION = 3;
+    /** Records with a transaction ID but no time. */
+    private static final int VERSION_2 = 2;
+    /** Oldest readable version: records without a transaction ID. */
+    private static final int VERSION_1 = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD = 1 << 16;
+    /** A batch this large is flushed without waiting out the rest of the commit delay. */
+    private static final int GROUP_COMMIT_BYTES = 256 * 1024;
+
+    private final Path path;
+    private final long commitDelayNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition durableAdvanced = lock.newCondition();
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer flushing = ByteBuffer.allocate(64 * 1024);
+    /** Format version of the file being appended to. */
+    private int version;
+    private long nextLsn;
+    private long durableLsn;
+    private IOException failure;
+    private boolean closed;
+
+    private TransactionJournal(Path path, FileChannel channel, int version, long lastLsn, Duration commitDelay) {
+        this.path = path;
+        this.channel = channel;
+        this.version = version;
+        this.commitDelayNanos = Math.max(0, commitDelay.toNanos());
+        this.nextLsn = lastLsn + 1;
+        this.durableLsn = lastLsn;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens (or creates) a journal, replaying every intact record with an LSN above {@code afterLsn}.
+     * Sealed segments left by {@link #rotate()} are replayed first, oldest to newest.
+     *
+     * @param path        journal file
+     * @param commitDelay how long the flusher may wait for more records before an fsync
+     * @param afterLsn    LSN already covered by the caller's snapshot; earlier records are skipped
+     * @param replay      receives replayed records in log order
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static TransactionJournal open(Path path, Duration commitDelay, long afterLsn,
+                                          Consumer<JournalRecord> replay) throws IOException {
+        return open(path, commitDelay, afterLsn, replay, r -> { });
+    }
+
+    /**
+     * As {@link #open(Path, Duration, long, Consumer)}, also passing the records still on disk but covered by
+     * the snapshot, in log order and before any replayed one, to {@code covered}.
+     */
+    public static TransactionJournal open(Path path, Duration commitDelay, long afterLsn,
+                                          Consumer<JournalRecord> replay, Consumer<JournalRecord> covered) throws IOException {
+        path = path.toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        long[] lastLsn = {afterLsn};
+        Consumer<JournalRecord> sink = r -> (r.lsn() > afterLsn ? replay : covered).accept(r);
+        for (Path segment : sealedSegments(path)) {
+            try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+                scan(ch, segment, sink, lastLsn);
+            }
+        }
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long validEnd;
+            int version = VERSION;
+            if (ch.size() < HEADER_SIZE) {
+                writeHeader(ch);
+                validEnd = HEADER_SIZE;
+            } else {
+                version = readVersion(ch, path);
+                validEnd = scan(ch, path, sink, lastLsn);
+                if (validEnd < ch.size()) {
+                    ch.truncate(validEnd);
+                    ch.force(true);
+                }
+                if (version != VERSION && validEnd == HEADER_SIZE) {
+                    writeHeader(ch);
+                    version = VERSION;
+                }
+            }
+            ch.position(validEnd);
+            return new TransactionJournal(path, ch, version, lastLsn[0], commitDelay);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Passes the intact records of one file to {@code replay}.
+     *
+     * @return offset just past the last intact record
+     */
+    private static long scan(FileChannel ch, Path file, Consumer<JournalRecord> replay, long[] lastLsn) throws IOException {
+        int version = readVersion(ch, file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch.position(HEADER_SIZE)), 1 << 16));
+        long validEnd = HEADER_SIZE;
+        JournalRecord r;
+        while ((r = readRecord(in, version)) != null) {
+            validEnd += 8 + encodedBodySize(r, version);
+            replay.accept(r);
+            lastLsn[0] = Math.max(lastLsn[0], r.lsn());
+        }
+        return validEnd;
+    }
+
+    private static int readVersion(FileChannel ch, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && ch.read(header, header.position()) > 0) {
+            // read the whole header
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a transaction journal: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION && version != VERSION_2 && version != VERSION_1) {
+            throw new IOException("Unsupported journal version " + version + ": " + file);
+        }
+        return version;
+    }
+
+    private static void writeHeader(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+        ch.truncate(0);
+        ch.write(header, 0);
+        ch.force(true);
+        ch.position(HEADER_SIZE);
+    }
+
+    /**
+     * @return sealed segments of {@code path} ({@code <name>.<lastLsn>}), oldest first
+     */
+    private static List<Path> sealedSegments(Path path) throws IOException {
+        String prefix = path.getFileName() + ".";
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            return files.filter(f -> segmentLsn(f, prefix) >= 0)
+                    .sorted(Comparator.comparingLong(f -> segmentLsn(f, prefix)))
+                    .toList();
+        }
+    }
+
+    private static long segmentLsn(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || name.length() == prefix.length() || name.length() - prefix.length() > 18) return -1;
+        long v = 0;
+        for (int i = prefix.length(); i < name.length(); i++) {
+            int d = name.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    /**
+     * Appends one record; see {@link #appendAll(List)}.
+     */
+    public long append(JournalRecord record) {
+        return appendAll(List.of(record));
+    }
+
+    /**
+     * Appends records atomically: either all of them get consecutive LSNs or, if the journal is closed
+     * or has failed, none is written. Callers must append in the order the operations were applied.
+     *
+     * @return LSN of the last record, to pass to {@link #awaitDurable(long)}
+     */
+    public long appendAll(List<JournalRecord> records) {
+        lock.lock();
+        try {
+            ensureUsable();
+            int mark = pending.position();
+            long firstLsn = nextLsn;
+            try {
+                for (JournalRecord r : records) {
+                    encode(r.withLsn(nextLsn++));
+                }
+            } catch (RuntimeException e) {
+                pending.position(mark);
+                nextLsn = firstLsn;
+                throw e;
+            }
+            boolean wasEmpty = mark == 0;
+            if (wasEmpty || pending.position() >= GROUP_COMMIT_BYTES) {
+                pendingAvailable.signal();
+            }
+            return nextLsn - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record up to {@code lsn} has been fsynced.
+     *
+     * @throws UncheckedIOException if the journal failed to write
+     */
+    public void awaitDurable(long lsn) {
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) throw new UncheckedIOException("Journal write failed", failure);
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return LSN of the most recently appended record
+     */
+    public long lastLsn() {
+        lock.lock();
+        try {
+            return nextLsn - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the current file as segment {@code <name>.<lastLsn>} and starts a new one, so a snapshot
+     * covering everything up to the returned LSN can later drop the sealed records with
+     * {@link #discardThrough(long)}. The caller must ensure no appends run concurrently.
+     *
+     * @return LSN of the last sealed record
+     */
+    public long rotate() throws IOException {
+        long last = lastLsn();
+        awaitDurable(last);
+        lock.lock();
+        try {
+            ensureUsable();
+            if (channel.size() > HEADER_SIZE) {
+                try {
+                    channel.force(true);
+                    channel.close();
+                    Files.move(path, path.resolveSibling(path.getFileName() + "." + last), StandardCopyOption.ATOMIC_MOVE);
+                    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    writeHeader(channel);
+                    version = VERSION;
+                } catch (IOException e) {
+                    failure = e;
+                    durableAdvanced.signalAll();
+                    throw e;
+                }
+            }
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes sealed segments whose records all have an LSN of at most {@code lsn}.
+     */
+    public void discardThrough(long lsn) throws IOException {
+        String prefix = path.getFileName() + ".";
+        for (Path segment : sealedSegments(path)) {
+            if (segmentLsn(segment, prefix) <= lsn) Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * Flushes pending records, stops the flusher and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void ensureUsable() {
+        if (closed) throw new IllegalStateException("Journal is closed");
+        if (failure != null) throw new UncheckedIOException("Journal write failed", failure);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long batchLsn;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) return; // closed and drained
+                long deadline = System.nanoTime() + commitDelayNanos;
+                long remaining;
+                while (!closed && pending.position() < GROUP_COMMIT_BYTES
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        pendingAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                ByteBuffer t = flushing;
+                flushing = pending;
+                pending = t;
+                batchLsn = nextLsn - 1;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                flushing.flip();
+                while (flushing.hasRemaining()) channel.write(flushing);
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            flushing.clear();
+
+            lock.lock();
+            try {
+                if (error != null) failure = error;
+                else durableLsn = batchLsn;
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) return;
+        }
+    }
+
+    private void encode(JournalRecord r) {
+        byte[] account = utf8(r.account());
+        byte[] second = utf8(r.type() == JournalRecord.Type.CREATE ? r.holderName() : r.counterparty());
+        byte[] txId = version >= VERSION_2 ? utf8(r.txId()) : null;
+        int body = bodySize(account, second, txId, version);
+        if (body > MAX_RECORD) throw new IllegalArgumentException("Journal record too large");
+        ensureCapacity(body + 8);
+        ByteBuffer buf = pending;
+        buf.putInt(body);
+        int bodyStart = buf.position();
+        buf.put((byte) r.type().ordinal()).putLong(r.lsn());
+        putString(buf, account);
+        putString(buf, second);
+        buf.putLong(r.amount());
+        if (version >= VERSION_2) putString(buf, txId);
+        if (version >= VERSION && txId != null) buf.putLong(r.txTime() != 0 ? r.txTime() : System.currentTimeMillis());
+        crc.reset();
+        crc.update(buf.duplicate().position(bodyStart).limit(buf.position()));
+        buf.putInt((int) crc.getValue());
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    /**
+     * @return the next intact record, or null at end of file or at a torn/corrupt tail
+     */
+    private static JournalRecord readRecord(DataInputStream in, int version) throws IOException {
+        try {
+            int len = in.readInt();
+            if (len < 1 + 8 + 2 + 2 + 8 || len > MAX_RECORD) return null;
+            byte[] body = new byte[len];
+            in.readFully(body);
+            int expected = in.readInt();
+            CRC32 c = new CRC32();
+            c.update(body);
+            if ((int) c.getValue() != expected) return null;
+            ByteBuffer b = ByteBuffer.wrap(body);
+            int type = b.get();
+            if (type < 0 || type >= JournalRecord.Type.values().length) return null;
+            JournalRecord.Type t = JournalRecord.Type.values()[type];
+            long lsn = b.getLong();
+            String account = getString(b);
+            String second = getString(b);
+            long amount = b.getLong();
+            String txId = version >= VERSION_2 ? getString(b) : null;
+            long txTime = version >= VERSION && txId != null ? b.getLong() : 0;
+            return t == JournalRecord.Type.CREATE
+                    ? new JournalRecord(t, lsn, account, null, second, amount, txId, txTime)
+                    : new JournalRecord(t, lsn, account, second, null, amount, txId, txTime);
+        } catch (EOFException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int encodedBodySize(JournalRecord r, int version) {
+        return bodySize(utf8(r.account()), utf8(r.type() == JournalRecord.Type.CREATE ? r.holderName() : r.counterparty()),
+                utf8(r.txId()), version);
+    }
+
+    private static int bodySize(byte[] account, byte[] second, byte[] txId, int version) {
+        int size = 1 + 8 + 2 + account.length + 2 + (second == null ? 0 : second.length) + 8;
+        if (version >= VERSION_2) size += 2 + (txId == null ? 0 : txId.length);
+        if (version >= VERSION && txId != null) size += 8;
+        return size;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buf, byte[] s) {
+        if (s != null && s.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal record too large");
+        }
+        if (s == null) {
+            buf.putShort((short) -1);
+        } else {
+            buf.putShort((short) s.length).put(s);
+        }
+    }
+
+    private static String getString(ByteBuffer b) {
+        int len = b.getShort();
+        if (len < 0) return null;
+        String s = new String(b.array(), b.position(), len, StandardCharsets.UTF_8);
+        b.position(b.position() + len);
+        return s;
+    }
+}
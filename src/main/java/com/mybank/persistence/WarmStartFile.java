@@ -0,0 +1,177 @@
+package com.mybank.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary image of a CSV snapshot plus the indexes built over it, so a restart can skip parsing the CSV and
+ * rebuilding the indexes.
+ * <p>
+ * The file records the size and modification time of the CSV it was written alongside, and the CRC-32 that
+ * {@link CsvAccountWriter#writeChecksum()} computed while writing it. It is only {@linkplain #read(Path, Path)
+ * read} back while the CSV still matches all three, the checksum being compared with the one on the CSV's
+ * last line, so the CSV is never read in full; otherwise the image is stale and the CSV wins. Layout,
+ * big-endian, followed by a CRC-32 of everything before it:
+ * <pre>
+ *   int magic, int version, long csvSize, long csvModifiedMillis, long csvCrc, long journalLsn, int count
+ *   count x (byte numberLength, number (ASCII), int nameLength, name (UTF-8), long balance)
+ *   int[count] balance order, int[count] name order
+ *   int grams, grams x (long trigram, int rows, int[rows] row)
+ * </pre>
+ */
+public final class WarmStartFile {
+    private static final int MAGIC = 0x424B5731; // "BKW1"
+    private static final int VERSION = 2;
+
+    /**
+     * Accounts in row order and the index data over them, all by row.
+     *
+     * @param balanceOrder rows by ascending balance, then account number
+     * @param nameOrder    rows by normalized holder name, then account number
+     * @param grams        distinct holder-name trigrams
+     * @param postings     for each trigram, the rows whose normalized name contains it
+     */
+    public record Image(String[] numbers, String[] names, long[] balances, long journalLsn,
+                        int[] balanceOrder, int[] nameOrder, long[] grams, int[][] postings) {
+        public int size() {
+            return numbers.length;
+        }
+    }
+
+    private WarmStartFile() {
+    }
+
+    /**
+     * Writes {@code image} for the current state of {@code csv}, replacing {@code file} atomically.
+     *
+     * @param csvCrc checksum the CSV writer recorded at the end of {@code csv}
+     */
+    public static void write(Path file, Path csv, long csvCrc, Image image) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream os = Files.newOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(os, 1 << 16), crc);
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(csv));
+            out.writeLong(Files.getLastModifiedTime(csv).toMillis());
+            out.writeLong(csvCrc);
+            out.writeLong(image.journalLsn());
+            int n = image.size();
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                String number = image.numbers()[i];
+                out.writeByte(number.length());
+                out.writeBytes(number);
+                byte[] name = image.names()[i].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeLong(image.balances()[i]);
+            }
+            for (int row : image.balanceOrder()) out.writeInt(row);
+            for (int row : image.nameOrder()) out.writeInt(row);
+            out.writeInt(image.grams().length);
+            for (int g = 0; g < image.grams().length; g++) {
+                out.writeLong(image.grams()[g]);
+                out.writeInt(image.postings()[g].length);
+                for (int row : image.postings()[g]) out.writeInt(row);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Rows are not validated one by one: the image was written from valid accounts, and the checksum,
+     * verified before anything is returned, vouches that they are unchanged.
+     *
+     * @return the image, or null if {@code file} or {@code csv} is missing or the CSV changed since the
+     * image was written
+     * @throws IOException if the file cannot be read, is of another version, or fails its checksum
+     */
+    public static Image read(Path file, Path csv) throws IOException {
+        if (!Files.exists(file) || !Files.exists(csv)) return null;
+        long limit = Files.size(file);
+        CRC32 crc = new CRC32();
+        try (InputStream is = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(is, 1 << 16), crc));
+            if (in.readInt() != MAGIC) throw new IOException("Not a warm-start file: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported warm-start version " + version + ": " + file);
+            if (in.readLong() != Files.size(csv) || in.readLong() != Files.getLastModifiedTime(csv).toMillis()
+                    || in.readLong() != CsvAccountLoader.recordedChecksum(csv)) {
+                return null;
+            }
+            long journalLsn = in.readLong();
+            int n = count(in.readInt(), limit, file);
+            String[] numbers = new String[n];
+            String[] names = new String[n];
+            long[] balances = new long[n];
+            byte[] buf = new byte[256];
+            for (int i = 0; i < n; i++) {
+                int len = in.readUnsignedByte();
+                in.readFully(buf, 0, len);
+                numbers[i] = new String(buf, 0, len, StandardCharsets.US_ASCII);
+                len = count(in.readInt(), limit, file);
+                if (len > buf.length) buf = new byte[len];
+                in.readFully(buf, 0, len);
+                names[i] = new String(buf, 0, len, StandardCharsets.UTF_8);
+                balances[i] = in.readLong();
+            }
+            int[] balanceOrder = readRows(in, n, n, file);
+            int[] nameOrder = readRows(in, n, n, file);
+            int gramCount = count(in.readInt(), limit, file);
+            long[] grams = new long[gramCount];
+            int[][] postings = new int[gramCount][];
+            for (int g = 0; g < gramCount; g++) {
+                grams[g] = in.readLong();
+                postings[g] = readRows(in, count(in.readInt(), limit, file), n, file);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) throw new IOException("Warm-start file checksum mismatch: " + file);
+            return new Image(numbers, names, balances, journalLsn, balanceOrder, nameOrder, grams, postings);
+        } catch (EOFException e) {
+            throw new IOException("Truncated warm-start file: " + file, e);
+        }
+    }
+
+    private static int[] readRows(DataInputStream in, int count, int rows, Path file) throws IOException {
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            int row = in.readInt();
+            if (row < 0 || row >= rows) throw new IOException("Corrupt warm-start file: " + file);
+            result[i] = row;
+        }
+        return result;
+    }
+
+    /**
+     * Bounds a length read from the file by the file size, so a corrupt one cannot trigger a huge allocation.
+     */
+    private static int count(int n, long limit, Path file) throws IOException {
+        if (n < 0 || n > limit) throw new IOException("Corrupt warm-start file: " + file);
+        return n;
+    }
+}
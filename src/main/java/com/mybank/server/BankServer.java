@@ -0,0 +1,362 @@
+package com.mybank.server;
+
+import com.mybank.Main;
+import com.mybank.dto.Account;
+import com.mybank.dto.BalanceStats;
+import com.mybank.manager.BankManager;
+import com.mybank.util.Money;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Line-oriented TCP front end for a {@link BankManager}, serving each connection on its own virtual thread.
+ * <p>
+ * Every request is one line of space-separated words and every response starts with {@code OK} or
+ * {@code ERR <message>}; amounts are in currency units as in the CSV file:
+ * <pre>
+ *   CREATE &lt;number&gt; &lt;balance&gt; &lt;holder name&gt;   OK
+ *   DEPOSIT &lt;number&gt; &lt;amount&gt; [txid]          OK or OK DUPLICATE
+ *   WITHDRAW &lt;number&gt; &lt;amount&gt; [txid]         OK or OK DUPLICATE
+ *   TRANSFER &lt;from&gt; &lt;to&gt; &lt;amount&gt; [txid]      OK or OK DUPLICATE
+ *   GET &lt;number&gt;                            OK &lt;number&gt; &lt;balance&gt; &lt;holder name&gt;
+ *   SEARCH &lt;name fragment&gt;                  OK &lt;n&gt;, then n account lines
+ *   RANGE &lt;min&gt; &lt;max&gt;                       OK &lt;n&gt;, then n account lines
+ *   TOP &lt;n&gt;                                 OK &lt;n&gt;, then n account lines
+ *   STATS                                   OK &lt;count&gt; &lt;total&gt; &lt;average&gt; &lt;min&gt; &lt;max&gt;
+ *   QUIT                                    OK, then the server closes the connection
+ * </pre>
+ * A request carrying a client transaction ID is applied at most once while the ID is in the manager's
+ * dedupe window; a retry is answered {@code OK DUPLICATE} without being applied again.
+ * Account lines are {@code <number> <balance> <holder name>}. Clients may pipeline: requests are answered
+ * in order, and responses are flushed only once no further request is already buffered, so a burst of
+ * pipelined requests shares a single write. A request longer than {@value #MAX_REQUEST_LENGTH} characters is
+ * answered {@code ERR} and discarded without being buffered.
+ */
+public final class BankServer implements AutoCloseable {
+    /** Longest request line, in characters, that the server will buffer. */
+    public static final int MAX_REQUEST_LENGTH = 8_192;
+
+    private final BankManager manager;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requests = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private BankServer(BankManager manager, ServerSocket serverSocket) {
+        this.manager = manager;
+        this.serverSocket = serverSocket;
+        this.acceptor = Thread.ofPlatform().name("bank-server-acceptor").daemon().start(this::acceptLoop);
+    }
+
+    /**
+     * Starts serving on {@code port} of the loopback interface; 0 picks a free port.
+     */
+    public static BankServer start(BankManager manager, int port) throws IOException {
+        return start(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public static BankServer start(BankManager manager, InetSocketAddress address) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(address, 16_384);
+        return new BankServer(manager, socket);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return requests answered since start
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return connections currently open
+     */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Blocks until the server has been closed.
+     */
+    public void awaitTermination() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops accepting, closes every open connection and waits for the acceptor to exit. The manager is
+     * left open. Every connection is closed even if closing another fails; the first failure is thrown
+     * afterwards with the rest suppressed.
+     */
+    @Override
+    public void close() {
+        IOException failure = null;
+        try {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Socket s : connections) {
+                try {
+                    s.close();
+                } catch (IOException e) {
+                    if (failure == null) failure = e;
+                    else failure.addSuppressed(e);
+                }
+            }
+            stopped.countDown();
+        }
+        if (failure != null) throw new UncheckedIOException("Failed to close server: " + failure.getMessage(), failure);
+    }
+
+    private void acceptLoop() {
+        Thread.Builder connectionThreads = Thread.ofVirtual().name("bank-conn-", 0);
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                connectionThreads.start(() -> serve(socket));
+            } catch (SocketException e) {
+                // closed
+            } catch (IOException e) {
+                System.err.println("[WARN] Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             RequestReader in = new RequestReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean quit;
+                if (line == RequestReader.TOO_LONG) {
+                    out.write("ERR Request longer than " + MAX_REQUEST_LENGTH + " characters\n");
+                    quit = false;
+                } else {
+                    quit = handle(line, out);
+                }
+                requests.incrementAndGet();
+                if (quit) break;
+                if (!in.ready()) out.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Splits a connection's input into request lines, holding at most {@link #MAX_REQUEST_LENGTH} characters of
+     * any one line; the remainder of an overlong line is skipped and reported as {@link #TOO_LONG}.
+     */
+    static final class RequestReader implements AutoCloseable {
+        /** Returned in place of a line that exceeded the limit; compare by identity. */
+        static final String TOO_LONG = new String("");
+
+        private final Reader in;
+        private final char[] buf = new char[8_192];
+        private final StringBuilder line = new StringBuilder(128);
+        private int pos;
+        private int limit;
+
+        RequestReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the next line without its terminator, {@link #TOO_LONG}, or null at end of input
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            boolean overflow = false;
+            while (true) {
+                if (pos == limit) {
+                    limit = in.read(buf, 0, buf.length);
+                    pos = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (overflow) return TOO_LONG;
+                        return line.isEmpty() ? null : line.toString();
+                    }
+                }
+                int start = pos;
+                while (pos < limit && buf[pos] != '\n') pos++;
+                int n = pos - start;
+                if (overflow || line.length() + n > MAX_REQUEST_LENGTH) {
+                    overflow = true;
+                    line.setLength(0);
+                } else {
+                    line.append(buf, start, n);
+                }
+                if (pos < limit) {
+                    pos++;
+                    if (overflow) return TOO_LONG;
+                    int end = line.length();
+                    if (end > 0 && line.charAt(end - 1) == '\r') line.setLength(end - 1);
+                    return line.toString();
+                }
+            }
+        }
+
+        /**
+         * @return true if another request is already buffered or readable without blocking
+         */
+        boolean ready() throws IOException {
+            return pos < limit || in.ready();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @return true if the client asked to disconnect
+     */
+    boolean handle(String line, Writer out) throws IOException {
+        String request = line.strip();
+        String[] w = request.split("\\s+", 4);
+        String command = w[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "CREATE" -> {
+                    require(w, 4, "CREATE <number> <balance> <holder name>");
+                    manager.createAccount(w[1], w[3], Money.parse(w[2]));
+                    out.write("OK\n");
+                }
+                case "DEPOSIT" -> {
+                    require(w, 3, "DEPOSIT <number> <amount> [txid]");
+                    writeApplied(manager.deposit(w.length > 3 ? w[3] : null, w[1], Money.parse(w[2])), out);
+                }
+                case "WITHDRAW" -> {
+                    require(w, 3, "WITHDRAW <number> <amount> [txid]");
+                    writeApplied(manager.withdraw(w.length > 3 ? w[3] : null, w[1], Money.parse(w[2])), out);
+                }
+                case "TRANSFER" -> {
+                    require(w, 4, "TRANSFER <from> <to> <amount> [txid]");
+                    String[] rest = w[3].split("\\s+", 2);
+                    writeApplied(manager.transfer(rest.length > 1 ? rest[1] : null, w[1], w[2], Money.parse(rest[0])), out);
+                }
+                case "GET" -> {
+                    require(w, 2, "GET <number>");
+                    Account a = manager.getByNumber(w[1])
+                            .orElseThrow(() -> new IllegalArgumentException("Account not found: " + w[1]));
+                    out.write("OK ");
+                    writeAccount(a, out);
+                }
+                case "SEARCH" -> {
+                    writeAccounts(manager.findByName(request.substring(w[0].length()).strip()), out);
+                }
+                case "RANGE" -> {
+                    require(w, 3, "RANGE <min> <max>");
+                    writeAccounts(manager.findByBalanceRange(Money.parse(w[1]), Money.parse(w[2])), out);
+                }
+                case "TOP" -> {
+                    require(w, 2, "TOP <n>");
+                    writeAccounts(manager.topNByBalance(parseCount(w[1])), out);
+                }
+                case "STATS" -> {
+                    BalanceStats s = manager.balanceStats();
+                    StringBuilder sb = new StringBuilder("OK ").append(s.count()).append(' ');
+                    Money.appendTo(sb, s.total());
+                    sb.append(' ');
+                    Money.appendTo(sb, Math.round(s.average()));
+                    sb.append(' ');
+                    Money.appendTo(sb, s.min());
+                    sb.append(' ');
+                    Money.appendTo(sb, s.max());
+                    out.write(sb.append('\n').toString());
+                }
+                case "QUIT" -> {
+                    out.write("OK\n");
+                    return true;
+                }
+                default -> out.write("ERR Unknown command: " + w[0] + "\n");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            out.write("ERR " + String.valueOf(e.getMessage()).replace('\n', ' ') + "\n");
+        }
+        return false;
+    }
+
+    private static void require(String[] words, int count, String usage) {
+        if (words.length < count) throw new IllegalArgumentException("Usage: " + usage);
+    }
+
+    private static int parseCount(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid count: " + s);
+        }
+    }
+
+    private static void writeApplied(boolean applied, Writer out) throws IOException {
+        out.write(applied ? "OK\n" : "OK DUPLICATE\n");
+    }
+
+    private static void writeAccounts(List<Account> accounts, Writer out) throws IOException {
+        out.write("OK " + accounts.size() + "\n");
+        for (Account a : accounts) writeAccount(a, out);
+    }
+
+    private static void writeAccount(Account a, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(64).append(a.getAccountNumber()).append(' ');
+        Money.appendTo(sb, a.getBalance());
+        out.write(sb.append(' ').append(a.getHolderName()).append('\n').toString());
+    }
+
+    /**
+     * Runs a server on the loopback interface over the same files, warm start and snapshot schedule as
+     * {@link Main} until the process is stopped.
+     * Usage: {@code BankServer [port]} (default 7070).
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        BankManager manager = Main.openManager();
+        BankServer server = start(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            manager.saveToCsv(Main.csvFile());
+            manager.close();
+        }));
+        System.out.println("Listening on port " + server.port());
+        server.awaitTermination();
+    }
+}
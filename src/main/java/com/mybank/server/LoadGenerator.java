@@ -0,0 +1,222 @@
+package com.mybank.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load-generating client for {@link BankServer}. Opens {@code connections} connections, each on a virtual
+ * thread, and sends pipelined batches of {@code pipeline} requests (half lookups, a quarter deposits, a
+ * quarter withdrawals of the same amount) for the given duration. Latency is measured per request from the
+ * moment its batch is written to the moment its response arrives.
+ */
+public final class LoadGenerator {
+
+    /**
+     * @param connections concurrent client connections
+     * @param pipeline    requests written per batch before reading their responses
+     * @param accounts    accounts created up front ({@code LG0000000}..) and targeted at random
+     * @param duration    measurement time, after connections are established
+     */
+    public record Options(int connections, int pipeline, int accounts, Duration duration) {
+        public Options {
+            if (connections <= 0 || pipeline <= 0 || accounts <= 0) {
+                throw new IllegalArgumentException("Connections, pipeline and accounts must be > 0");
+            }
+        }
+    }
+
+    /**
+     * @param requests       responses received
+     * @param errors         responses starting with {@code ERR}
+     * @param elapsed        wall-clock measurement time
+     * @param latenciesNanos sorted per-request latencies
+     */
+    public record Report(long requests, long errors, Duration elapsed, long[] latenciesNanos) {
+        public double throughput() {
+            return requests / Math.max(1e-9, elapsed.toNanos() / 1e9);
+        }
+
+        /**
+         * @param p percentile in [0, 100]
+         * @return latency at the percentile in nanoseconds, or 0 with no samples
+         */
+        public long percentile(double p) {
+            if (latenciesNanos.length == 0) return 0;
+            int i = (int) Math.ceil(p / 100 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, Math.min(latenciesNanos.length - 1, i))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors) in %.2fs: %.0f req/s; latency p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    requests, errors, elapsed.toNanos() / 1e9, throughput(),
+                    percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3, percentile(99.9) / 1e3,
+                    percentile(100) / 1e3);
+        }
+    }
+
+    private LoadGenerator() {
+    }
+
+    static String accountNumber(int i) {
+        return "LG" + String.format("%07d", i);
+    }
+
+    /**
+     * Creates the target accounts (ignoring ones that already exist), then runs the load.
+     */
+    public static Report run(InetSocketAddress server, Options options) throws IOException, InterruptedException {
+        try (Client setup = new Client(server)) {
+            StringBuilder batch = new StringBuilder();
+            for (int i = 0; i < options.accounts(); i++) {
+                batch.append("CREATE ").append(accountNumber(i)).append(" 1000.00 Load Client ").append(i).append('\n');
+                if ((i + 1) % 1024 == 0 || i == options.accounts() - 1) {
+                    int n = i % 1024 + 1;
+                    setup.send(batch);
+                    for (int r = 0; r < n; r++) setup.in.readLine();
+                    batch.setLength(0);
+                }
+            }
+        }
+
+        List<Client> clients = new ArrayList<>(options.connections());
+        try {
+            for (int i = 0; i < options.connections(); i++) clients.add(new Client(server));
+            long deadline = System.nanoTime() + options.duration().toNanos();
+            long start = System.nanoTime();
+            List<Future<Worker>> running = new ArrayList<>();
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients.size(); i++) {
+                    running.add(pool.submit(new Worker(clients.get(i), options, deadline, i)));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long requests = 0, errors = 0;
+            List<long[]> samples = new ArrayList<>();
+            for (Future<Worker> f : running) {
+                Worker w = f.get();
+                requests += w.count;
+                errors += w.errors;
+                samples.add(Arrays.copyOf(w.latencies, w.count));
+            }
+            long[] all = new long[(int) requests];
+            int pos = 0;
+            for (long[] s : samples) {
+                System.arraycopy(s, 0, all, pos, s.length);
+                pos += s.length;
+            }
+            Arrays.sort(all);
+            return new Report(requests, errors, Duration.ofNanos(elapsed), all);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Client c : clients) c.close();
+        }
+    }
+
+    /** One connection's request loop; collects its own latencies so workers never share state. */
+    private static final class Worker implements Callable<Worker> {
+        private final Client client;
+        private final Options options;
+        private final long deadline;
+        private final SplittableRandom random;
+        long[] latencies = new long[4096];
+        int count;
+        long errors;
+
+        Worker(Client client, Options options, long deadline, int seed) {
+            this.client = client;
+            this.options = options;
+            this.deadline = deadline;
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public Worker call() throws IOException {
+            StringBuilder batch = new StringBuilder(options.pipeline() * 32);
+            while (System.nanoTime() < deadline) {
+                batch.setLength(0);
+                for (int i = 0; i < options.pipeline(); i++) {
+                    String number = accountNumber(random.nextInt(options.accounts()));
+                    int op = random.nextInt(4);
+                    batch.append(op < 2 ? "GET " : op == 2 ? "DEPOSIT " : "WITHDRAW ").append(number);
+                    batch.append(op < 2 ? "\n" : " 0.01\n");
+                }
+                long sent = System.nanoTime();
+                client.send(batch);
+                for (int i = 0; i < options.pipeline(); i++) {
+                    String response = client.in.readLine();
+                    if (response == null) throw new IOException("Server closed the connection");
+                    if (response.startsWith("ERR")) errors++;
+                    record(System.nanoTime() - sent);
+                }
+            }
+            return this;
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static final class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader in;
+        final OutputStream out;
+
+        Client(InetSocketAddress server) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(server);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+        }
+
+        void send(CharSequence requests) throws IOException {
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Usage: {@code LoadGenerator [host] [port] [connections] [pipeline] [seconds] [accounts]}
+     * (defaults: localhost 7070 1000 16 10 10000).
+     */
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        Options options = new Options(
+                args.length > 2 ? Integer.parseInt(args[2]) : 1000,
+                args.length > 3 ? Integer.parseInt(args[3]) : 16,
+                args.length > 5 ? Integer.parseInt(args[5]) : 10_000,
+                Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 10));
+        System.out.println(run(new InetSocketAddress(host, port), options));
+    }
+}
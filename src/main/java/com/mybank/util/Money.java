@@ -0,0 +1,164 @@
+package com.mybank.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Conversions between decimal text (e.g. {@code "12.50"}) and fixed-point amounts held as {@code long}
+ * minor units (cents). All arithmetic is exact; no floating point or BigDecimal is involved.
+ */
+public final class Money {
+    /** Digits of {@code Long.MIN_VALUE} cents, which cannot be negated. */
+    private static final String MIN_VALUE_DIGITS = "92233720368547758.08";
+
+    private Money() {
+    }
+
+    /**
+     * Parses a decimal amount with at most two fraction digits into cents.
+     *
+     * @param text e.g. {@code "12"}, {@code "12.5"}, {@code "-0.75"}
+     * @return amount in cents
+     * @throws IllegalArgumentException if the text is not a valid amount or overflows
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Invalid amount: null");
+        }
+        String s = text.trim();
+        int len = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < len && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int intDigits = 0;
+        while (i < len && s.charAt(i) != '.') {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("Invalid amount: " + text);
+            if (units > (Long.MAX_VALUE - d) / 10) throw new IllegalArgumentException("Amount out of range: " + text);
+            units = units * 10 + d;
+            intDigits++;
+            i++;
+        }
+        int fracDigits = 0;
+        long frac = 0;
+        if (i < len) {
+            i++; // '.'
+            while (i < len) {
+                int d = s.charAt(i) - '0';
+                if (d < 0 || d > 9 || fracDigits == 2) throw new IllegalArgumentException("Invalid amount: " + text);
+                frac = frac * 10 + d;
+                fracDigits++;
+                i++;
+            }
+        }
+        if (intDigits == 0 && fracDigits == 0) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        if (fracDigits == 1) frac *= 10;
+        long cents;
+        try {
+            cents = Math.addExact(Math.multiplyExact(units, 100), frac);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + text);
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Parses {@code [from, to)} of a byte buffer (ASCII digits, optional sign and '.') into cents without
+     * creating a String. Surrounding spaces must already be trimmed.
+     *
+     * @throws IllegalArgumentException if the bytes are not a valid amount or overflow
+     */
+    public static long parse(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+        long units = 0;
+        int intDigits = 0;
+        for (; i < to && bytes.get(i) != '.'; i++, intDigits++) {
+            int d = bytes.get(i) - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("Invalid amount");
+            if (units > (Long.MAX_VALUE - d) / 10) throw new IllegalArgumentException("Amount out of range");
+            units = units * 10 + d;
+        }
+        int fracDigits = 0;
+        long frac = 0;
+        if (i < to) {
+            for (i++; i < to; i++, fracDigits++) {
+                int d = bytes.get(i) - '0';
+                if (d < 0 || d > 9 || fracDigits == 2) throw new IllegalArgumentException("Invalid amount");
+                frac = frac * 10 + d;
+            }
+        }
+        if (intDigits == 0 && fracDigits == 0) {
+            throw new IllegalArgumentException("Invalid amount");
+        }
+        if (fracDigits == 1) frac *= 10;
+        if (units > (Long.MAX_VALUE - frac) / 100) {
+            throw new IllegalArgumentException("Amount out of range");
+        }
+        long cents = units * 100 + frac;
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Formats cents as a decimal amount with exactly two fraction digits.
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(24), cents).toString();
+    }
+
+    /**
+     * Appends cents as a decimal amount with exactly two fraction digits, without allocating.
+     *
+     * @return {@code sb}
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            if (cents == Long.MIN_VALUE) {
+                return sb.append(MIN_VALUE_DIGITS);
+            }
+            cents = -cents;
+        }
+        long units = cents / 100;
+        int frac = (int) (cents % 100);
+        return sb.append(units).append('.').append((char) ('0' + frac / 10)).append((char) ('0' + frac % 10));
+    }
+
+    /**
+     * Writes cents as ASCII with exactly two fraction digits at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than 21 bytes remain
+     */
+    public static void putAscii(ByteBuffer buf, long cents) {
+        if (cents < 0) {
+            buf.put((byte) '-');
+            if (cents == Long.MIN_VALUE) {
+                for (int i = 0; i < MIN_VALUE_DIGITS.length(); i++) buf.put((byte) MIN_VALUE_DIGITS.charAt(i));
+                return;
+            }
+            cents = -cents;
+        }
+        long units = cents / 100;
+        int frac = (int) (cents % 100);
+        int start = buf.position();
+        do {
+            buf.put((byte) ('0' + units % 10));
+            units /= 10;
+        } while (units != 0);
+        for (int i = start, j = buf.position() - 1; i < j; i++, j--) {
+            byte t = buf.get(i);
+            buf.put(i, buf.get(j));
+            buf.put(j, t);
+        }
+        buf.put((byte) '.').put((byte) ('0' + frac / 10)).put((byte) ('0' + frac % 10));
+    }
+}
@@ -0,0 +1,47 @@
+package com.mybank.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountIdTest {
+    @Test
+    void equalityAndHashIgnoreCase() {
+        AccountId a = AccountId.of("Ab12Cd34Ef56");
+        AccountId b = AccountId.of("aB12cD34eF56");
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals("ab12cd34ef56", a.toString());
+        assertNotEquals(AccountId.of("A001"), AccountId.of("A0010"));
+        assertEquals("a001", AccountId.of("A001").toString());
+    }
+
+    @Test
+    void rejectsMalformedNumbers() {
+        assertNull(AccountId.parse(null));
+        assertNull(AccountId.parse("abc"));
+        assertNull(AccountId.parse("abcdefghijklm"));
+        assertNull(AccountId.parse("ab-12"));
+        assertNull(AccountId.parse("abé12"));
+        assertThrows(IllegalArgumentException.class, () -> AccountId.of("a b12"));
+    }
+
+    @Test
+    void ordersLikeLowerCasedNumbers() {
+        List<String> numbers = List.of("ZZZZ", "a001", "A0010", "0000", "9zzz", "b", "abcdefghijkl", "ABCDEFGHIJK", "A0019");
+        List<String> valid = new ArrayList<>();
+        for (String n : numbers) if (AccountId.parse(n) != null) valid.add(n);
+        List<String> byString = new ArrayList<>(valid);
+        byString.sort((x, y) -> x.toLowerCase().compareTo(y.toLowerCase()));
+        List<String> byId = new ArrayList<>(valid);
+        byId.sort((x, y) -> AccountId.of(x).compareTo(AccountId.of(y)));
+        assertEquals(byString, byId);
+        for (String n : valid) {
+            assertTrue(AccountId.MIN_VALUE.compareTo(AccountId.of(n)) < 0);
+            assertTrue(AccountId.MAX_VALUE.compareTo(AccountId.of(n)) > 0);
+        }
+    }
+}
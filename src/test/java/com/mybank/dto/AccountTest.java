@@ -2,6 +2,12 @@ package com.mybank.dto;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AccountTest {
@@ -14,11 +20,21 @@ class AccountTest {
         assertThrows(IllegalArgumentException.class, () -> new Account("A123", "Alice", -1));
     }
 
+    @Test
+    void restore_matchesTheValidatingConstructor() {
+        Account restored = Account.restore("Ab12", "Zoë Lee", 250);
+        Account built = new Account("Ab12", "Zoë Lee", 250);
+        assertEquals(built, restored);
+        assertEquals(built.getId(), restored.getId());
+        assertEquals("zoë lee", restored.getNormalizedHolderName());
+        assertEquals(250, restored.getBalance());
+    }
+
     @Test
     void deposit_increasesBalance() {
         Account acc = new Account("B123", "Bob", 100);
         acc.deposit(50);
-        assertEquals(150, acc.getBalance(), 1e-9);
+        assertEquals(150, acc.getBalance());
     }
 
     @Test
@@ -32,7 +48,7 @@ class AccountTest {
     void withdraw_decreasesBalance() {
         Account acc = new Account("D123", "Dan", 100);
         acc.withdraw(30);
-        assertEquals(70, acc.getBalance(), 1e-9);
+        assertEquals(70, acc.getBalance());
     }
 
     @Test
@@ -43,6 +59,31 @@ class AccountTest {
         assertThrows(IllegalArgumentException.class, () -> acc.withdraw(100));
     }
 
+    @Test
+    void withdraw_concurrentCallersNeverOverdraw() throws Exception {
+        Account acc = new Account("F123", "Fay", 1_000);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Long> seen = new ArrayList<>();
+        acc.setListener((account, oldBalance, newBalance) -> seen.add(newBalance)); // called under the account's monitor
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            acc.withdraw(1);
+                            succeeded.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            // insufficient balance
+                        }
+                    }
+                });
+            }
+        }
+        assertEquals(0, acc.getBalance());
+        assertEquals(1_000, succeeded.get());
+        for (int i = 0; i < seen.size(); i++) assertEquals(999 - i, seen.get(i));
+    }
+
     @Test
     void equalsAndHashCode_ignoreCase() {
         Account a1 = new Account("X123", "X", 1);
@@ -53,7 +94,7 @@ class AccountTest {
 
     @Test
     void toString_formatIncludesAllFields() {
-        Account a = new Account("Z999", "Zara", 123.45);
+        Account a = new Account("Z999", "Zara", 12345);
         String s = a.toString();
         assertTrue(s.contains("Z999"));
         assertTrue(s.contains("Zara"));
@@ -67,4 +108,28 @@ class AccountTest {
         assertEquals("NewName", a.getHolderName());
         assertThrows(IllegalArgumentException.class, () -> a.setHolderName(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void isValidAccountNumber_checksLengthAndCharacters() {
+        assertTrue(Account.isValidAccountNumber("abcD"));
+        assertTrue(Account.isValidAccountNumber("A23456789012"));
+        assertFalse(Account.isValidAccountNumber("A23"));
+        assertFalse(Account.isValidAccountNumber("A234567890123"));
+        assertFalse(Account.isValidAccountNumber("AB-D"));
+        assertFalse(Account.isValidAccountNumber("ABCé"));
+        assertFalse(Account.isValidAccountNumber(null));
+    }
+
+    @Test
+    void listener_receivesBalanceChanges() {
+        Account a = new Account("L123", "Lou", 10);
+        List<String> events = new ArrayList<>();
+        a.setListener((acc, oldBalance, newBalance) -> events.add(oldBalance + "->" + newBalance));
+        a.deposit(5);
+        a.withdraw(3);
+        assertThrows(IllegalArgumentException.class, () -> a.withdraw(100));
+        a.setListener(null);
+        a.deposit(1);
+        assertEquals(List.of("10->15", "15->12"), events);
+    }
+}
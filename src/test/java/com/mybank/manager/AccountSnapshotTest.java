@@ -0,0 +1,121 @@
+package com.mybank.manager;
+
+import com.mybank.dto.AccountState;
+import com.mybank.dto.Transfer;
+import com.mybank.persistence.ColumnarAccountStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void seesTheBookAsOfWhenItWasTaken() {
+        try (BankManager m = new BankManager(dir.resolve("accounts.csv"))) {
+            m.createAccount("AC01", "Grace Hopper", 500);
+            m.createAccount("AC02", "Ada Lovelace", 100);
+            try (AccountSnapshot s = m.snapshot()) {
+                m.deposit("AC01", 50);
+                m.transfer("AC01", "AC02", 200);
+                m.getByNumber("AC02").orElseThrow().setHolderName("Ada King");
+                m.createAccount("AC03", "Alan Turing", 300);
+
+                assertEquals(List.of(new AccountState("AC01", "Grace Hopper", 500), new AccountState("AC02", "Ada Lovelace", 100)),
+                        s.stream().toList());
+                assertEquals(2, s.count());
+                assertEquals(600, s.totalBalance());
+            }
+            try (AccountSnapshot s = m.snapshot()) {
+                assertEquals(List.of(new AccountState("AC01", "Grace Hopper", 350), new AccountState("AC02", "Ada King", 300),
+                        new AccountState("AC03", "Alan Turing", 300)), s.stream().toList());
+            }
+        }
+    }
+
+    @Test
+    void failedTransferIsNeverVisible() {
+        try (BankManager m = new BankManager(dir.resolve("accounts.csv"))) {
+            m.createAccount("AC01", "Grace Hopper", 500);
+            m.createAccount("AC02", "Ada Lovelace", 100);
+            assertThrows(IllegalArgumentException.class, () -> m.transferAll(List.of(
+                    new Transfer("AC01", "AC02", 100), new Transfer("AC02", "AC01", 10_000))));
+            try (AccountSnapshot s = m.snapshot()) {
+                assertEquals(List.of(500L, 100L), s.stream().map(AccountState::balance).toList());
+            }
+        }
+    }
+
+    @Test
+    void concurrentTransfersAreNeverSeenHalfApplied() throws Exception {
+        try (BankManager m = new BankManager(dir.resolve("accounts.csv"))) {
+            int accounts = 64;
+            for (int i = 0; i < accounts; i++) m.createAccount(String.format("AC%04d", i), "Holder " + i, 1_000);
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread[] writers = new Thread[4];
+            for (int w = 0; w < writers.length; w++) {
+                SplittableRandom random = new SplittableRandom(w);
+                writers[w] = Thread.ofPlatform().start(() -> {
+                    while (!stop.get()) {
+                        int from = random.nextInt(accounts), to = random.nextInt(accounts);
+                        if (from == to) continue;
+                        try {
+                            m.transfer(String.format("AC%04d", from), String.format("AC%04d", to), 1 + random.nextInt(50));
+                        } catch (IllegalArgumentException e) {
+                            // insufficient balance
+                        }
+                    }
+                });
+            }
+            try {
+                for (int i = 0; i < 500; i++) {
+                    try (AccountSnapshot s = m.snapshot()) {
+                        assertEquals(accounts * 1_000L, s.totalBalance());
+                        assertEquals(s.totalBalance(), s.totalBalance());
+                    }
+                }
+            } finally {
+                stop.set(true);
+                for (Thread t : writers) t.join();
+            }
+            try (AccountSnapshot s = m.snapshot()) {
+                assertEquals(m.totalBalance(), s.totalBalance());
+            }
+        }
+    }
+
+    @Test
+    void writesConsistentCsv() throws Exception {
+        Path export = dir.resolve("out/export.csv");
+        try (BankManager m = new BankManager(dir.resolve("accounts.csv"))) {
+            m.createAccount("AC01", "Grace Hopper", 500);
+            try (AccountSnapshot s = m.snapshot()) {
+                m.deposit("AC01", 1);
+                s.writeCsv(export);
+            }
+        }
+        assertEquals("accountNumber,holderName,balance\nAC01,Grace Hopper,5.00\n", Files.readString(export));
+        try (BankManager reloaded = new BankManager(export)) {
+            assertEquals(500, reloaded.getByNumber("AC01").orElseThrow().getBalance());
+        }
+    }
+
+    @Test
+    void columnarSnapshotIsACopy() {
+        try (BankManager m = new BankManager(dir.resolve("accounts.csv"), null, new ColumnarAccountStore())) {
+            m.createAccount("AC01", "Grace Hopper", 500);
+            try (AccountSnapshot s = m.snapshot()) {
+                m.deposit("AC01", 50);
+                assertEquals(List.of(new AccountState("AC01", "Grace Hopper", 500)), s.stream().toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTableTest {
+
+    @Test
+    void keepsRowsAcrossChunksAndSkipsRemovedOnes() {
+        AccountTable table = new AccountTable();
+        List<Account> added = new ArrayList<>();
+        for (int i = 0; i < AccountTable.CHUNK_ROWS + 10; i++) {
+            Account a = new Account(String.format("AC%06d", i), "Holder", i);
+            added.add(a);
+            table.add(a);
+        }
+        assertEquals(AccountTable.CHUNK_ROWS + 10, table.size());
+        assertSame(added.get(AccountTable.CHUNK_ROWS + 3), table.get(AccountTable.CHUNK_ROWS + 3));
+
+        table.remove(added.get(0));
+        table.remove(added.get(added.size() - 1));
+        assertNull(table.get(0));
+        assertEquals(AccountTable.CHUNK_ROWS + 10, table.size(), "rows never move");
+
+        List<Account> expected = added.subList(1, added.size() - 1);
+        assertEquals(expected, table.toList());
+        List<Account> iterated = new ArrayList<>();
+        table.forEach(iterated::add);
+        assertEquals(expected, iterated);
+    }
+}
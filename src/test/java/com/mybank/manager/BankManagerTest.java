@@ -1,12 +1,31 @@
 package com.mybank.manager;
 
 import com.mybank.dto.Account;
+import com.mybank.dto.BalanceStats;
+import com.mybank.dto.Transfer;
+import com.mybank.metrics.BankMetrics;
+import com.mybank.metrics.Operation;
+import com.mybank.persistence.BinaryAccountStore;
+import com.mybank.persistence.ColumnarAccountStore;
+import com.mybank.persistence.CsvLoadReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,7 +52,7 @@ public class BankManagerTest {
     void deposit_positive() {
         manager.createAccount("B222", "Bob", 50);
         manager.deposit("B222", 25);
-        assertEquals(75, manager.getByNumber("B222").get().getBalance(), 1e-9);
+        assertEquals(75, manager.getByNumber("B222").get().getBalance());
     }
 
     @Test
@@ -47,7 +66,7 @@ public class BankManagerTest {
     void withdraw_sufficient() {
         manager.createAccount("D444", "Dan", 100);
         manager.withdraw("D444", 40);
-        assertEquals(60, manager.getByNumber("D444").get().getBalance(), 1e-9);
+        assertEquals(60, manager.getByNumber("D444").get().getBalance());
     }
 
     @Test
@@ -78,7 +97,7 @@ public class BankManagerTest {
         manager.createAccount("H001", "H1", 10);
         manager.createAccount("H002", "H2", 20);
         manager.createAccount("H003", "H3", 30);
-        assertEquals(60, manager.totalBalance(), 1e-9);
+        assertEquals(60, manager.totalBalance());
         assertEquals(20, manager.averageBalance(), 1e-9);
     }
 
@@ -109,12 +128,620 @@ public class BankManagerTest {
 
     @Test
     void save_and_reload_csv_roundTrip() {
-        manager.createAccount("K001", "Kay", 7.5);
-        manager.createAccount("K002", "Ken", 12.25);
+        manager.createAccount("K001", "Kay", 750);
+        manager.createAccount("K002", "Ken", 1225);
         manager.saveToCsv(tempCsv);
         BankManager reloaded = new BankManager(tempCsv);
         assertEquals(2, reloaded.getAllAccounts().size());
         assertTrue(reloaded.getByNumber("K001").isPresent());
-        assertEquals(19.75, reloaded.totalBalance(), 1e-9);
+        assertEquals(1975, reloaded.totalBalance());
+    }
+
+    @Test
+    void getByNumber_caseInsensitive() {
+        manager.createAccount("L001", "Lee", 1);
+        assertTrue(manager.getByNumber("l001").isPresent());
+        assertFalse(manager.getByNumber("L002").isPresent());
+        assertFalse(manager.getByNumber(null).isPresent());
+        assertThrows(IllegalArgumentException.class, () -> manager.createAccount("l001", "Other", 0));
+    }
+
+    @Test
+    void load_skipsDuplicateNumbers() throws Exception {
+        Files.writeString(tempCsv, "accountNumber,holderName,balance\nM001,Mia,1\nm001,Max,2\nM002,Moe,3\n");
+        BankManager loaded = new BankManager(tempCsv);
+        assertEquals(2, loaded.getAllAccounts().size());
+        assertEquals("Mia", loaded.getByNumber("M001").get().getHolderName());
+        assertEquals(new CsvLoadReport(2, 1, 0), loaded.getLoadReport());
+    }
+
+    @Test
+    void concurrent_deposits_are_not_lost() throws Exception {
+        manager.createAccount("N001", "Nia", 0);
+        manager.createAccount("N002", "Ned", 0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            String target = t % 2 == 0 ? "N001" : "n002";
+            pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) manager.deposit(target, 1);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(4000, manager.getByNumber("N001").get().getBalance());
+        assertEquals(4000, manager.getByNumber("N002").get().getBalance());
+    }
+
+    @Test
+    void concurrent_withdrawals_never_overdraw() throws Exception {
+        manager.createAccount("O001", "Oli", 100);
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        manager.withdraw("O001", 1);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException ignored) {
+                        // insufficient balance
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(100, succeeded.get());
+        assertEquals(0, manager.getByNumber("O001").get().getBalance());
+    }
+
+    @Test
+    void concurrent_createAccount_allows_single_winner() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                try {
+                    manager.createAccount("P001", "Pat", 1);
+                    created.incrementAndGet();
+                } catch (IllegalArgumentException ignored) {
+                    // duplicate
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1, created.get());
+        assertEquals(1, manager.getAllAccounts().size());
+    }
+
+    @Test
+    void transfer_movesFunds() {
+        manager.createAccount("Q001", "Quin", 100);
+        manager.createAccount("Q002", "Quoc", 10);
+        manager.transfer("q001", "Q002", 40);
+        assertEquals(60, manager.getByNumber("Q001").get().getBalance());
+        assertEquals(50, manager.getByNumber("Q002").get().getBalance());
+    }
+
+    @Test
+    void transfer_rejectsInvalidRequests() {
+        manager.createAccount("R001", "Ray", 10);
+        manager.createAccount("R002", "Rex", 10);
+        assertThrows(IllegalArgumentException.class, () -> manager.transfer("R001", "R002", 11));
+        assertThrows(IllegalArgumentException.class, () -> manager.transfer("R001", "R002", 0));
+        assertThrows(IllegalArgumentException.class, () -> manager.transfer("R001", "r001", 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.transfer("R001", "R999", 1));
+        assertEquals(20, manager.totalBalance());
+    }
+
+    @Test
+    void transferAll_isAllOrNothing() {
+        manager.createAccount("S001", "Sam", 10);
+        manager.createAccount("S002", "Sue", 0);
+        manager.createAccount("S003", "Sid", 0);
+        assertThrows(IllegalArgumentException.class, () -> manager.transferAll(List.of(
+                new Transfer("S001", "S002", 5),
+                new Transfer("S002", "S003", 5),
+                new Transfer("S001", "S003", 6))));
+        assertEquals(10, manager.getByNumber("S001").get().getBalance());
+        assertEquals(0, manager.getByNumber("S002").get().getBalance());
+        assertEquals(0, manager.getByNumber("S003").get().getBalance());
+
+        manager.transferAll(List.of(new Transfer("S001", "S002", 5), new Transfer("S002", "S003", 5)));
+        assertEquals(5, manager.getByNumber("S001").get().getBalance());
+        assertEquals(5, manager.getByNumber("S003").get().getBalance());
+    }
+
+    @Test
+    void concurrent_opposing_transfers_do_not_deadlock() throws Exception {
+        manager.createAccount("T001", "Tia", 1000);
+        manager.createAccount("T002", "Tom", 1000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            boolean forward = t % 2 == 0;
+            pool.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (forward) manager.transfer("T001", "T002", 1);
+                    else manager.transfer("T002", "T001", 1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(2000, manager.totalBalance());
+    }
+
+    @Test
+    void load_parsesAmountsExactlyAndSkipsInvalidOnes() throws Exception {
+        Files.writeString(tempCsv, "accountNumber,holderName,balance\nU001,Uma,0.10\nU002,Uli,0.20\nU003,Ula,1.005\nU004,Udo,abc\n");
+        BankManager loaded = new BankManager(tempCsv);
+        assertEquals(2, loaded.getAllAccounts().size());
+        assertEquals(30, loaded.totalBalance());
+        assertEquals(new CsvLoadReport(2, 0, 2), loaded.getLoadReport());
+    }
+
+    @Test
+    void journal_replaysTransactionsSinceLastSave() throws Exception {
+        Path journal = Files.createTempFile("accounts", ".journal");
+        Files.delete(journal);
+        try (BankManager m = new BankManager(tempCsv, journal)) {
+            m.createAccount("V001", "Val", 100);
+            m.createAccount("V002", "Vic", 0);
+            m.saveToCsv(tempCsv);
+            m.deposit("V001", 50);
+            m.withdraw("V001", 30);
+            m.transfer("V001", "V002", 20);
+            m.createAccount("V003", "Vera", 5);
+        }
+        try (BankManager m = new BankManager(tempCsv, journal)) {
+            assertEquals(100, m.getByNumber("V001").get().getBalance());
+            assertEquals(20, m.getByNumber("V002").get().getBalance());
+            assertEquals(5, m.getByNumber("V003").get().getBalance());
+            m.saveToCsv(tempCsv);
+        }
+        try (BankManager m = new BankManager(tempCsv, journal)) {
+            assertEquals(3, m.getAllAccounts().size());
+            assertEquals(125, m.totalBalance());
+        }
+    }
+
+    @Test
+    void exportCsv_streamsFilteredRows() throws Exception {
+        manager.createAccount("X001", "Xena Lane", 500);
+        manager.createAccount("X002", "Xavier Low", 150);
+        manager.createAccount("X003", "Yara Lane", 300);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, manager.exportCsv(AccountFilter.all(), out, false));
+        assertEquals("accountNumber,holderName,balance\nX001,Xena Lane,5.00\nX002,Xavier Low,1.50\nX003,Yara Lane,3.00\n",
+                out.toString(StandardCharsets.UTF_8));
+
+        manager.setBalanceIndexEnabled(true);
+        out.reset();
+        assertEquals(2, manager.exportCsv(AccountFilter.balanceBetween(500, 200), out, false));
+        assertEquals("accountNumber,holderName,balance\nX003,Yara Lane,3.00\nX001,Xena Lane,5.00\n",
+                out.toString(StandardCharsets.UTF_8));
+
+        out.reset();
+        assertEquals(2, manager.exportCsv(AccountFilter.nameContains("LANE"), out, true));
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("accountNumber,holderName,balance\nX001,Xena Lane,5.00\nX003,Yara Lane,3.00\n",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        out.reset();
+        WritableByteChannel channel = Channels.newChannel(out);
+        assertEquals(2, manager.exportCsv(AccountFilter.nameContains("LANE"), channel, true));
+        assertTrue(channel.isOpen()); // the gzip stream is closed, the caller's channel is not
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().count() - 1);
+        }
+        assertEquals(4, manager.getMetrics().stats(Operation.EXPORT_CSV).calls());
+    }
+
+    @Test
+    void exportCsv_fromColumnsMatchesHeapMode() throws Exception {
+        try (BankManager m = new BankManager(tempCsv, null, new ColumnarAccountStore())) {
+            m.createAccount("Y001", "Zoë Quinn", 100);
+            m.createAccount("Y002", "Ann Quill", 200);
+            m.createAccount("Y003", "Bo Smith", 300);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(2, m.exportCsv(AccountFilter.nameContains("qui"), out, false));
+            assertEquals("accountNumber,holderName,balance\nY001,Zoë Quinn,1.00\nY002,Ann Quill,2.00\n",
+                    out.toString(StandardCharsets.UTF_8));
+            out.reset();
+            assertEquals(1, m.exportCsv(AccountFilter.nameContains("zoë"), out, false));
+            out.reset();
+            assertEquals(2, m.exportCsv(AccountFilter.balanceBetween(150, 300), out, false));
+        }
+    }
+
+    @Test
+    void warmStart_restoresAccountsAndIndexesUntilCsvChanges() throws Exception {
+        Path dir = Files.createTempDirectory("warm");
+        Path csv = dir.resolve("accounts.csv"), journal = dir.resolve("accounts.journal"), warm = dir.resolve("accounts.warm");
+        try (BankManager m = new BankManager(csv, journal, warm)) {
+            assertFalse(m.isWarmStarted());
+            m.createAccount("W001", "Wanda Stone", 300);
+            m.createAccount("W002", "Walt Stone", 100);
+            m.createAccount("W003", "Wes Moss", 200);
+            m.saveToCsv(csv);
+            m.deposit("W002", 500);
+        }
+        assertTrue(Files.exists(warm));
+        try (BankManager m = new BankManager(csv, journal, warm)) {
+            assertTrue(m.isWarmStarted());
+            assertEquals(600, m.getByNumber("w002").get().getBalance()); // journal replayed on top
+            assertEquals(1100, m.totalBalance());
+            assertEquals(List.of("W003", "W001", "W002"), m.findByBalanceRange(0, 1_000).stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("W001", "W002"), m.findByName("stone").stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("W002", "W001"), m.findByNamePrefix("wa").stream().map(Account::getAccountNumber).toList());
+            m.withdraw("W001", 50);
+            assertEquals(List.of("W003", "W001", "W002"), m.findByBalanceRange(0, 1_000).stream().map(Account::getAccountNumber).toList());
+        }
+
+        Files.writeString(csv, "accountNumber,holderName,balance\nW009,Edited,1.00\n");
+        try (BankManager m = new BankManager(csv, journal, warm)) {
+            assertFalse(m.isWarmStarted());
+            assertTrue(m.getByNumber("W009").isPresent());
+        }
+    }
+
+    @Test
+    void transactionIds_applyEachTransactionOnce() {
+        manager.createAccount("D001", "Dee", 100);
+        manager.createAccount("D002", "Dan", 0);
+        assertTrue(manager.deposit("tx-1", "D001", 10));
+        assertFalse(manager.deposit("tx-1", "D001", 10));
+        assertFalse(manager.withdraw("tx-1", "D001", 10));
+        assertTrue(manager.transfer("tx-2", "D001", "D002", 30));
+        assertFalse(manager.transfer("tx-2", "D001", "D002", 30));
+        assertEquals(80, manager.getByNumber("D001").get().getBalance());
+        assertEquals(30, manager.getByNumber("D002").get().getBalance());
+
+        // a rejected transaction does not use up its ID
+        assertThrows(IllegalArgumentException.class, () -> manager.withdraw("tx-3", "D001", 1_000));
+        assertTrue(manager.withdraw("tx-3", "D001", 5));
+        assertThrows(IllegalArgumentException.class, () -> manager.deposit("", "D001", 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.deposit("x".repeat(65), "D001", 1));
+
+        manager.setDedupeWindow(1, Duration.ofHours(1));
+        assertTrue(manager.deposit("tx-4", "D002", 1));
+        assertTrue(manager.deposit("tx-1", "D002", 1)); // evicted
+        assertThrows(IllegalArgumentException.class, () -> manager.setDedupeWindow(0, Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> manager.setDedupeWindow(1, Duration.ZERO));
+    }
+
+    @Test
+    void transactionIds_surviveRestartThroughJournal() throws Exception {
+        Path journal = Files.createTempFile("dedupe", ".journal");
+        Files.delete(journal);
+        try (BankManager m = new BankManager(tempCsv, journal)) {
+            m.createAccount("E001", "Eve", 100);
+            m.createAccount("E002", "Eli", 0);
+            assertTrue(m.deposit("tx-1", "E001", 10));
+            assertTrue(m.transferAll("tx-2", List.of(new Transfer("E001", "E002", 5), new Transfer("E001", "E002", 5))));
+        }
+        try (BankManager m = new BankManager(tempCsv, journal)) {
+            assertFalse(m.deposit("tx-1", "E001", 10));
+            assertFalse(m.transfer("tx-2", "E001", "E002", 5));
+            assertTrue(m.deposit("tx-3", "E001", 1));
+            assertEquals(101, m.getByNumber("E001").get().getBalance());
+            assertEquals(10, m.getByNumber("E002").get().getBalance());
+        }
+    }
+
+    @Test
+    void transactionIds_surviveRestartAfterSnapshot() throws Exception {
+        Path dir = Files.createTempDirectory("bank");
+        Path csv = dir.resolve("accounts.csv");
+        Path journal = dir.resolve("accounts.journal");
+        try (BankManager m = new BankManager(csv, journal)) {
+            m.createAccount("F001", "Fay", 100);
+            assertTrue(m.deposit("tx-1", "F001", 10));
+            m.saveToCsv(csv);
+            assertTrue(m.deposit("tx-2", "F001", 1));
+            m.saveToCsv(csv);
+        }
+        // covered segments are gone at once; the IDs live on in the side file
+        assertEquals(List.of("accounts.csv", "accounts.journal", "accounts.journal.txids"),
+                Files.list(dir).map(p -> p.getFileName().toString()).sorted().toList());
+        try (BankManager m = new BankManager(csv, journal)) {
+            assertFalse(m.deposit("tx-1", "F001", 10));
+            assertFalse(m.deposit("tx-2", "F001", 1));
+            assertEquals(111, m.getByNumber("F001").get().getBalance());
+        }
+    }
+
+    @Test
+    void saveToCsv_isAtomicAndDiscardsCoveredJournal() throws Exception {
+        Path dir = Files.createTempDirectory("bank");
+        Path csv = dir.resolve("accounts.csv");
+        Path journal = dir.resolve("accounts.journal");
+        try (BankManager m = new BankManager(csv, journal)) {
+            m.createAccount("W001", "Wes", 10);
+            m.saveToCsv(csv);
+            m.deposit("W001", 5);
+            m.saveToCsv(dir.resolve("copy.csv"));
+        }
+        assertFalse(Files.exists(dir.resolve("accounts.csv.tmp")));
+        assertEquals(List.of("accounts.csv", "accounts.journal", "accounts.journal.txids", "copy.csv"),
+                Files.list(dir).map(p -> p.getFileName().toString()).sorted().toList());
+        assertTrue(Files.readString(csv).contains("W001,Wes,0.10"));
+        assertTrue(Files.readString(dir.resolve("copy.csv")).contains("W001,Wes,0.15"));
+        try (BankManager m = new BankManager(csv, journal)) {
+            assertEquals(15, m.getByNumber("W001").get().getBalance());
+        }
+        try (BankManager m = new BankManager(dir.resolve("copy.csv"), journal)) {
+            assertEquals(15, m.getByNumber("W001").get().getBalance());
+        }
+    }
+
+    @Test
+    void backgroundSnapshots_triggerOnChangeCount() throws Exception {
+        manager.createAccount("X001", "Xan", 0);
+        manager.startSnapshots(Duration.ZERO, 3);
+        try {
+            manager.deposit("X001", 1);
+            manager.deposit("X001", 1);
+            Thread.sleep(300);
+            assertFalse(Files.readString(tempCsv).contains("X001"), "snapshot before threshold");
+            manager.deposit("X001", 1);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (System.currentTimeMillis() < deadline && !Files.readString(tempCsv).contains("X001,Xan,0.03")) {
+                Thread.sleep(20);
+            }
+            assertTrue(Files.readString(tempCsv).contains("X001,Xan,0.03"));
+        } finally {
+            manager.stopSnapshots();
+        }
+    }
+
+    @Test
+    void binaryStore_loadsLazilyAndWritesBalancesInPlace() throws Exception {
+        manager.createAccount("Y001", "Yan", 100);
+        manager.createAccount("Y002", "Yul", 200);
+        Path bin = Files.createTempFile("accounts", ".bin");
+        manager.saveToBinary(bin);
+
+        try (BankManager m = new BankManager(BinaryAccountStore.open(bin))) {
+            m.deposit("y001", 50);
+            m.transfer("Y002", "Y001", 25);
+            m.createAccount("Y003", "Yve", 1);
+            assertThrows(IllegalArgumentException.class, () -> m.createAccount("Y002", "Dup", 1));
+            assertEquals(351, m.totalBalance());
+        }
+        try (BinaryAccountStore store = BinaryAccountStore.open(bin)) {
+            assertTrue(store.verify());
+            assertEquals(175, store.balance(store.indexOf("Y001")));
+            assertEquals(175, store.balance(store.indexOf("Y002")));
+            assertEquals(1, store.balance(store.indexOf("Y003"))); // created after opening, written on close
+        }
+    }
+
+    @Test
+    void binaryStore_keepsAccountsCreatedAfterOpening() throws Exception {
+        Path bin = Files.createTempFile("accounts", ".bin");
+        BinaryAccountStore.write(bin, List.of(new Account("Z001", "Zed", 100)));
+
+        try (BankManager m = new BankManager(BinaryAccountStore.open(bin))) {
+            m.createAccount("Z002", "Zia", 10);
+            m.deposit("Z002", 5);
+            m.deposit("Z001", 1);
+        }
+        try (BankManager m = new BankManager(BinaryAccountStore.open(bin))) {
+            assertEquals(15, m.getByNumber("z002").orElseThrow().getBalance());
+            assertEquals(101, m.getByNumber("Z001").orElseThrow().getBalance());
+            m.deposit("Z002", 5);
+        }
+        try (BinaryAccountStore store = BinaryAccountStore.open(bin)) {
+            assertTrue(store.verify());
+            assertEquals(2, store.size());
+            assertEquals(20, store.balance(store.indexOf("Z002")));
+        }
+    }
+
+    @Test
+    void balanceIndex_tracksEveryBalanceChange() {
+        manager.createAccount("Z001", "Z1", 10);
+        manager.createAccount("Z002", "Z2", 20);
+        manager.createAccount("Z003", "Z3", 30);
+        manager.deposit("Z001", 100);
+        manager.withdraw("Z003", 25);
+        manager.transfer("Z002", "Z003", 5);
+        manager.getByNumber("Z002").get().deposit(1); // direct change on the live account
+        assertEquals(List.of("Z003", "Z002"), manager.findByBalanceRange(5, 20).stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("Z001", "Z002"), manager.topNByBalance(2).stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("Z002", "Z001"), manager.filterByMinBalance(16).stream().map(Account::getAccountNumber).toList());
+        assertTrue(manager.findByBalanceRange(111, 1000).isEmpty());
+    }
+
+    @Test
+    void balanceQueries_matchWithIndexDisabled() {
+        for (int i = 0; i < 50; i++) {
+            manager.createAccount(String.format("AA%02d", i), "A", (i * 37) % 101);
+        }
+        List<Account> top = manager.topNByBalance(7);
+        List<Account> range = manager.findByBalanceRange(80, 20);
+        List<Account> min = manager.filterByMinBalance(90);
+        manager.setBalanceIndexEnabled(false);
+        assertEquals(top.stream().map(Account::getBalance).toList(),
+                manager.topNByBalance(7).stream().map(Account::getBalance).toList());
+        assertEquals(range.size(), manager.findByBalanceRange(20, 80).size());
+        assertEquals(min.size(), manager.filterByMinBalance(90).size());
+        assertEquals(50, manager.topNByBalance(100).size());
+        manager.deposit("AA00", 1000);
+        manager.setBalanceIndexEnabled(true);
+        assertEquals("AA00", manager.topNByBalance(1).get(0).getAccountNumber());
+    }
+
+    @Test
+    void balanceStats_areMaintainedIncrementally() {
+        assertEquals(new BalanceStats(0, 0, 0, 0, 0, 0), manager.balanceStats());
+        manager.createAccount("AB01", "A", 20);
+        manager.createAccount("AB02", "B", 40);
+        manager.createAccount("AB03", "C", 60);
+        manager.deposit("AB01", 10);
+        manager.withdraw("AB03", 10);
+        manager.transfer("AB02", "AB01", 10);
+        // balances 40, 30, 50
+        BalanceStats stats = manager.balanceStats();
+        assertEquals(3, stats.count());
+        assertEquals(120, stats.total());
+        assertEquals(40, stats.average(), 1e-9);
+        assertEquals(200.0 / 3, stats.variance(), 1e-6);
+        assertEquals(30, stats.min());
+        assertEquals(50, stats.max());
+        manager.setBalanceIndexEnabled(false);
+        assertEquals(stats, manager.balanceStats());
+        assertEquals(120, manager.totalBalance());
+        assertEquals(40, manager.averageBalance(), 1e-9);
+    }
+
+    @Test
+    void nameSearch_followsRenames() {
+        manager.createAccount("AC01", "Grace Hopper", 1);
+        Account ada = manager.createAccount("AC02", "Ada Lovelace", 1);
+        manager.createAccount("AC03", "Alan Turing", 1);
+        assertEquals(List.of("AC01"), manager.findByName("HOP").stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("AC02"), manager.findByName(" OV ").stream().map(Account::getAccountNumber).toList());
+        assertTrue(manager.findByName("xx").isEmpty());
+        assertEquals(3, manager.findByName(null).size());
+
+        ada.setHolderName("Ada King");
+        assertTrue(manager.findByName("lovelace").isEmpty());
+        assertEquals(List.of("AC02"), manager.findByName("king").stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("AC02", "AC03"), manager.findByNamePrefix("a").stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("AC02"), manager.findByNamePrefix("ADA K").stream().map(Account::getAccountNumber).toList());
+    }
+
+    @Test
+    void columnarMode_servesQueriesFromColumns() {
+        try (BankManager m = new BankManager(tempCsv, null, new ColumnarAccountStore())) {
+            m.createAccount("AC01", "Grace Hopper", 500);
+            m.createAccount("AC02", "Ada Lovelace", 100);
+            m.createAccount("AC03", "Alan Turing", 300);
+            assertThrows(IllegalArgumentException.class, () -> m.createAccount("ac01", "Dup", 0));
+
+            m.deposit("ac02", 50);
+            m.withdraw("AC03", 100);
+            m.transfer("AC01", "AC02", 200);
+            assertThrows(IllegalArgumentException.class, () -> m.withdraw("AC02", 10_000));
+            assertThrows(IllegalArgumentException.class, () -> m.transferAll(List.of(
+                    new Transfer("AC01", "AC03", 100), new Transfer("AC02", "AC03", 10_000))));
+            assertThrows(IllegalArgumentException.class, () -> m.deposit("NOPE", 1));
+
+            assertEquals(350, m.getByNumber("AC02").orElseThrow().getBalance());
+            assertEquals(850, m.totalBalance());
+            assertEquals(List.of("AC01", "AC02", "AC03"), m.getAllAccounts().stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("AC01"), m.findByName("HOPP").stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("AC02", "AC03"), m.findByNamePrefix("a").stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("AC01", "AC02"), m.findByBalanceRange(400, 201).stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("AC02"), m.filterByMinBalance(301).stream().map(Account::getAccountNumber).toList());
+            assertEquals(List.of("AC02", "AC01"), m.topNByBalance(2).stream().map(Account::getAccountNumber).toList());
+            BalanceStats stats = m.balanceStats();
+            assertEquals(200, stats.min());
+            assertEquals(350, stats.max());
+
+            m.getByNumber("AC01").orElseThrow().deposit(1_000); // detached view
+            assertEquals(300, m.getByNumber("AC01").orElseThrow().getBalance());
+            m.saveToCsv(tempCsv);
+        }
+        BankManager reloaded = new BankManager(tempCsv);
+        assertEquals(850, reloaded.totalBalance());
+    }
+
+    @Test
+    void columnarMode_replaysJournal() throws Exception {
+        Path journal = Files.createTempFile("columnar", ".journal");
+        try (BankManager m = new BankManager(tempCsv, journal, new ColumnarAccountStore())) {
+            m.createAccount("AC01", "Al", 100);
+            m.createAccount("AC02", "Bo", 0);
+            m.transfer("AC01", "AC02", 40);
+            m.withdraw("AC02", 10);
+        }
+        try (BankManager m = new BankManager(tempCsv, journal, new ColumnarAccountStore())) {
+            assertEquals(60, m.getByNumber("AC01").orElseThrow().getBalance());
+            assertEquals(30, m.getByNumber("AC02").orElseThrow().getBalance());
+            assertEquals(90, m.totalBalance());
+        }
+    }
+
+    @Test
+    void metrics_countOperationsAndFailures() {
+        BankMetrics metrics = manager.getMetrics();
+        manager.createAccount("M001", "Mia", 100);
+        manager.deposit("M001", 5);
+        assertThrows(IllegalArgumentException.class, () -> manager.withdraw("M001", 1_000));
+        assertThrows(IllegalArgumentException.class, () -> manager.deposit("NONE", 1));
+        manager.getByNumber("M001");
+        manager.findByName("mia");
+        manager.averageBalance();
+        manager.saveToCsv(tempCsv);
+
+        assertEquals(1, metrics.stats(Operation.CREATE_ACCOUNT).calls());
+        assertEquals(2, metrics.stats(Operation.DEPOSIT).calls());
+        assertEquals(1, metrics.stats(Operation.DEPOSIT).failures().get(BankMetrics.Failure.ACCOUNT_NOT_FOUND));
+        assertEquals(1, metrics.stats(Operation.WITHDRAW).failures().get(BankMetrics.Failure.INSUFFICIENT_BALANCE));
+        assertEquals(1, metrics.stats(Operation.GET_BY_NUMBER).calls()); // internal lookups are not counted
+        assertEquals(1, metrics.stats(Operation.FIND_BY_NAME).latency().count());
+        assertEquals(1, metrics.stats(Operation.AVERAGE_BALANCE).calls());
+        assertEquals(1, metrics.stats(Operation.SAVE_CSV).calls());
+        assertEquals(1, new BankManager(tempCsv).getMetrics().stats(Operation.LOAD_CSV).calls());
+
+        metrics.setEnabled(false);
+        manager.deposit("M001", 5);
+        assertEquals(2, metrics.stats(Operation.DEPOSIT).calls());
+    }
+
+    @Test
+    void parallelQueries_matchSequentialResults() {
+        for (int i = 0; i < 40_000; i++) {
+            manager.createAccount(String.format("P%06d", i), i % 7 == 0 ? "Ab " + i : "Holder " + i, (i * 7_919L) % 100_000);
+        }
+        manager.setBalanceIndexEnabled(false);
+        manager.setQueryCacheSize(0);
+        manager.setParallelQueries(1, 0);
+        List<Account> byName = manager.findByName("ab");
+        List<Account> range = manager.findByBalanceRange(1_000, 2_000);
+        List<Account> min = manager.filterByMinBalance(99_000);
+        List<Long> top = manager.topNByBalance(25).stream().map(Account::getBalance).toList();
+        BalanceStats stats = manager.balanceStats();
+
+        manager.setParallelQueries(4, 0);
+        assertEquals(byName, manager.findByName("ab"));
+        assertEquals(range, manager.findByBalanceRange(1_000, 2_000));
+        assertEquals(min, manager.filterByMinBalance(99_000));
+        assertEquals(top, manager.topNByBalance(25).stream().map(Account::getBalance).toList());
+        assertEquals(stats, manager.balanceStats());
+        assertThrows(IllegalArgumentException.class, () -> manager.setParallelQueries(0, 0));
+    }
+
+    @Test
+    void queryCache_isInvalidatedByEveryMutation() {
+        Account ann = manager.createAccount("Q001", "Ann Lee", 100);
+        manager.createAccount("Q002", "Bob Lee", 300);
+        List<Account> lees = manager.findByName("lee");
+        assertSame(lees, manager.findByName(" LEE "));
+        assertSame(manager.topNByBalance(1), manager.topNByBalance(1));
+        assertThrows(UnsupportedOperationException.class, () -> lees.clear());
+
+        manager.createAccount("Q003", "Cy Lee", 50);
+        assertEquals(3, manager.findByName("lee").size());
+
+        manager.deposit("Q001", 500);
+        assertEquals("Q001", manager.topNByBalance(1).get(0).getAccountNumber());
+        manager.withdraw("Q001", 500);
+        assertEquals("Q002", manager.topNByBalance(1).get(0).getAccountNumber());
+        manager.transfer("Q002", "Q003", 300);
+        assertEquals(List.of("Q003"), manager.filterByMinBalance(301).stream().map(Account::getAccountNumber).toList());
+        assertEquals(List.of("Q002"), manager.findByBalanceRange(0, 0).stream().map(Account::getAccountNumber).toList());
+
+        ann.setHolderName("Ann Smith");
+        assertEquals(2, manager.findByName("lee").size());
+        assertEquals(List.of("Q001"), manager.findByNamePrefix("ann s").stream().map(Account::getAccountNumber).toList());
+
+        manager.setQueryCacheSize(0);
+        assertNotSame(manager.findByName("lee"), manager.findByName("lee"));
+        assertThrows(IllegalArgumentException.class, () -> manager.setQueryCacheSize(-1));
     }
 }
@@ -0,0 +1,102 @@
+package com.mybank.manager;
+
+import com.mybank.metrics.BankMetrics;
+import com.mybank.metrics.Operation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchTransactionProcessorTest {
+    @TempDir
+    Path dir;
+    private BankManager manager;
+
+    @BeforeEach
+    void setup() {
+        manager = new BankManager(dir.resolve("accounts.csv"));
+        manager.createAccount("A001", "Alice", 10_000);
+        manager.createAccount("B002", "Bob", 5_000);
+    }
+
+    private BatchTransactionProcessor.Result run(int partitions, int blockSize, String... lines) throws Exception {
+        Path in = dir.resolve("batch.txt");
+        Files.write(in, List.of(lines));
+        return new BatchTransactionProcessor(manager, partitions, blockSize).process(in, dir.resolve("rejects.csv"));
+    }
+
+    @Test
+    void appliesValidLinesAndRejectsTheRest() throws Exception {
+        BatchTransactionProcessor.Result r = run(4, 2,
+                "# end of day",
+                "D,A001,1.00",
+                "w,b002,10.00",
+                "",
+                "T,A001,B002,50.00",
+                "W,B002,999.00",
+                "X,A001,1.00",
+                "D,Z999,1.00",
+                "D,A001,abc");
+        assertEquals(new BatchTransactionProcessor.Result(7, 3, 4), r);
+        assertEquals(1, manager.getMetrics().stats(Operation.TRANSFER).calls());
+        assertEquals(1, manager.getMetrics().stats(Operation.WITHDRAW).failures().get(BankMetrics.Failure.INSUFFICIENT_BALANCE));
+        assertEquals(10_000 + 100 - 5_000, manager.getByNumber("A001").orElseThrow().getBalance());
+        assertEquals(5_000 - 1_000 + 5_000, manager.getByNumber("B002").orElseThrow().getBalance());
+
+        List<String> rejects = Files.readAllLines(dir.resolve("rejects.csv"));
+        assertEquals(4, rejects.size());
+        assertEquals("6,Insufficient balance,W,B002,999.00", rejects.get(0));
+        assertTrue(rejects.get(1).startsWith("7,Unknown transaction type: X,"));
+        assertTrue(rejects.get(2).startsWith("8,Account not found: Z999,"));
+        assertTrue(rejects.get(3).startsWith("9,"));
+    }
+
+    @Test
+    void debitsOfOneAccountKeepFileOrder() throws Exception {
+        String[] lines = new String[1_000];
+        for (int i = 0; i < lines.length; i += 2) {
+            lines[i] = "W,A001,100.00";
+            lines[i + 1] = "D,A001,100.00";
+        }
+        BatchTransactionProcessor.Result r = run(8, 64, lines);
+        assertEquals(0, r.rejected());
+        assertEquals(10_000, manager.getByNumber("A001").orElseThrow().getBalance());
+    }
+
+    @Test
+    void transfersAcrossPartitionsConserveMoney() throws Exception {
+        String[] lines = new String[2_000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = i % 2 == 0 ? "T,A001,B002,0.01" : "T,B002,A001,0.01";
+        }
+        BatchTransactionProcessor.Result r = run(4, 128, lines);
+        assertEquals(2_000, r.applied());
+        assertEquals(15_000, manager.totalBalance());
+    }
+
+    @Test
+    void journaledBatchIsDurable() throws Exception {
+        Path csv = dir.resolve("j.csv");
+        Path journal = dir.resolve("j.journal");
+        try (BankManager m = new BankManager(csv, journal)) {
+            m.createAccount("C003", "Carol", 0);
+            Path in = dir.resolve("j.txt");
+            Files.write(in, List.of("D,C003,2.50", "D,C003,0.50"));
+            new BatchTransactionProcessor(m).process(in, dir.resolve("j.rejects"));
+        }
+        try (BankManager reopened = new BankManager(csv, journal)) {
+            assertEquals(300, reopened.getByNumber("C003").orElseThrow().getBalance());
+        }
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchTransactionProcessor(manager, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BatchTransactionProcessor(manager, 1, 0));
+    }
+}
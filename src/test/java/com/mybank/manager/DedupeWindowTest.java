@@ -0,0 +1,140 @@
+package com.mybank.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DedupeWindowTest {
+    @Test
+    void evictsOldestBeyondSizeAndAge() {
+        AtomicLong now = new AtomicLong();
+        DedupeWindow w = new DedupeWindow(3, 100, now::get);
+        assertNotNull(w.claim("a"));
+        assertNull(w.claim("a"));
+        now.set(10);
+        assertNotNull(w.claim("b"));
+        assertNotNull(w.claim("c"));
+        assertNotNull(w.claim("d"));
+        assertNotNull(w.claim("e")); // evicts "a", the fourth entry was over the limit
+        assertFalse(w.contains("a"));
+        assertNotNull(w.claim("a"));
+
+        now.set(200);
+        assertNotNull(w.claim("f"));
+        assertEquals(1, w.size());
+        assertTrue(w.contains("f"));
+    }
+
+    @Test
+    void forEachJournaled_skipsClaimsWithoutARecord() {
+        AtomicLong now = new AtomicLong(5);
+        DedupeWindow w = new DedupeWindow(10, 100, now::get);
+        w.restore("r", 1);
+        w.claim("a");
+        w.claim("b");
+        DedupeWindow.Claim c = w.claim("c");
+        w.journaled("a");
+        w.journaled("c");
+        w.release(c); // journaled, then rolled back
+        w.journaled("unknown");
+        List<String> ids = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        w.forEachJournaled((id, at) -> {
+            ids.add(id);
+            times.add(at);
+        });
+        assertEquals(List.of("r", "a"), ids);
+        assertEquals(List.of(1L, 5L), times);
+    }
+
+    @Test
+    void releasedIdsCanBeClaimedAgain() {
+        AtomicLong now = new AtomicLong();
+        DedupeWindow w = new DedupeWindow(2, 100, now::get);
+        w.release(w.claim("a"));
+        now.set(50);
+        assertNotNull(w.claim("a"));
+        now.set(120);
+        assertNull(w.claim("a")); // the stale queue entry for the first claim does not evict the second
+        assertTrue(w.contains("a"));
+    }
+
+    @Test
+    void resizedKeepsLiveIdsWithinNewLimits() {
+        AtomicLong now = new AtomicLong();
+        DedupeWindow w = new DedupeWindow(10, 100, now::get);
+        List<DedupeWindow.Claim> claims = new ArrayList<>();
+        for (String id : List.of("a", "b", "c", "d")) claims.add(w.claim(id));
+        w.release(claims.get(1));
+        DedupeWindow smaller = w.resized(2, 100);
+        assertEquals(2, smaller.size());
+        assertFalse(smaller.contains("a"));
+        assertTrue(smaller.contains("c"));
+        assertTrue(smaller.contains("d"));
+        assertNull(smaller.claim("d"));
+    }
+
+    @Test
+    void concurrentClaimsOfOneIdHaveOneWinner() throws Exception {
+        DedupeWindow w = new DedupeWindow(1_000, Long.MAX_VALUE, System::nanoTime);
+        int threads = 8;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (int round = 0; round < 200; round++) {
+                String id = "tx-" + round;
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    claims.add(pool.submit(() -> {
+                        go.await();
+                        return w.claim(id) != null;
+                    }));
+                }
+                go.countDown();
+                int winners = 0;
+                for (Future<Boolean> f : claims) if (f.get()) winners++;
+                assertEquals(1, winners);
+            }
+        }
+        assertEquals(200, w.size());
+    }
+
+    @Test
+    void duplicatesWaitForTheOriginalOutcome() throws Exception {
+        DedupeWindow w = new DedupeWindow(10, Long.MAX_VALUE, System::nanoTime);
+        assertFalse(w.awaitApplied("none"));
+        try (ExecutorService pool = Executors.newFixedThreadPool(1)) {
+            DedupeWindow.Claim failing = w.claim("a");
+            Future<Boolean> retry = pool.submit(() -> w.awaitApplied("a"));
+            Thread.sleep(50);
+            assertFalse(retry.isDone());
+            w.release(failing);
+            assertFalse(retry.get());
+
+            DedupeWindow.Claim applied = w.claim("a");
+            retry = pool.submit(() -> w.awaitApplied("a"));
+            applied.applied();
+            assertTrue(retry.get());
+        }
+    }
+
+    @Test
+    void restoredIdsKeepTheirAge() {
+        AtomicLong now = new AtomicLong(1_000);
+        DedupeWindow w = new DedupeWindow(10, 100, now::get);
+        w.restore("old", 850);
+        w.restore("recent", 950);
+        assertFalse(w.contains("old"));
+        assertTrue(w.contains("recent"));
+        assertTrue(w.awaitApplied("recent"));
+        now.set(1_050);
+        assertNotNull(w.claim("recent"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    private static List<String> numbers(List<Account> accounts) {
+        return accounts.stream().map(Account::getAccountNumber).toList();
+    }
+
+    @Test
+    void contains_intersectsPostingsAndConfirmsMatch() {
+        NameIndex index = new NameIndex();
+        Account a = new Account("A001", "Anna Banana", 0);
+        Account b = new Account("B002", "Ban Ana", 0);
+        index.add(a, a.getNormalizedHolderName());
+        index.add(b, b.getNormalizedHolderName());
+        assertEquals(List.of("A001", "B002"), numbers(index.contains("ana")));
+        assertEquals(List.of("A001"), numbers(index.contains("banana")));
+        assertEquals(List.of(), numbers(index.contains("ana ban"))); // both trigram sets hit, but no substring
+        assertEquals(List.of(), numbers(index.contains("xyz")));
+    }
+
+    @Test
+    void contains_returnsInsertionOrderAcrossRenames() {
+        NameIndex index = new NameIndex();
+        Account c = new Account("C003", "Cal Stone", 0);
+        Account a = new Account("A001", "Al Stone", 0);
+        Account b = new Account("B002", "Bo Moss", 0);
+        for (Account acc : List.of(c, a, b)) index.add(acc, acc.getNormalizedHolderName());
+        assertEquals(List.of("C003", "A001"), numbers(index.contains("stone")));
+        c.setHolderName("Cal Stoned");
+        index.rename(c, "cal stone", "cal stoned");
+        b.setHolderName("Bo Stone");
+        index.rename(b, "bo moss", "bo stone");
+        assertEquals(List.of("C003", "A001", "B002"), numbers(index.contains("stone")));
+        index.remove(c, "cal stoned");
+        index.add(c, "cal stoned");
+        assertEquals(List.of("A001", "B002", "C003"), numbers(index.contains("stone")));
+    }
+
+    @Test
+    void remove_dropsPostingsAndPrefixEntries() {
+        NameIndex index = new NameIndex();
+        Account a = new Account("A001", "Carla", 0);
+        index.add(a, "carla");
+        index.remove(a, "carla");
+        assertTrue(index.contains("car").isEmpty());
+        assertTrue(index.startsWith("c").isEmpty());
+    }
+
+    @Test
+    void startsWith_returnsNameOrder() {
+        NameIndex index = new NameIndex();
+        for (Account a : List.of(new Account("C003", "dave", 0), new Account("A001", "dan", 0),
+                new Account("B002", "dana", 0), new Account("D004", "ed", 0))) {
+            index.add(a, a.getNormalizedHolderName());
+        }
+        assertEquals(List.of("A001", "B002", "C003"), index.startsWith("da").stream().map(Account::getAccountNumber).toList());
+        assertEquals(4, index.startsWith("").size());
+    }
+
+    @Test
+    void trigrams_areDistinct() {
+        assertEquals(3, NameIndex.trigrams("aaaa b").length); // "aaa" appears twice
+        assertEquals(0, NameIndex.trigrams("ab").length);
+    }
+}
@@ -0,0 +1,85 @@
+package com.mybank.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelScanTest {
+    private static final int ROWS = 5 * ParallelScan.CHUNK_ROWS + 123;
+
+    /** Pseudo-random values with many ties. */
+    private static long value(int row) {
+        return (row * 2_654_435_761L) % 1_000;
+    }
+
+    @Test
+    void parallelResultsMatchSequential() {
+        try (ParallelScan sequential = new ParallelScan(1, 0);
+             ParallelScan parallel = new ParallelScan(4, 0)) {
+            for (ParallelScan scan : List.of(sequential, parallel)) {
+                List<Integer> selected = scan.select(ROWS, row -> value(row) > 990 ? row : null);
+                assertEquals(IntStream.range(0, ROWS).filter(r -> value(r) > 990).boxed().toList(), selected);
+
+                LongSummaryStatistics s = scan.summarize(ROWS, row -> row % 2 == 0, ParallelScanTest::value);
+                assertEquals(IntStream.range(0, ROWS).filter(r -> r % 2 == 0).mapToLong(ParallelScanTest::value).sum(), s.getSum());
+                assertEquals((ROWS + 1) / 2, s.getCount());
+            }
+            int[] top = parallel.topN(ROWS, 50, row -> true, ParallelScanTest::value);
+            int[] expected = sequential.topN(ROWS, 50, row -> true, ParallelScanTest::value);
+            // rows may differ among ties, values may not
+            assertArrayEquals(IntStream.of(expected).mapToLong(ParallelScanTest::value).toArray(),
+                    IntStream.of(top).mapToLong(ParallelScanTest::value).toArray());
+            for (int i = 1; i < top.length; i++) assertTrue(value(top[i - 1]) >= value(top[i]));
+            assertEquals(999, value(top[0]));
+        }
+    }
+
+    @Test
+    void topNSkipsAbsentRowsAndHandlesSmallInputs() {
+        try (ParallelScan scan = new ParallelScan(4, 0)) {
+            int[] top = scan.topN(ROWS, 3, row -> row % 1_000 != 999, row -> row);
+            assertArrayEquals(new int[]{ROWS - 1, ROWS - 2, ROWS - 3}, top);
+            assertEquals(0, scan.topN(0, 3, row -> true, row -> row).length);
+            assertArrayEquals(new int[]{1, 0}, scan.topN(2, 5, row -> true, row -> row));
+        }
+    }
+
+    @Test
+    void closeLetsRunningScansFinishOnThePool() throws Exception {
+        ParallelScan scan = new ParallelScan(2, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicReference<List<Integer>> result = new AtomicReference<>();
+        Thread scanner = Thread.ofPlatform().start(() -> result.set(scan.select(ROWS, row -> {
+            if (row == ROWS - 1) {
+                started.countDown();
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return row;
+        })));
+        started.await();
+        scan.close();
+        assertTrue(scan.isPoolRunning(), "retired only once the running scan is done");
+        closed.countDown();
+        scanner.join();
+        assertEquals(ROWS, result.get().size());
+        assertFalse(scan.isPoolRunning());
+    }
+
+    @Test
+    void closedScanFallsBackToSequential() {
+        ParallelScan scan = new ParallelScan(4, 0);
+        scan.close();
+        assertEquals(ROWS, scan.select(ROWS, row -> row).size());
+    }
+}
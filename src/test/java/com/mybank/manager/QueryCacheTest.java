@@ -0,0 +1,70 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCacheTest {
+    private final List<Account> one = List.of(new Account("A001", "Al", 1));
+
+    @Test
+    void servesUntilTheDependencyChanges() {
+        QueryCache cache = new QueryCache(10, 100, false);
+        AtomicInteger runs = new AtomicInteger();
+        List<Account> first = cache.get(QueryCache.Kind.NAME, "al", 0, 0, () -> { runs.incrementAndGet(); return new ArrayList<>(one); });
+        assertSame(first, cache.get(QueryCache.Kind.NAME, "al", 0, 0, () -> { runs.incrementAndGet(); return one; }));
+        assertThrows(UnsupportedOperationException.class, () -> first.add(null));
+
+        cache.balancesChanged(); // name queries do not depend on balances
+        cache.get(QueryCache.Kind.NAME, "al", 0, 0, () -> { runs.incrementAndGet(); return one; });
+        assertEquals(1, runs.get());
+
+        cache.namesChanged();
+        cache.get(QueryCache.Kind.NAME, "al", 0, 0, () -> { runs.incrementAndGet(); return one; });
+        assertEquals(2, runs.get());
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void detachedResultsMakeNameQueriesDependOnBalances() {
+        QueryCache cache = new QueryCache(10, 100, true);
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(QueryCache.Kind.NAME_PREFIX, "a", 0, 0, () -> { runs.incrementAndGet(); return one; });
+        cache.balancesChanged();
+        cache.get(QueryCache.Kind.NAME_PREFIX, "a", 0, 0, () -> { runs.incrementAndGet(); return one; });
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void resultComputedDuringAMutationIsNotStored() {
+        QueryCache cache = new QueryCache(10, 100, false);
+        cache.get(QueryCache.Kind.TOP_N, null, 3, 0, () -> {
+            cache.balancesChanged();
+            return one;
+        });
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByCountAndWeight() {
+        QueryCache cache = new QueryCache(2, 5, false);
+        cache.get(QueryCache.Kind.MIN_BALANCE, null, 1, 0, () -> one);
+        cache.get(QueryCache.Kind.MIN_BALANCE, null, 2, 0, () -> one);
+        cache.get(QueryCache.Kind.MIN_BALANCE, null, 1, 0, () -> fail("should hit"));
+        cache.get(QueryCache.Kind.MIN_BALANCE, null, 3, 0, () -> one); // evicts key 2
+        assertEquals(2, cache.size());
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(QueryCache.Kind.MIN_BALANCE, null, 2, 0, () -> { runs.incrementAndGet(); return one; });
+        assertEquals(1, runs.get());
+
+        List<Account> big = List.of(one.get(0), one.get(0), one.get(0), one.get(0), one.get(0));
+        cache.get(QueryCache.Kind.BALANCE_RANGE, null, 0, 9, () -> big); // heavier than the whole budget
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,34 @@
+package com.mybank.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowOrderTest {
+
+    @Test
+    void sorted_ordersRowsAndKeepsTiesInRowOrder() {
+        long[] balances = {5, 1, 5, 0, 1};
+        assertArrayEquals(new int[]{3, 1, 4, 0, 2}, RowOrder.sorted(5, (a, b) -> Long.compare(balances[a], balances[b])));
+        assertArrayEquals(new int[0], RowOrder.sorted(0, (a, b) -> 0));
+        assertArrayEquals(new int[]{0}, RowOrder.sorted(1, (a, b) -> 0));
+    }
+
+    @Test
+    void sorted_matchesBoxedSort() {
+        Random random = new Random(42);
+        for (int n : new int[]{2, 3, 7, 64, 1_000, 1_025}) {
+            int[] keys = random.ints(n, 0, n / 2 + 1).toArray();
+            int[] expected = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparingInt(i -> keys[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            int[] actual = RowOrder.sorted(n, (a, b) -> Integer.compare(keys[a], keys[b]));
+            assertArrayEquals(expected, actual, () -> "n=" + n + " keys=" + Arrays.toString(keys));
+        }
+    }
+}
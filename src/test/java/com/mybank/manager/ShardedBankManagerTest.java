@@ -0,0 +1,118 @@
+package com.mybank.manager;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedBankManagerTest {
+    @TempDir
+    Path dir;
+
+    private static String number(int i) {
+        return String.format("AC%04d", i);
+    }
+
+    @Test
+    void routesCaseInsensitivelyAndRejectsDuplicates() {
+        try (ShardedBankManager m = new ShardedBankManager(null, 4)) {
+            for (int i = 0; i < 40; i++) m.createAccount(number(i), "Holder " + i, 100);
+            assertEquals(m.shardOf("AC0007"), m.shardOf("ac0007"));
+            assertThrows(IllegalArgumentException.class, () -> m.createAccount("ac0007", "Dup", 0));
+            m.deposit("ac0007", 50);
+            assertEquals(150, m.getByNumber("AC0007").orElseThrow().getBalance());
+            assertThrows(IllegalArgumentException.class, () -> m.withdraw("AC0007", 1_000));
+            assertThrows(IllegalArgumentException.class, () -> m.deposit("NOPE1", 1));
+            assertEquals(40, m.accountCount());
+        }
+    }
+
+    @Test
+    void transfersWithinAndAcrossShards() {
+        try (ShardedBankManager m = new ShardedBankManager(null, 4)) {
+            for (int i = 0; i < 40; i++) m.createAccount(number(i), "Holder " + i, 100);
+            String a = number(0);
+            String same = null, other = null;
+            for (int i = 1; i < 40 && (same == null || other == null); i++) {
+                if (m.shardOf(number(i)) == m.shardOf(a)) same = number(i);
+                else other = number(i);
+            }
+            m.transfer(a, same, 30);
+            m.transfer(a, other, 20);
+            assertEquals(50, m.getByNumber(a).orElseThrow().getBalance());
+            assertEquals(130, m.getByNumber(same).orElseThrow().getBalance());
+            assertEquals(120, m.getByNumber(other).orElseThrow().getBalance());
+
+            String target = other;
+            assertThrows(IllegalArgumentException.class, () -> m.transfer(a, target, 1_000));
+            assertThrows(IllegalArgumentException.class, () -> m.transfer(a, "NOPE1", 1));
+            assertThrows(IllegalArgumentException.class, () -> m.transfer(a, target, 0));
+            assertEquals(50, m.getByNumber(a).orElseThrow().getBalance());
+            assertEquals(4_000, m.totalBalance());
+        }
+    }
+
+    @Test
+    void mergesCrossShardQueries() {
+        try (ShardedBankManager m = new ShardedBankManager(null, 3)) {
+            for (int i = 0; i < 30; i++) m.createAccount(number(i), i % 2 == 0 ? "Even " + i : "Odd " + i, i * 10L);
+            assertEquals(List.of(290L, 280L, 270L), m.topNByBalance(3).stream().map(Account::getBalance).toList());
+            assertEquals(15, m.findByName("odd").size());
+            assertTrue(m.topNByBalance(0).isEmpty());
+            assertEquals(4_350, m.totalBalance());
+        }
+    }
+
+    @Test
+    void concurrentTransfersConserveMoney() throws Exception {
+        try (ShardedBankManager m = new ShardedBankManager(null, 4);
+             ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 64; i++) m.createAccount(number(i), "Holder " + i, 1_000);
+            List<Future<?>> running = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                running.add(pool.submit(() -> {
+                    for (int k = 0; k < 2_000; k++) {
+                        int from = random.nextInt(64), to = random.nextInt(64);
+                        if (from == to) continue;
+                        try {
+                            m.transfer(number(from), number(to), 1 + random.nextInt(100));
+                        } catch (IllegalArgumentException e) {
+                            // insufficient balance
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : running) f.get();
+            assertEquals(64_000, m.totalBalance());
+        }
+    }
+
+    @Test
+    void savesAndReloadsAllShards() throws Exception {
+        Path csv = dir.resolve("accounts.csv");
+        try (ShardedBankManager m = new ShardedBankManager(null, 4)) {
+            for (int i = 0; i < 20; i++) m.createAccount(number(i), "Holder " + i, i);
+            m.saveToCsv(csv);
+        }
+        Files.writeString(csv, "AC0001,Duplicate,5.00\nbroken\n", StandardOpenOption.APPEND);
+        try (ShardedBankManager m = new ShardedBankManager(csv, 2)) {
+            assertEquals(20, m.getLoadReport().loaded());
+            assertEquals(1, m.getLoadReport().skipped());
+            assertEquals(1, m.getLoadReport().malformed());
+            assertEquals(190, m.totalBalance());
+            assertEquals(7, m.getByNumber("ac0007").orElseThrow().getBalance());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mybank.manager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionClockTest {
+
+    @Test
+    void transactionIsInvisibleUntilEnded() {
+        VersionClock clock = new VersionClock();
+        VersionClock.Version base = new VersionClock.Version(clock.commitForChange(), "Al", 10, null);
+        VersionClock.Commit c = clock.begin();
+        assertNull(clock.begin(), "nested begin joins the open transaction");
+        assertSame(c, clock.commitForChange());
+        VersionClock.Version v = new VersionClock.Version(clock.commitForChange(), "Al", 20, base);
+
+        VersionClock.Registration before = clock.open();
+        assertSame(base, VersionClock.visible(v, before.epoch));
+        clock.end(c);
+        VersionClock.Registration after = clock.open();
+        assertSame(base, VersionClock.visible(v, before.epoch));
+        assertSame(v, VersionClock.visible(v, after.epoch));
+        assertNull(VersionClock.visible(base, 0));
+    }
+
+    @Test
+    void pruneKeepsWhatOpenSnapshotsCanSee() {
+        VersionClock clock = new VersionClock();
+        VersionClock.Version v1 = new VersionClock.Version(clock.commitForChange(), "Al", 1, null);
+        VersionClock.Registration open = clock.open();
+        open.watch(new Object());
+        VersionClock.Version v2 = new VersionClock.Version(clock.commitForChange(), "Al", 2, v1);
+        VersionClock.Version v3 = new VersionClock.Version(clock.commitForChange(), "Al", 3, v2);
+
+        VersionClock.prune(v3, clock.oldestReadable());
+        assertSame(v1, VersionClock.visible(v3, open.epoch));
+        open.release();
+        open.release();
+        VersionClock.prune(v3, clock.oldestReadable());
+        assertNull(v3.prev);
+    }
+}
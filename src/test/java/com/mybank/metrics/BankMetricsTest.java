@@ -0,0 +1,75 @@
+package com.mybank.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankMetricsTest {
+
+    @Test
+    void recordsCallsFailuresAndLatency() {
+        BankMetrics m = new BankMetrics();
+        long start = m.start();
+        m.success(Operation.DEPOSIT, start);
+        m.failure(Operation.WITHDRAW, m.start(), new IllegalArgumentException("Insufficient balance"));
+        m.failure(Operation.WITHDRAW, m.start(), new IllegalArgumentException("Account not found: X1"));
+        m.failure(Operation.WITHDRAW, m.start(), new IllegalArgumentException("Withdrawal amount must be > 0"));
+        assertEquals("v", m.success(Operation.GET_BY_NUMBER, m.start(), "v"));
+
+        BankMetrics.OperationStats w = m.stats(Operation.WITHDRAW);
+        assertEquals(3, w.calls());
+        assertEquals(3, w.failureCount());
+        assertEquals(1, w.failures().get(BankMetrics.Failure.INSUFFICIENT_BALANCE));
+        assertEquals(1, w.failures().get(BankMetrics.Failure.ACCOUNT_NOT_FOUND));
+        assertEquals(1, w.failures().get(BankMetrics.Failure.INVALID_REQUEST));
+        assertEquals(3, w.latency().count());
+        assertEquals(3, m.snapshot().size());
+        assertEquals(0L, m.getFailures().get("GET_BY_NUMBER"));
+    }
+
+    @Test
+    void classify() {
+        assertEquals(BankMetrics.Failure.INSUFFICIENT_BALANCE,
+                BankMetrics.classify(new IllegalArgumentException("Transfer #2 failed: Insufficient balance")));
+        assertEquals(BankMetrics.Failure.ERROR, BankMetrics.classify(new IllegalStateException("boom")));
+        assertEquals(BankMetrics.Failure.INVALID_REQUEST, BankMetrics.classify(new IllegalArgumentException()));
+    }
+
+    @Test
+    void disabledRecordsNothing() {
+        BankMetrics m = new BankMetrics();
+        m.setEnabled(false);
+        long start = m.start();
+        assertEquals(0, start);
+        m.success(Operation.DEPOSIT, start);
+        m.failure(Operation.DEPOSIT, start, new IllegalArgumentException("x"));
+        assertTrue(m.snapshot().isEmpty());
+        m.setEnabled(true);
+        m.success(Operation.DEPOSIT, m.start());
+        m.reset();
+        assertTrue(m.snapshot().isEmpty());
+    }
+
+    @Test
+    void exposedThroughJmx() throws Exception {
+        BankMetrics m = new BankMetrics();
+        m.success(Operation.DEPOSIT, m.start());
+        ObjectName name = m.registerMBean("test");
+        m.registerMBean("test"); // re-registration replaces
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+            TabularData calls = (TabularData) server.getAttribute(name, "Calls");
+            assertEquals(1, calls.size());
+            server.invoke(name, "reset", null, null);
+            assertTrue(m.snapshot().isEmpty());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
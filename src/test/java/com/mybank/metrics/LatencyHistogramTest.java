@@ -0,0 +1,45 @@
+package com.mybank.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndBoundValues() {
+        int previous = -1;
+        for (long v : new long[]{0, 1, 63, 64, 65, 127, 128, 1_000, 1_000_000, 1L << 40, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucketOf(v);
+            assertTrue(b >= previous, "bucket order at " + v);
+            assertTrue(LatencyHistogram.upperBound(b) >= v);
+            if (b > 0) assertTrue(LatencyHistogram.upperBound(b - 1) < v);
+            previous = b;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 1_000);
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(100_000, s.count());
+        assertEquals(50_000_500.0, s.mean(), 1e-6);
+        assertEquals(50_000_000, s.p50(), 50_000_000 * 0.035);
+        assertEquals(99_000_000, s.p99(), 99_000_000 * 0.035);
+        assertEquals(100_000_000, s.max());
+        assertTrue(s.p999() <= s.max());
+    }
+
+    @Test
+    void resetAndEmptySnapshot() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(1, h.snapshot().count());
+        assertEquals(0, h.snapshot().max());
+        h.reset();
+        assertEquals(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0, 0), h.snapshot());
+    }
+}
@@ -0,0 +1,26 @@
+package com.mybank.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountStoreConverterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvToBinaryAndBack() throws Exception {
+        Path csv = dir.resolve("in.csv");
+        Files.writeString(csv, "accountNumber,holderName,balance\nB002,Bo,2.00\nA001,Al,1.50\na001,Dup,9\n");
+        Path bin = dir.resolve("accounts.bin");
+        assertEquals(2, AccountStoreConverter.csvToBinary(csv, bin));
+
+        Path out = dir.resolve("out.csv");
+        assertEquals(2, AccountStoreConverter.binaryToCsv(bin, out));
+        assertEquals("accountNumber,holderName,balance\nA001,Al,1.50\nB002,Bo,2.00\n", Files.readString(out));
+    }
+}
@@ -0,0 +1,118 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryAccountStoreTest {
+    @TempDir
+    Path dir;
+
+    private Path writeSample() throws IOException {
+        Path path = dir.resolve("accounts.bin");
+        BinaryAccountStore.write(path, List.of(
+                new Account("C003", "Cy", 300),
+                new Account("a001", "Zoë Ångström", 100),
+                new Account("B002", "Bo", 200)));
+        return path;
+    }
+
+    @Test
+    void recordsAreSortedAndDecodedOnAccess() throws Exception {
+        try (BinaryAccountStore store = BinaryAccountStore.open(writeSample())) {
+            assertEquals(3, store.size());
+            assertEquals("a001", store.accountNumber(0));
+            assertEquals("Zoë Ångström", store.holderName(0));
+            assertEquals(300, store.balance(2));
+            Account b = store.get(1);
+            assertEquals("B002", b.getAccountNumber());
+            assertEquals(200, b.getBalance());
+            assertTrue(store.verify());
+            assertFalse(store.isDirty());
+            assertThrows(IndexOutOfBoundsException.class, () -> store.balance(3));
+        }
+    }
+
+    @Test
+    void indexOf_isCaseInsensitiveBinarySearch() throws Exception {
+        try (BinaryAccountStore store = BinaryAccountStore.open(writeSample())) {
+            assertEquals(0, store.indexOf("A001"));
+            assertEquals(1, store.indexOf("b002"));
+            assertEquals(2, store.indexOf("C003"));
+            assertEquals(-1, store.indexOf("B0021"));
+            assertEquals(-1, store.indexOf("D004"));
+            assertEquals(-1, store.indexOf("??"));
+        }
+    }
+
+    @Test
+    void setBalance_updatesInPlaceAndSyncRewritesChecksum() throws Exception {
+        Path path = writeSample();
+        try (BinaryAccountStore store = BinaryAccountStore.open(path)) {
+            store.setBalance(1, 999);
+            assertTrue(store.isDirty());
+            assertFalse(store.verify());
+        }
+        try (BinaryAccountStore store = BinaryAccountStore.open(path)) {
+            assertEquals(999, store.balance(1));
+            assertFalse(store.isDirty());
+            assertTrue(store.verify());
+        }
+    }
+
+    @Test
+    void setBalance_fromManyThreadsOnDistinctRecords() throws Exception {
+        Path path = dir.resolve("many.bin");
+        int n = 64;
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < n; i++) accounts.add(new Account("M" + (1000 + i), "M", 0));
+        BinaryAccountStore.write(path, accounts);
+        try (BinaryAccountStore store = BinaryAccountStore.open(path);
+             ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int first = t;
+                pool.submit(() -> {
+                    for (int round = 1; round <= 1_000; round++) {
+                        for (int i = first; i < n; i += 8) store.setBalance(i, round * 10_000L + i);
+                    }
+                });
+            }
+        }
+        try (BinaryAccountStore store = BinaryAccountStore.open(path)) {
+            assertTrue(store.verify());
+            for (int i = 0; i < n; i++) assertEquals(10_000_000L + i, store.balance(i));
+        }
+    }
+
+    @Test
+    void rejectsForeignOrTruncatedFiles() throws Exception {
+        Path foreign = dir.resolve("foreign.bin");
+        Files.write(foreign, new byte[256]);
+        assertThrows(IOException.class, () -> BinaryAccountStore.open(foreign));
+
+        Path path = writeSample();
+        byte[] bytes = Files.readAllBytes(path);
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> BinaryAccountStore.open(truncated));
+    }
+
+    @Test
+    void write_rejectsOversizedNames() {
+        Path path = dir.resolve("big.bin");
+        Account a = new Account("D004", "x".repeat(BinaryAccountStore.MAX_NAME_BYTES + 1), 0);
+        assertThrows(IllegalArgumentException.class, () -> BinaryAccountStore.write(path, List.of(a)));
+        assertFalse(Files.exists(path));
+        assertFalse(Files.exists(dir.resolve("big.bin.tmp")));
+    }
+}
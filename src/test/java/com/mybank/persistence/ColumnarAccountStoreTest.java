@@ -0,0 +1,91 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarAccountStoreTest {
+
+    @Test
+    void appendAndLookUpCaseInsensitively() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        assertEquals(0, store.append("A001", "Zoë Ångström", 100));
+        assertEquals(1, store.append("b002", "Bo", 200));
+        assertEquals(-1, store.append("a001", "Dup", 0));
+        assertEquals(2, store.size());
+        assertEquals(0, store.indexOf("a001"));
+        assertEquals(1, store.indexOf("B002"));
+        assertEquals(-1, store.indexOf("C003"));
+        assertEquals(-1, store.indexOf("bad!"));
+        assertEquals("A001", store.accountNumber(0));
+        assertEquals("Zoë Ångström", store.holderName(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.balance(2));
+    }
+
+    @Test
+    void setBalance_isVisibleAndViewsAreDetached() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        store.append("A001", "Al", 100);
+        store.setBalance(0, 250);
+        Account view = store.get(0);
+        assertEquals(250, view.getBalance());
+        view.deposit(50);
+        assertEquals(250, store.balance(0));
+    }
+
+    @Test
+    void append_validates() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        assertThrows(IllegalArgumentException.class, () -> store.append("A1", "Al", 0));
+        assertThrows(IllegalArgumentException.class, () -> store.append("A001", "", 0));
+        assertThrows(IllegalArgumentException.class, () -> store.append("A001", "Al", -1));
+        assertThrows(IllegalArgumentException.class, () -> store.append("A001", "x".repeat(70_000), 0));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void holderNameMatches_foldsAsciiCase() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        store.append("A001", "Grace HOPPER", 0);
+        store.append("B002", "Al", 0);
+        byte[] hop = "hop".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(store.holderNameMatches(0, hop, false));
+        assertFalse(store.holderNameMatches(0, hop, true));
+        assertTrue(store.holderNameMatches(0, "grace".getBytes(StandardCharsets.US_ASCII), true));
+        // shorter than the query: must not read into the next name
+        assertFalse(store.holderNameMatches(1, "algr".getBytes(StandardCharsets.US_ASCII), true));
+    }
+
+    @Test
+    void growsAcrossChunksAndRehashes() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        int n = ColumnarAccountStore.CHUNK_ROWS + 10;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, store.append("AC" + String.format("%08d", i), "Holder " + i, i));
+        }
+        assertEquals(n, store.size());
+        assertEquals(n - 1, store.indexOf("ac" + String.format("%08d", n - 1)));
+        assertEquals(n - 1, store.balance(n - 1));
+        assertEquals("Holder 65540", store.holderName(65_540));
+        assertTrue(store.offHeapBytes() > 2L * ColumnarAccountStore.CHUNK_ROWS * Long.BYTES);
+    }
+
+    @Test
+    void close_dropsChunksAndRejectsLaterUse() {
+        ColumnarAccountStore store = new ColumnarAccountStore();
+        store.append("A001", "Ann", 100);
+        assertTrue(store.offHeapBytes() > 0);
+
+        store.close();
+        store.close();
+
+        assertEquals(0, store.offHeapBytes());
+        assertEquals(0, store.size());
+        assertEquals(-1, store.indexOf("A001"));
+        assertThrows(IllegalStateException.class, () -> store.balance(0));
+        assertThrows(IllegalStateException.class, () -> store.append("B002", "Bo", 1));
+    }
+}
@@ -0,0 +1,82 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvAccountLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void load_parsesRowsAndCountsMalformed() throws Exception {
+        Path csv = dir.resolve("accounts.csv");
+        Files.writeString(csv, """
+                accountNumber,holderName,balance
+                # comment
+                A001, Alice Smith ,10.50\r
+                
+                B002,Bob,7,extra
+                C0!3,Bad,1
+                D004,,1
+                E005,Neg,-1
+                F006,Few
+                G007,Text,1.2.3
+                H008,Zoë,0
+                """);
+        CsvAccountLoader.Result r = CsvAccountLoader.load(csv);
+        assertEquals(List.of("A001", "B002", "H008"), r.accounts().stream().map(Account::getAccountNumber).toList());
+        assertEquals("Alice Smith", r.accounts().get(0).getHolderName());
+        assertEquals(1050, r.accounts().get(0).getBalance());
+        assertEquals(700, r.accounts().get(1).getBalance());
+        assertEquals("Zoë", r.accounts().get(2).getHolderName());
+        assertEquals(5, r.malformed());
+    }
+
+    @Test
+    void recordedChecksum_readsOnlyATrailingChecksumLine() throws Exception {
+        Path csv = dir.resolve("accounts.csv");
+        Files.writeString(csv, "accountNumber,holderName,balance\nA001,Al,1\n# crc=0badf00d\n");
+        assertEquals(0x0badf00dL, CsvAccountLoader.recordedChecksum(csv));
+        assertEquals(1, CsvAccountLoader.load(csv).accounts().size());
+        assertEquals(0, CsvAccountLoader.load(csv).malformed());
+
+        Files.writeString(csv, "accountNumber,holderName,balance\n# crc=0badf00d\nA001,Al,1\n");
+        assertEquals(-1, CsvAccountLoader.recordedChecksum(csv));
+        Files.writeString(csv, "x\n");
+        assertEquals(-1, CsvAccountLoader.recordedChecksum(csv));
+    }
+
+    @Test
+    void load_smallChunksPreserveOrderAcrossBoundaries() throws Exception {
+        StringBuilder sb = new StringBuilder("accountNumber,holderName,balance\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append(String.format("N%04d,Name %d,%d.%02d\n", i, i, i, i % 100));
+        }
+        sb.append("Z999,No newline at end,1");
+        Path csv = dir.resolve("big.csv");
+        Files.writeString(csv, sb);
+        CsvAccountLoader.Result r = CsvAccountLoader.load(csv, 37);
+        assertEquals(501, r.accounts().size());
+        assertEquals(0, r.malformed());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(String.format("N%04d", i), r.accounts().get(i).getAccountNumber());
+            assertEquals(i * 100L + i % 100, r.accounts().get(i).getBalance());
+        }
+        assertEquals("Z999", r.accounts().get(500).getAccountNumber());
+    }
+
+    @Test
+    void load_emptyFile() throws Exception {
+        Path csv = Files.createFile(dir.resolve("empty.csv"));
+        CsvAccountLoader.Result r = CsvAccountLoader.load(csv);
+        assertTrue(r.accounts().isEmpty());
+        assertEquals(0, r.malformed());
+    }
+}
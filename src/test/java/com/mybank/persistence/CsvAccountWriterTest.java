@@ -0,0 +1,56 @@
+package com.mybank.persistence;
+
+import com.mybank.dto.Account;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvAccountWriterTest {
+
+    @Test
+    void writesHeaderLsnAndRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvAccountWriter w = new CsvAccountWriter(Channels.newChannel(out))) {
+            w.writeHeader(42);
+            w.write(new Account("A001", "Ann", 1050));
+            w.write("B002", "Zoë Ångström", 7);
+        }
+        assertEquals("accountNumber,holderName,balance\n# lsn=42\nA001,Ann,10.50\nB002,Zoë Ångström,0.07\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void checksumLineCoversEverythingBeforeIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long crc;
+        try (CsvAccountWriter w = new CsvAccountWriter(Channels.newChannel(out), 256)) {
+            w.writeHeader(3);
+            for (int i = 0; i < 40; i++) w.write("C" + (1000 + i), "Name " + i, i);
+            crc = w.writeChecksum();
+        }
+        String text = out.toString(StandardCharsets.UTF_8);
+        int last = text.lastIndexOf(CsvAccountLoader.CRC_COMMENT);
+        CRC32 expected = new CRC32();
+        expected.update(text.substring(0, last).getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected.getValue(), crc);
+        assertEquals(String.format("# crc=%08x\n", crc), text.substring(last));
+    }
+
+    @Test
+    void smallBufferFlushesMidRow() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String longName = "N".repeat(600) + "é" + "M".repeat(300);
+        try (CsvAccountWriter w = new CsvAccountWriter(Channels.newChannel(out), 256)) {
+            w.writeHeader(0);
+            for (int i = 0; i < 50; i++) w.write("C" + (1000 + i), longName, i);
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(51, lines.length);
+        assertEquals("C1049," + longName + ",0.49", lines[50]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.mybank.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsTheFirstNIds() throws Exception {
+        Path file = dir.resolve("j.txids");
+        assertNull(TransactionIdFile.read(file));
+        TransactionIdFile.write(file, new String[]{"tx-1", "tx-ü", "unused"}, new long[]{10, 20, 30}, 2);
+        TransactionIdFile.Ids ids = TransactionIdFile.read(file);
+        assertArrayEquals(new String[]{"tx-1", "tx-ü"}, ids.ids());
+        assertArrayEquals(new long[]{10, 20}, ids.claimedAt());
+        assertFalse(Files.exists(dir.resolve("j.txids.tmp")));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws Exception {
+        Path file = dir.resolve("j.txids");
+        TransactionIdFile.write(file, new String[]{"tx-1"}, new long[]{10}, 1);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 10] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> TransactionIdFile.read(file));
+        Files.write(file, new byte[6]);
+        assertThrows(IOException.class, () -> TransactionIdFile.read(file));
+    }
+}
@@ -0,0 +1,194 @@
+package com.mybank.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+    @TempDir
+    Path dir;
+
+    private static TransactionJournal open(Path path, long afterLsn, List<JournalRecord> sink) throws IOException {
+        return TransactionJournal.open(path, Duration.ofMillis(1), afterLsn, sink::add);
+    }
+
+    @Test
+    void appendedRecordsAreReplayedInOrder() throws Exception {
+        Path path = dir.resolve("j.bin");
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.append(JournalRecord.create("A001", "Ann Lee", 500));
+            j.append(JournalRecord.deposit("A001", 25));
+            long lsn = j.appendAll(List.of(JournalRecord.withdraw("A001", 5), JournalRecord.transfer("A001", "B002", 10)));
+            j.awaitDurable(lsn);
+            assertEquals(4, lsn);
+        }
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (TransactionJournal j = open(path, 0, replayed)) {
+            assertEquals(4, j.lastLsn());
+        }
+        assertEquals(List.of(
+                new JournalRecord(JournalRecord.Type.CREATE, 1, "A001", null, "Ann Lee", 500),
+                new JournalRecord(JournalRecord.Type.DEPOSIT, 2, "A001", null, null, 25),
+                new JournalRecord(JournalRecord.Type.WITHDRAW, 3, "A001", null, null, 5),
+                new JournalRecord(JournalRecord.Type.TRANSFER, 4, "A001", "B002", null, 10)), replayed);
+    }
+
+    @Test
+    void transactionIdsAreJournaled() throws Exception {
+        Path path = dir.resolve("j.bin");
+        long before = System.currentTimeMillis();
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.awaitDurable(j.appendAll(List.of(
+                    JournalRecord.deposit("A001", 25).withTxId("tx-1"),
+                    JournalRecord.transfer("A001", "B002", 10))));
+        }
+        long after = System.currentTimeMillis();
+        List<JournalRecord> replayed = new ArrayList<>();
+        open(path, 0, replayed).close();
+        long txTime = replayed.get(0).txTime();
+        assertTrue(txTime >= before && txTime <= after, "stamped with the append time");
+        assertEquals(List.of(
+                new JournalRecord(JournalRecord.Type.DEPOSIT, 1, "A001", null, null, 25, "tx-1", txTime),
+                new JournalRecord(JournalRecord.Type.TRANSFER, 2, "A001", "B002", null, 10)), replayed);
+
+        List<JournalRecord> covered = new ArrayList<>();
+        replayed.clear();
+        TransactionJournal.open(path, Duration.ZERO, 1, replayed::add, covered::add).close();
+        assertEquals(List.of(1L), covered.stream().map(JournalRecord::lsn).toList());
+        assertEquals(List.of(2L), replayed.stream().map(JournalRecord::lsn).toList());
+    }
+
+    @Test
+    void version1FilesAreReplayedAndAppendedTo() throws Exception {
+        Path path = dir.resolve("j.bin");
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 2 + 4 + 2 + 8)
+                .put((byte) JournalRecord.Type.DEPOSIT.ordinal()).putLong(1)
+                .putShort((short) 4).put("A001".getBytes(StandardCharsets.UTF_8)).putShort((short) -1)
+                .putLong(25).flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer file = ByteBuffer.allocate(8 + 4 + body.remaining() + 4)
+                .putInt(0x424B4A31).putInt(1).putInt(body.remaining()).put(body).putInt((int) crc.getValue()).flip();
+        Files.write(path, file.array());
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (TransactionJournal j = open(path, 0, replayed)) {
+            j.awaitDurable(j.append(JournalRecord.withdraw("A001", 5).withTxId("dropped")));
+        }
+        assertEquals(List.of(new JournalRecord(JournalRecord.Type.DEPOSIT, 1, "A001", null, null, 25)), replayed);
+        replayed.clear();
+        open(path, 0, replayed).close();
+        assertEquals(List.of(
+                new JournalRecord(JournalRecord.Type.DEPOSIT, 1, "A001", null, null, 25),
+                new JournalRecord(JournalRecord.Type.WITHDRAW, 2, "A001", null, null, 5)), replayed);
+    }
+
+    @Test
+    void replaySkipsRecordsCoveredBySnapshot() throws Exception {
+        Path path = dir.resolve("j.bin");
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.awaitDurable(j.appendAll(List.of(JournalRecord.deposit("A001", 1), JournalRecord.deposit("A001", 2))));
+        }
+        List<JournalRecord> replayed = new ArrayList<>();
+        open(path, 1, replayed).close();
+        assertEquals(1, replayed.size());
+        assertEquals(2, replayed.get(0).lsn());
+    }
+
+    @Test
+    void tornTailIsTruncated() throws Exception {
+        Path path = dir.resolve("j.bin");
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.awaitDurable(j.appendAll(List.of(JournalRecord.deposit("A001", 1), JournalRecord.deposit("A001", 2))));
+        }
+        long intact = Files.size(path);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ch.truncate(intact - 3);
+        }
+        List<JournalRecord> replayed = new ArrayList<>();
+        try (TransactionJournal j = open(path, 0, replayed)) {
+            assertEquals(1, j.lastLsn());
+            j.awaitDurable(j.append(JournalRecord.deposit("A001", 3)));
+        }
+        replayed.clear();
+        open(path, 0, replayed).close();
+        assertEquals(List.of(1L, 2L), replayed.stream().map(JournalRecord::lsn).toList());
+        assertEquals(3, replayed.get(1).amount());
+    }
+
+    @Test
+    void rotatedSegmentsReplayUntilDiscarded() throws Exception {
+        Path path = dir.resolve("j.bin");
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.append(JournalRecord.deposit("A001", 1));
+            assertEquals(1, j.rotate());
+            assertTrue(Files.exists(dir.resolve("j.bin.1")));
+            j.append(JournalRecord.deposit("A001", 2));
+            assertEquals(2, j.rotate());
+            assertEquals(2, j.rotate()); // nothing new to seal
+            j.awaitDurable(j.append(JournalRecord.deposit("A001", 3)));
+        }
+        List<JournalRecord> replayed = new ArrayList<>();
+        open(path, 0, replayed).close();
+        assertEquals(List.of(1L, 2L, 3L), replayed.stream().map(JournalRecord::lsn).toList());
+
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            j.discardThrough(1);
+            assertFalse(Files.exists(dir.resolve("j.bin.1")));
+            assertTrue(Files.exists(dir.resolve("j.bin.2")));
+            assertEquals(3, j.lastLsn());
+        }
+        replayed.clear();
+        open(path, 0, replayed).close();
+        assertEquals(List.of(2L, 3L), replayed.stream().map(JournalRecord::lsn).toList());
+    }
+
+    @Test
+    void concurrentAppendersShareFsyncs() throws Exception {
+        Path path = dir.resolve("j.bin");
+        try (TransactionJournal j = open(path, 0, new ArrayList<>())) {
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) j.awaitDurable(j.append(JournalRecord.deposit("A001", 1)));
+                });
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+            assertEquals(800, j.lastLsn());
+        }
+        List<JournalRecord> replayed = new ArrayList<>();
+        open(path, 0, replayed).close();
+        assertEquals(800, replayed.size());
+    }
+
+    @Test
+    void closedJournalRejectsAppends() throws Exception {
+        TransactionJournal j = open(dir.resolve("j.bin"), 0, new ArrayList<>());
+        j.close();
+        assertThrows(IllegalStateException.class, () -> j.append(JournalRecord.deposit("A001", 1)));
+    }
+
+    @Test
+    void rejectsForeignFile() throws Exception {
+        Path path = dir.resolve("other.bin");
+        Files.writeString(path, "not a journal");
+        assertThrows(IOException.class, () -> open(path, 0, new ArrayList<>()));
+    }
+}
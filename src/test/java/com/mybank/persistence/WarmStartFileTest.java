@@ -0,0 +1,89 @@
+package com.mybank.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmStartFileTest {
+    @TempDir
+    Path dir;
+
+    private static WarmStartFile.Image image() {
+        return new WarmStartFile.Image(new String[]{"A001", "B002"}, new String[]{"Ann Lee", "Zoë"}, new long[]{500, 25}, 7,
+                new int[]{1, 0}, new int[]{0, 1}, new long[]{42L, 43L}, new int[][]{{0}, {0, 1}});
+    }
+
+    /**
+     * Writes a CSV of {@code rows} ending with its checksum line, as snapshots do.
+     *
+     * @return the recorded checksum
+     */
+    private static long writeCsv(Path csv, String... rows) throws IOException {
+        try (CsvAccountWriter w = new CsvAccountWriter(FileChannel.open(csv, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            w.writeHeader(0);
+            for (String row : rows) w.write(row.substring(0, 4), row.substring(5), 500);
+            return w.writeChecksum();
+        }
+    }
+
+    @Test
+    void roundTripsWhileTheCsvIsUnchanged() throws Exception {
+        Path csv = dir.resolve("a.csv");
+        long crc = writeCsv(csv);
+        Path file = dir.resolve("a.warm");
+        WarmStartFile.write(file, csv, crc, image());
+        WarmStartFile.Image read = WarmStartFile.read(file, csv);
+        assertArrayEquals(image().numbers(), read.numbers());
+        assertArrayEquals(image().names(), read.names());
+        assertArrayEquals(image().balances(), read.balances());
+        assertEquals(7, read.journalLsn());
+        assertArrayEquals(image().balanceOrder(), read.balanceOrder());
+        assertArrayEquals(image().nameOrder(), read.nameOrder());
+        assertArrayEquals(image().grams(), read.grams());
+        assertArrayEquals(image().postings()[1], read.postings()[1]);
+
+        Files.writeString(csv, "accountNumber,holderName,balance\nC003,Cy,1.00\n");
+        assertNull(WarmStartFile.read(file, csv));
+        assertNull(WarmStartFile.read(dir.resolve("missing.warm"), csv));
+    }
+
+    @Test
+    void isStaleOnceTheCsvChangesEvenWithTheSameSizeAndTime() throws Exception {
+        Path csv = dir.resolve("a.csv");
+        Path file = dir.resolve("a.warm");
+        WarmStartFile.write(file, csv, writeCsv(csv, "A001 Ann"), image());
+        FileTime modified = Files.getLastModifiedTime(csv);
+        writeCsv(csv, "A001 Bob");
+        Files.setLastModifiedTime(csv, modified);
+        assertNull(WarmStartFile.read(file, csv));
+
+        WarmStartFile.write(file, csv, writeCsv(csv, "A001 Bob"), image());
+        Files.writeString(csv, Files.readString(csv).replace("# crc=", "# CRC="));
+        Files.setLastModifiedTime(csv, modified);
+        assertNull(WarmStartFile.read(file, csv)); // no checksum line
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws Exception {
+        Path csv = dir.resolve("a.csv");
+        Path file = dir.resolve("a.warm");
+        WarmStartFile.write(file, csv, writeCsv(csv), image());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 12] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> WarmStartFile.read(file, csv));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> WarmStartFile.read(file, csv));
+    }
+}
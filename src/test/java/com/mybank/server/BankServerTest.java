@@ -0,0 +1,131 @@
+package com.mybank.server;
+
+import com.mybank.manager.BankManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankServerTest {
+    @TempDir
+    Path dir;
+    private BankManager manager;
+    private BankServer server;
+
+    @BeforeEach
+    void start() throws Exception {
+        manager = new BankManager(dir.resolve("accounts.csv"));
+        server = BankServer.start(manager, 0);
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+        manager.close();
+    }
+
+    private List<String> exchange(String requests, int responseLines) throws Exception {
+        try (Socket socket = new Socket("localhost", server.port())) {
+            socket.getOutputStream().write(requests.getBytes(StandardCharsets.UTF_8));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < responseLines; i++) lines.add(in.readLine());
+            return lines;
+        }
+    }
+
+    @Test
+    void pipelinedRequestsAreAnsweredInOrder() throws Exception {
+        List<String> r = exchange("""
+                CREATE A001 10.00 Alice Smith
+                create B002 5 Bob
+                DEPOSIT A001 2.50
+                WITHDRAW B002 1.00
+                TRANSFER A001 B002 0.50
+                GET a001
+                SEARCH smi
+                TOP 1
+                STATS
+                RANGE 4 5
+                QUIT
+                """, 14);
+        assertEquals(List.of(
+                "OK", "OK", "OK", "OK", "OK",
+                "OK A001 12.00 Alice Smith",
+                "OK 1", "A001 12.00 Alice Smith",
+                "OK 1", "A001 12.00 Alice Smith",
+                "OK 2 16.50 8.25 4.50 12.00",
+                "OK 1", "B002 4.50 Bob",
+                "OK"), r);
+        assertEquals(1650, manager.totalBalance());
+    }
+
+    @Test
+    void errorsAreReportedAndTheConnectionStaysOpen() throws Exception {
+        List<String> r = exchange("""
+                WITHDRAW NOPE 1
+                DEPOSIT
+                FROB
+                TOP x
+                CREATE A001 -1 Alice
+                GET A001
+                """, 6);
+        assertEquals("ERR Account not found: NOPE", r.get(0));
+        assertTrue(r.get(1).startsWith("ERR Usage: DEPOSIT"));
+        assertEquals("ERR Unknown command: FROB", r.get(2));
+        assertEquals("ERR Invalid count: x", r.get(3));
+        assertTrue(r.get(4).startsWith("ERR"));
+        assertEquals("ERR Account not found: A001", r.get(5));
+    }
+
+    @Test
+    void overlongRequestsAreRejectedWithoutDroppingTheConnection() throws Exception {
+        String huge = "SEARCH " + "x".repeat(BankServer.MAX_REQUEST_LENGTH * 4);
+        List<String> r = exchange("CREATE A001 1 Alice\n" + huge + "\r\nGET A001\r\n", 3);
+        assertEquals("OK", r.get(0));
+        assertEquals("ERR Request longer than " + BankServer.MAX_REQUEST_LENGTH + " characters", r.get(1));
+        assertEquals("OK A001 1.00 Alice", r.get(2));
+    }
+
+    @Test
+    void retriedTransactionIdsAreAcknowledgedOnce() throws Exception {
+        List<String> r = exchange("""
+                CREATE A001 10.00 Alice
+                CREATE B002 0 Bob
+                DEPOSIT A001 1.00 tx-1
+                DEPOSIT A001 1.00 tx-1
+                TRANSFER A001 B002 2.00 tx-2
+                TRANSFER A001 B002 2.00 tx-2
+                WITHDRAW B002 0.50
+                """, 7);
+        assertEquals(List.of("OK", "OK", "OK", "OK DUPLICATE", "OK", "OK DUPLICATE", "OK"), r);
+        assertEquals(900, manager.getByNumber("A001").orElseThrow().getBalance());
+        assertEquals(150, manager.getByNumber("B002").orElseThrow().getBalance());
+    }
+
+    @Test
+    void loadGeneratorReportsThroughputAndPercentiles() throws Exception {
+        LoadGenerator.Report report = LoadGenerator.run(new InetSocketAddress("localhost", server.port()),
+                new LoadGenerator.Options(50, 8, 100, Duration.ofMillis(300)));
+        assertTrue(report.requests() > 0);
+        assertEquals(0, report.errors());
+        assertEquals(report.requests(), report.latenciesNanos().length);
+        assertTrue(report.percentile(50) <= report.percentile(99));
+        assertTrue(report.throughput() > 0);
+        assertTrue(report.toString().contains("p99="));
+        assertEquals(100, manager.balanceStats().count());
+        assertTrue(server.requestCount() >= report.requests());
+    }
+}
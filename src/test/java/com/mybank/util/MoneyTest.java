@@ -0,0 +1,63 @@
+package com.mybank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void parse_acceptsUpToTwoFractionDigits() {
+        assertEquals(1200, Money.parse("12"));
+        assertEquals(1250, Money.parse("12.5"));
+        assertEquals(1205, Money.parse(" 12.05 "));
+        assertEquals(50, Money.parse(".5"));
+        assertEquals(-75, Money.parse("-0.75"));
+        assertEquals(100, Money.parse("+1."));
+    }
+
+    @Test
+    void parse_rejectsInvalidText() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("."));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1e3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("12a"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    void format_alwaysHasTwoFractionDigits() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("12.50", Money.format(1250));
+        assertEquals("-3.07", Money.format(-307));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, Money.parse(Money.format(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void parseBytes_matchesStringParser() {
+        ByteBuffer buf = ByteBuffer.wrap("x,-12.5,7,.05,1.234,,1e2".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(-1250, Money.parse(buf, 2, 7));
+        assertEquals(700, Money.parse(buf, 8, 9));
+        assertEquals(5, Money.parse(buf, 10, 13));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(buf, 14, 19));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(buf, 20, 20));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(buf, 21, 24));
+    }
+
+    @Test
+    void putAscii_matchesFormat() {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        for (long cents : new long[]{0, 7, 1250, -307, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            buf.clear();
+            Money.putAscii(buf, cents);
+            assertEquals(Money.format(cents), new String(buf.array(), 0, buf.position(), StandardCharsets.US_ASCII));
+        }
+    }
+}